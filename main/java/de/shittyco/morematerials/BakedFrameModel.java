@@ -0,0 +1,428 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.client.renderer.block.model.BakedQuad;
+import net.minecraft.client.renderer.block.model.BlockFaceUV;
+import net.minecraft.client.renderer.block.model.BlockPartFace;
+import net.minecraft.client.renderer.block.model.FaceBakery;
+import net.minecraft.client.renderer.block.model.ItemCameraTransforms;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.client.renderer.vertex.VertexFormat;
+import net.minecraft.client.resources.model.IBakedModel;
+import net.minecraft.client.resources.model.ModelRotation;
+import net.minecraft.client.resources.model.SimpleBakedModel;
+import net.minecraft.util.EnumFacing;
+import net.minecraftforge.client.model.IFlexibleBakedModel;
+import net.minecraftforge.client.model.ISmartBlockModel;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+import org.lwjgl.util.vector.Vector3f;
+
+/**
+ * A wooden frame model: planks on every side, with the frame overlay
+ * drawn over the planks on the four sides, the way the grass overlay is
+ * drawn. If the frames render connected, it is baked for every
+ * connection mask. A side with a frame beside it then draws its overlay
+ * as four quarters, and the quarters along a connected edge sample the
+ * overlay past its timbers, so frames next to each other share one
+ * border instead of each drawing their own. The quads of each side and
+ * edge mask are baked once and shared by the masks.
+ * @author jrowlett
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class BakedFrameModel implements ISmartBlockModel, IFlexibleBakedModel {
+
+    /**
+     * Edge bit for a frame on the left of a side.
+     */
+    private static final int LEFT = 1;
+
+    /**
+     * Edge bit for a frame on the right of a side.
+     */
+    private static final int RIGHT = 2;
+
+    /**
+     * Edge bit for a frame above a side.
+     */
+    private static final int TOP = 4;
+
+    /**
+     * Edge bit for a frame below a side.
+     */
+    private static final int BOTTOM = 8;
+
+    /**
+     * Count of edge masks of a side.
+     */
+    private static final int EDGE_MASK_COUNT = 16;
+
+    /**
+     * Size of a block in model units.
+     */
+    private static final float BLOCK_SIZE = 16.0f;
+
+    /**
+     * Size of a quarter of a side in model units.
+     */
+    private static final float QUARTER_SIZE = 8.0f;
+
+    /**
+     * Width of the timbers along the edges of the frame texture.
+     */
+    private static final float BORDER = 2.0f;
+
+    /**
+     * Tint index of faces that are not tinted.
+     */
+    private static final int NO_TINT_INDEX = -1;
+
+    /**
+     * Bakes the quads.
+     */
+    private static final FaceBakery FACE_BAKERY = new FaceBakery();
+
+    /**
+     * The baked models indexed by connection mask.
+     */
+    private IBakedModel[] models;
+
+    /**
+     * The sprite of the planks.
+     */
+    private TextureAtlasSprite sprite;
+
+    /**
+     * The vertex format.
+     */
+    private VertexFormat format;
+
+    /**
+     * Initializes a new instance of the BakedFrameModel class.
+     * @param overlaySprite the sprite of the frame overlay.
+     * @param planksSprite the sprite of the planks.
+     * @param vertexFormat the vertex format.
+     * @param connected whether the frame renders connected to its
+     * neighbors, otherwise only the lone frame is baked.
+     */
+    public BakedFrameModel(
+        final TextureAtlasSprite overlaySprite,
+        final TextureAtlasSprite planksSprite,
+        final VertexFormat vertexFormat,
+        final boolean connected) {
+        this.sprite = planksSprite;
+        this.format = vertexFormat;
+        int edgeMaskCount = connected ? EDGE_MASK_COUNT : 1;
+        List<BakedQuad>[][] sides =
+            new List[EnumFacing.HORIZONTALS.length][edgeMaskCount];
+        for (EnumFacing facing : EnumFacing.HORIZONTALS) {
+            for (int edges = 0; edges < edgeMaskCount; edges++) {
+                sides[facing.getHorizontalIndex()][edges] = bakeSide(
+                    facing,
+                    edges,
+                    overlaySprite,
+                    planksSprite);
+            }
+        }
+
+        List<BakedQuad>[] ends = new List[EnumFacing.VALUES.length];
+        for (EnumFacing facing : EnumFacing.VALUES) {
+            if (facing.getAxis().isVertical()) {
+                ends[facing.getIndex()] = Collections.singletonList(
+                    bakeQuad(
+                        new Vector3f(0, 0, 0),
+                        new Vector3f(BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE),
+                        facing,
+                        new float[] {0, 0, BLOCK_SIZE, BLOCK_SIZE},
+                        planksSprite));
+            }
+        }
+
+        List<BakedQuad> general = Collections.emptyList();
+        this.models = new IBakedModel[
+            connected ? BlockBaseWoodenFrame.CONNECTION_MASK_COUNT : 1];
+        for (int mask = 0; mask < this.models.length; mask++) {
+            List<List<BakedQuad>> faceQuads =
+                new ArrayList<List<BakedQuad>>();
+            for (EnumFacing facing : EnumFacing.VALUES) {
+                if (facing.getAxis().isVertical()) {
+                    faceQuads.add(ends[facing.getIndex()]);
+                } else {
+                    faceQuads.add(sides[facing.getHorizontalIndex()]
+                        [getEdges(mask, facing)]);
+                }
+            }
+
+            this.models[mask] = new SimpleBakedModel(
+                general,
+                faceQuads,
+                true,
+                true,
+                planksSprite,
+                ItemCameraTransforms.DEFAULT);
+        }
+    }
+
+    /**
+     * Gets the model for the connections of a frame.
+     * @param state the extended block state, which has no connections
+     * unless the frames render connected.
+     * @return the model for the state's connection mask.
+     */
+    @Override
+    public final IBakedModel handleBlockState(final IBlockState state) {
+        return this.models[BlockBaseWoodenFrame.getConnectionMask(state)];
+    }
+
+    /**
+     * Gets the quads of a side of a lone frame.
+     * @param side the side.
+     * @return the quads culled by the side.
+     */
+    @Override
+    public final List getFaceQuads(final EnumFacing side) {
+        return this.models[0].getFaceQuads(side);
+    }
+
+    /**
+     * Gets the quads of a lone frame that are never culled.
+     * @return the quads.
+     */
+    @Override
+    public final List getGeneralQuads() {
+        return this.models[0].getGeneralQuads();
+    }
+
+    /**
+     * Gets whether the model uses ambient occlusion.
+     * @return true.
+     */
+    @Override
+    public final boolean isAmbientOcclusion() {
+        return true;
+    }
+
+    /**
+     * Gets whether the model is drawn in 3D in the inventory.
+     * @return true.
+     */
+    @Override
+    public final boolean isGui3d() {
+        return true;
+    }
+
+    /**
+     * Gets whether the model is drawn by a special renderer.
+     * @return false.
+     */
+    @Override
+    public final boolean isBuiltInRenderer() {
+        return false;
+    }
+
+    /**
+     * Gets the particle texture.
+     * @return the sprite of the planks.
+     */
+    @Override
+    public final TextureAtlasSprite getTexture() {
+        return this.sprite;
+    }
+
+    /**
+     * Gets the camera transforms.
+     * @return the default transforms.
+     */
+    @Override
+    public final ItemCameraTransforms getItemCameraTransforms() {
+        return ItemCameraTransforms.DEFAULT;
+    }
+
+    /**
+     * Gets the vertex format.
+     * @return the vertex format.
+     */
+    @Override
+    public final VertexFormat getFormat() {
+        return this.format;
+    }
+
+    /**
+     * Helper to get the edges of a side that have a frame beside them.
+     * @param mask the connection mask.
+     * @param facing the side.
+     * @return the edge bits.
+     */
+    private static int getEdges(final int mask, final EnumFacing facing) {
+        int edges = 0;
+        if (isConnected(mask, facing.rotateY())) {
+            edges |= LEFT;
+        }
+
+        if (isConnected(mask, facing.rotateYCCW())) {
+            edges |= RIGHT;
+        }
+
+        if (isConnected(mask, EnumFacing.UP)) {
+            edges |= TOP;
+        }
+
+        if (isConnected(mask, EnumFacing.DOWN)) {
+            edges |= BOTTOM;
+        }
+
+        return edges;
+    }
+
+    /**
+     * Helper to check a side of a connection mask.
+     * @param mask the connection mask.
+     * @param facing the side.
+     * @return whether there is a frame on the side.
+     */
+    private static boolean isConnected(
+        final int mask,
+        final EnumFacing facing) {
+        return (mask & (1 << facing.getIndex())) != 0;
+    }
+
+    /**
+     * Helper to bake a side for an edge mask: the planks, then the
+     * overlay, which is one quad if no edge is connected.
+     * @param facing the side.
+     * @param edges the edge bits.
+     * @param overlay the sprite of the frame overlay.
+     * @param planks the sprite of the planks.
+     * @return the quads in drawing order.
+     */
+    private static List<BakedQuad> bakeSide(
+        final EnumFacing facing,
+        final int edges,
+        final TextureAtlasSprite overlay,
+        final TextureAtlasSprite planks) {
+        List<BakedQuad> quads = new ArrayList<BakedQuad>();
+        quads.add(bakeSideQuad(facing, 0, 0, BLOCK_SIZE, 0, 0, planks));
+        if (edges == 0) {
+            quads.add(bakeSideQuad(facing, 0, 0, BLOCK_SIZE, 0, 0, overlay));
+            return quads;
+        }
+
+        for (int row = 0; row < 2; row++) {
+            for (int column = 0; column < 2; column++) {
+                float u = column * QUARTER_SIZE;
+                float v = row * QUARTER_SIZE;
+                float textureU = u;
+                float textureV = v;
+                if (column == 0 && (edges & LEFT) != 0) {
+                    textureU += BORDER;
+                } else if (column == 1 && (edges & RIGHT) != 0) {
+                    textureU -= BORDER;
+                }
+
+                if (row == 0 && (edges & TOP) != 0) {
+                    textureV += BORDER;
+                } else if (row == 1 && (edges & BOTTOM) != 0) {
+                    textureV -= BORDER;
+                }
+
+                quads.add(bakeSideQuad(
+                    facing,
+                    u,
+                    v,
+                    QUARTER_SIZE,
+                    textureU,
+                    textureV,
+                    overlay));
+            }
+        }
+
+        return quads;
+    }
+
+    /**
+     * Helper to bake a square of a side. Positions on the side are given
+     * as seen from outside the block, left to right and top to bottom,
+     * like the texture.
+     * @param facing the side.
+     * @param u the left of the square on the side.
+     * @param v the top of the square on the side.
+     * @param size the size of the square.
+     * @param textureU the left of the square in the texture.
+     * @param textureV the top of the square in the texture.
+     * @param sprite the sprite.
+     * @return the quad.
+     */
+    private static BakedQuad bakeSideQuad(
+        final EnumFacing facing,
+        final float u,
+        final float v,
+        final float size,
+        final float textureU,
+        final float textureV,
+        final TextureAtlasSprite sprite) {
+        EnumFacing right = facing.rotateYCCW();
+        float min = u;
+        if (right.getAxisDirection() == EnumFacing.AxisDirection.NEGATIVE) {
+            min = BLOCK_SIZE - u - size;
+        }
+
+        float minY = BLOCK_SIZE - v - size;
+        Vector3f from;
+        Vector3f to;
+        if (right.getAxis() == EnumFacing.Axis.X) {
+            from = new Vector3f(min, minY, 0);
+            to = new Vector3f(min + size, minY + size, BLOCK_SIZE);
+        } else {
+            from = new Vector3f(0, minY, min);
+            to = new Vector3f(BLOCK_SIZE, minY + size, min + size);
+        }
+
+        return bakeQuad(
+            from,
+            to,
+            facing,
+            new float[] {
+                textureU, textureV, textureU + size, textureV + size},
+            sprite);
+    }
+
+    /**
+     * Helper to bake the face of a box that is culled by its side.
+     * @param from the lower corner of the box.
+     * @param to the upper corner of the box.
+     * @param facing the side of the face.
+     * @param uvs the texture coordinates.
+     * @param sprite the sprite.
+     * @return the quad.
+     */
+    private static BakedQuad bakeQuad(
+        final Vector3f from,
+        final Vector3f to,
+        final EnumFacing facing,
+        final float[] uvs,
+        final TextureAtlasSprite sprite) {
+        return FACE_BAKERY.makeBakedQuad(
+            from,
+            to,
+            new BlockPartFace(
+                facing,
+                NO_TINT_INDEX,
+                "#texture",
+                new BlockFaceUV(uvs, 0)),
+            sprite,
+            facing,
+            ModelRotation.X0_Y0,
+            null,
+            false,
+            true);
+    }
+}
@@ -0,0 +1,685 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.client.renderer.block.model.BakedQuad;
+import net.minecraft.client.renderer.block.model.ItemCameraTransforms;
+import net.minecraft.client.renderer.block.model.ItemTransformVec3f;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.client.renderer.vertex.VertexFormat;
+import net.minecraft.client.resources.model.IBakedModel;
+import net.minecraft.client.resources.model.ModelRotation;
+import net.minecraft.client.resources.model.SimpleBakedModel;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.common.FMLLog;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+import org.lwjgl.util.vector.Vector3f;
+
+import com.google.common.base.Function;
+
+/**
+ * Keeps the models baked from the mod's model files in a file, so later
+ * launches and resource reloads neither parse the files nor bake them
+ * again. The file is stamped with the mod version and a hash of the mod
+ * and the resource packs, and is read whole when the resources reload,
+ * so it is never held open. Each quad keeps the name of its sprite and
+ * is only used while the sprite sits in the same place in the texture
+ * atlas, otherwise the model is baked as usual.
+ * @author jrowlett
+ *
+ */
+@SideOnly(Side.CLIENT)
+public final class BakedModelCache {
+
+    /**
+     * Marks the start of a cache file.
+     */
+    private static final int MAGIC = 0x4D4D4243;
+
+    /**
+     * Version of the file layout. Change when the layout changes.
+     */
+    private static final int FILE_VERSION = 2;
+
+    /**
+     * Slot of a quad that is never culled.
+     */
+    private static final int NO_FACE = -1;
+
+    /**
+     * Most entries of any list in the file, which stops a corrupt count
+     * from allocating a huge array.
+     */
+    private static final int MAX_COUNT = 65536;
+
+    /**
+     * Count of texture coordinates that place a sprite in the atlas.
+     */
+    private static final int BOUNDS_COUNT = 4;
+
+    /**
+     * The cache file.
+     */
+    private File file;
+
+    /**
+     * The models read from the file by name.
+     */
+    private Map<ResourceLocation, Model> loaded =
+        new HashMap<ResourceLocation, Model>();
+
+    /**
+     * The models baked since the resources reloaded, by name.
+     */
+    private Map<ResourceLocation, Model> baked =
+        new LinkedHashMap<ResourceLocation, Model>();
+
+    /**
+     * The mod version of the current resources.
+     */
+    private String version;
+
+    /**
+     * The hash of the mod and the current resource packs.
+     */
+    private String packHash;
+
+    /**
+     * Whether any model was baked from its file since the reload.
+     */
+    private boolean dirty;
+
+    /**
+     * Initializes a new instance of the BakedModelCache class.
+     * @param cacheFile the cache file.
+     */
+    public BakedModelCache(final File cacheFile) {
+        this.file = cacheFile;
+    }
+
+    /**
+     * Reads the file for the reloaded resources. Any error reading the
+     * file leaves the cache empty, so every model is baked as usual.
+     * @param modVersion the mod version.
+     * @param hash the hash of the mod and the resource packs.
+     * @return whether the file has models for the resources.
+     */
+    public boolean load(final String modVersion, final String hash) {
+        this.version = modVersion;
+        this.packHash = hash;
+        this.loaded.clear();
+        this.baked.clear();
+        this.dirty = false;
+        if (!this.file.isFile()) {
+            return false;
+        }
+
+        DataInputStream input = null;
+        try {
+            input = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(this.file)));
+            this.read(input);
+        } catch (IOException e) {
+            FMLLog.warning("Could not read %s: %s", this.file, e);
+            this.loaded.clear();
+        } catch (RuntimeException e) {
+            FMLLog.warning("Model cache %s is corrupt: %s", this.file, e);
+            this.loaded.clear();
+        } finally {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    FMLLog.warning("Could not close %s: %s", this.file, e);
+                }
+            }
+        }
+
+        return !this.loaded.isEmpty();
+    }
+
+    /**
+     * Checks whether the file has a model.
+     * @param name the name of the model.
+     * @return whether the model was read from the file.
+     */
+    public boolean contains(final ResourceLocation name) {
+        return this.loaded.containsKey(name);
+    }
+
+    /**
+     * Gets the textures of a model read from the file.
+     * @param name the name of the model.
+     * @return the textures of every rotation it was baked with.
+     */
+    public Collection<ResourceLocation> getTextures(
+        final ResourceLocation name) {
+        Set<ResourceLocation> textures = new LinkedHashSet<ResourceLocation>();
+        Model model = this.loaded.get(name);
+        textures.add(new ResourceLocation(model.particle));
+        for (Bake bake : model.bakes.values()) {
+            for (String sprite : bake.spriteNames) {
+                textures.add(new ResourceLocation(sprite));
+            }
+        }
+
+        return textures;
+    }
+
+    /**
+     * Makes a model from the file if its quads fit the current atlas.
+     * @param name the name of the model.
+     * @param rotation the rotation to bake the model with.
+     * @param format the vertex format to bake the model with.
+     * @param bakedTextureGetter gets the sprite of a texture.
+     * @return the model, or null if it has to be baked.
+     */
+    public IBakedModel get(
+        final ResourceLocation name,
+        final ModelRotation rotation,
+        final VertexFormat format,
+        final Function<ResourceLocation, TextureAtlasSprite>
+            bakedTextureGetter) {
+        Model model = this.loaded.get(name);
+        Bake bake = model == null ? null : model.bakes.get(rotation);
+        if (bake == null || bake.vertexSize != format.getNextOffset()) {
+            return null;
+        }
+
+        for (int i = 0; i < bake.spriteNames.size(); i++) {
+            TextureAtlasSprite sprite = bakedTextureGetter.apply(
+                new ResourceLocation(bake.spriteNames.get(i)));
+            if (!bake.matches(i, sprite)) {
+                return null;
+            }
+        }
+
+        List<BakedQuad> generalQuads = new ArrayList<BakedQuad>();
+        List<List<BakedQuad>> faceQuads = new ArrayList<List<BakedQuad>>();
+        for (int i = 0; i < EnumFacing.VALUES.length; i++) {
+            faceQuads.add(new ArrayList<BakedQuad>());
+        }
+
+        for (int i = 0; i < bake.quads.size(); i++) {
+            int slot = bake.quadSlots.get(i);
+            if (slot == NO_FACE) {
+                generalQuads.add(bake.quads.get(i));
+            } else {
+                faceQuads.get(slot).add(bake.quads.get(i));
+            }
+        }
+
+        this.keep(name, model, rotation, bake);
+        return new SimpleBakedModel(
+            generalQuads,
+            faceQuads,
+            model.ambientOcclusion,
+            model.gui3d,
+            bakedTextureGetter.apply(new ResourceLocation(model.particle)),
+            model.transforms);
+    }
+
+    /**
+     * Adds a model that was baked from its file.
+     * @param name the name of the model.
+     * @param rotation the rotation the model was baked with.
+     * @param format the vertex format the model was baked with.
+     * @param model the baked model.
+     * @param bake the quads of the model and their sprites.
+     */
+    public void put(
+        final ResourceLocation name,
+        final ModelRotation rotation,
+        final VertexFormat format,
+        final IBakedModel model,
+        final Bake bake) {
+        bake.vertexSize = format.getNextOffset();
+        Model entry = new Model();
+        entry.ambientOcclusion = model.isAmbientOcclusion();
+        entry.gui3d = model.isGui3d();
+        entry.transforms = model.getItemCameraTransforms();
+        entry.particle = model.getTexture().getIconName();
+        this.keep(name, entry, rotation, bake);
+        this.dirty = true;
+    }
+
+    /**
+     * Writes the models baked since the reload to the file if any was
+     * baked from its file, or if any model in the file was not used.
+     */
+    public void save() {
+        int bakes = 0;
+        for (Model model : this.baked.values()) {
+            bakes += model.bakes.size();
+        }
+
+        int loadedBakes = 0;
+        for (Model model : this.loaded.values()) {
+            loadedBakes += model.bakes.size();
+        }
+
+        if ((!this.dirty && bakes == loadedBakes) || this.baked.isEmpty()) {
+            return;
+        }
+
+        File temp = new File(this.file.getPath() + ".tmp");
+        DataOutputStream output = null;
+        try {
+            output = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(temp)));
+            this.write(output);
+        } catch (IOException e) {
+            FMLLog.warning("Could not write %s: %s", temp, e);
+            return;
+        } finally {
+            if (output != null) {
+                try {
+                    output.close();
+                } catch (IOException e) {
+                    FMLLog.warning("Could not close %s: %s", temp, e);
+                }
+            }
+        }
+
+        // renaming over an existing file fails on Windows.
+        if (!temp.renameTo(this.file)
+            && (!this.file.delete() || !temp.renameTo(this.file))) {
+            FMLLog.warning("Could not replace %s.", this.file);
+            temp.delete();
+        }
+
+        this.dirty = false;
+    }
+
+    /**
+     * Helper to add a rotation of a model to the models baked since the
+     * reload.
+     * @param name the name of the model.
+     * @param model the model.
+     * @param rotation the rotation.
+     * @param bake the quads of the rotation.
+     */
+    private void keep(
+        final ResourceLocation name,
+        final Model model,
+        final ModelRotation rotation,
+        final Bake bake) {
+        Model entry = this.baked.get(name);
+        if (entry == null) {
+            entry = new Model();
+            entry.ambientOcclusion = model.ambientOcclusion;
+            entry.gui3d = model.gui3d;
+            entry.transforms = model.transforms;
+            entry.particle = model.particle;
+            this.baked.put(name, entry);
+        }
+
+        entry.bakes.put(rotation, bake);
+    }
+
+    /**
+     * Helper to read the file.
+     * @param input the file.
+     * @throws IOException if the file cannot be read or is corrupt.
+     */
+    private void read(final DataInputStream input) throws IOException {
+        if (input.readInt() != MAGIC
+            || input.readInt() != FILE_VERSION
+            || !input.readUTF().equals(this.version)
+            || !input.readUTF().equals(this.packHash)) {
+            return;
+        }
+
+        int modelCount = readCount(input);
+        for (int m = 0; m < modelCount; m++) {
+            ResourceLocation name = new ResourceLocation(input.readUTF());
+            Model model = new Model();
+            model.ambientOcclusion = input.readBoolean();
+            model.gui3d = input.readBoolean();
+            model.transforms = new ItemCameraTransforms(
+                readTransform(input),
+                readTransform(input),
+                readTransform(input),
+                readTransform(input));
+            model.particle = input.readUTF();
+            int bakeCount = readCount(input);
+            for (int b = 0; b < bakeCount; b++) {
+                ModelRotation rotation =
+                    ModelRotation.values()[input.readByte()];
+                model.bakes.put(rotation, Bake.read(input));
+            }
+
+            this.loaded.put(name, model);
+        }
+    }
+
+    /**
+     * Helper to write the file.
+     * @param output the file.
+     * @throws IOException if the file cannot be written.
+     */
+    private void write(final DataOutputStream output) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeInt(FILE_VERSION);
+        output.writeUTF(this.version);
+        output.writeUTF(this.packHash);
+        output.writeInt(this.baked.size());
+        for (Map.Entry<ResourceLocation, Model> entry
+            : this.baked.entrySet()) {
+            Model model = entry.getValue();
+            output.writeUTF(entry.getKey().toString());
+            output.writeBoolean(model.ambientOcclusion);
+            output.writeBoolean(model.gui3d);
+            writeTransform(output, model.transforms.thirdPerson);
+            writeTransform(output, model.transforms.firstPerson);
+            writeTransform(output, model.transforms.head);
+            writeTransform(output, model.transforms.gui);
+            output.writeUTF(model.particle);
+            output.writeInt(model.bakes.size());
+            for (Map.Entry<ModelRotation, Bake> bake
+                : model.bakes.entrySet()) {
+                output.writeByte(bake.getKey().ordinal());
+                bake.getValue().write(output);
+            }
+        }
+    }
+
+    /**
+     * Helper to read the count of a list in the file.
+     * @param input the file.
+     * @return the count.
+     * @throws IOException if the count is out of range.
+     */
+    private static int readCount(final DataInputStream input)
+        throws IOException {
+        int count = input.readInt();
+        if (count < 0 || count > MAX_COUNT) {
+            throw new IOException("Invalid count " + count);
+        }
+
+        return count;
+    }
+
+    /**
+     * Helper to read an item transform.
+     * @param input the file.
+     * @return the transform.
+     * @throws IOException if the file cannot be read.
+     */
+    private static ItemTransformVec3f readTransform(
+        final DataInputStream input) throws IOException {
+        return new ItemTransformVec3f(
+            readVector(input),
+            readVector(input),
+            readVector(input));
+    }
+
+    /**
+     * Helper to write an item transform.
+     * @param output the file.
+     * @param transform the transform.
+     * @throws IOException if the file cannot be written.
+     */
+    private static void writeTransform(
+        final DataOutputStream output,
+        final ItemTransformVec3f transform) throws IOException {
+        writeVector(output, transform.rotation);
+        writeVector(output, transform.translation);
+        writeVector(output, transform.scale);
+    }
+
+    /**
+     * Helper to read a vector.
+     * @param input the file.
+     * @return the vector.
+     * @throws IOException if the file cannot be read.
+     */
+    private static Vector3f readVector(final DataInputStream input)
+        throws IOException {
+        return new Vector3f(
+            input.readFloat(),
+            input.readFloat(),
+            input.readFloat());
+    }
+
+    /**
+     * Helper to write a vector.
+     * @param output the file.
+     * @param vector the vector.
+     * @throws IOException if the file cannot be written.
+     */
+    private static void writeVector(
+        final DataOutputStream output,
+        final Vector3f vector) throws IOException {
+        output.writeFloat(vector.x);
+        output.writeFloat(vector.y);
+        output.writeFloat(vector.z);
+    }
+
+    /**
+     * Helper to get the texture coordinates of a sprite in the atlas.
+     * @param sprite the sprite.
+     * @return minimum u, maximum u, minimum v and maximum v.
+     */
+    private static float[] getBounds(final TextureAtlasSprite sprite) {
+        return new float[] {
+            sprite.getMinU(),
+            sprite.getMaxU(),
+            sprite.getMinV(),
+            sprite.getMaxV()
+        };
+    }
+
+    /**
+     * A model file and the rotations it was baked with.
+     */
+    private static final class Model {
+        /**
+         * Whether the model uses ambient occlusion.
+         */
+        private boolean ambientOcclusion;
+
+        /**
+         * Whether the model is drawn in 3D in the inventory.
+         */
+        private boolean gui3d;
+
+        /**
+         * The camera transforms.
+         */
+        private ItemCameraTransforms transforms;
+
+        /**
+         * Name of the particle sprite.
+         */
+        private String particle;
+
+        /**
+         * The quads by rotation.
+         */
+        private Map<ModelRotation, Bake> bakes =
+            new LinkedHashMap<ModelRotation, Bake>();
+    }
+
+    /**
+     * The quads of a model baked with one rotation and the sprites they
+     * were baked with.
+     */
+    public static final class Bake {
+        /**
+         * Size of a vertex in bytes.
+         */
+        private int vertexSize;
+
+        /**
+         * Names of the sprites.
+         */
+        private List<String> spriteNames = new ArrayList<String>();
+
+        /**
+         * Texture coordinates of each sprite in the atlas.
+         */
+        private List<float[]> bounds = new ArrayList<float[]>();
+
+        /**
+         * The quads.
+         */
+        private List<BakedQuad> quads = new ArrayList<BakedQuad>();
+
+        /**
+         * The index of the sprite of each quad.
+         */
+        private List<Integer> quadSprites = new ArrayList<Integer>();
+
+        /**
+         * The side that culls each quad, or -1.
+         */
+        private List<Integer> quadSlots = new ArrayList<Integer>();
+
+        /**
+         * Adds a quad.
+         * @param cullFace the side that culls the quad, or null.
+         * @param quad the quad.
+         * @param sprite the sprite the quad was baked with.
+         */
+        public void add(
+            final EnumFacing cullFace,
+            final BakedQuad quad,
+            final TextureAtlasSprite sprite) {
+            String name = sprite.getIconName();
+            int index = this.spriteNames.indexOf(name);
+            if (index < 0) {
+                index = this.spriteNames.size();
+                this.spriteNames.add(name);
+                this.bounds.add(getBounds(sprite));
+            }
+
+            this.quads.add(quad);
+            this.quadSprites.add(index);
+            this.quadSlots.add(
+                cullFace == null ? NO_FACE : cullFace.getIndex());
+        }
+
+        /**
+         * Checks whether a sprite is where it was when the quads were
+         * baked.
+         * @param index the index of the sprite.
+         * @param sprite the sprite now.
+         * @return whether the quads can be used with the sprite.
+         */
+        private boolean matches(
+            final int index,
+            final TextureAtlasSprite sprite) {
+            return sprite != null
+                && Arrays.equals(
+                    this.bounds.get(index),
+                    getBounds(sprite));
+        }
+
+        /**
+         * Reads the quads of a rotation.
+         * @param input the file.
+         * @return the quads.
+         * @throws IOException if the file cannot be read or is corrupt.
+         */
+        private static Bake read(final DataInputStream input)
+            throws IOException {
+            Bake bake = new Bake();
+            bake.vertexSize = input.readInt();
+            int spriteCount = readCount(input);
+            for (int i = 0; i < spriteCount; i++) {
+                bake.spriteNames.add(input.readUTF());
+                float[] spriteBounds = new float[BOUNDS_COUNT];
+                for (int j = 0; j < spriteBounds.length; j++) {
+                    spriteBounds[j] = input.readFloat();
+                }
+
+                bake.bounds.add(spriteBounds);
+            }
+
+            int quadCount = readCount(input);
+            for (int i = 0; i < quadCount; i++) {
+                int slot = input.readByte();
+                int face = input.readByte();
+                int tintIndex = input.readInt();
+                int sprite = input.readShort();
+                int[] vertexData = new int[readCount(input)];
+                for (int j = 0; j < vertexData.length; j++) {
+                    vertexData[j] = input.readInt();
+                }
+
+                if (slot < NO_FACE
+                    || slot >= EnumFacing.VALUES.length
+                    || face < NO_FACE
+                    || face >= EnumFacing.VALUES.length
+                    || sprite < 0
+                    || sprite >= spriteCount) {
+                    throw new IOException("Invalid quad " + i);
+                }
+
+                bake.quadSprites.add(sprite);
+                bake.quadSlots.add(slot);
+                bake.quads.add(new BakedQuad(
+                    vertexData,
+                    tintIndex,
+                    face == NO_FACE ? null : EnumFacing.VALUES[face]));
+            }
+
+            return bake;
+        }
+
+        /**
+         * Writes the quads of a rotation.
+         * @param output the file.
+         * @throws IOException if the file cannot be written.
+         */
+        private void write(final DataOutputStream output)
+            throws IOException {
+            output.writeInt(this.vertexSize);
+            output.writeInt(this.spriteNames.size());
+            for (int i = 0; i < this.spriteNames.size(); i++) {
+                output.writeUTF(this.spriteNames.get(i));
+                for (float bound : this.bounds.get(i)) {
+                    output.writeFloat(bound);
+                }
+            }
+
+            output.writeInt(this.quads.size());
+            for (int i = 0; i < this.quads.size(); i++) {
+                BakedQuad quad = this.quads.get(i);
+                EnumFacing face = quad.getFace();
+                output.writeByte(this.quadSlots.get(i));
+                output.writeByte(face == null ? NO_FACE : face.getIndex());
+                output.writeInt(quad.getTintIndex());
+                output.writeShort(this.quadSprites.get(i));
+                int[] vertexData = quad.getVertexData();
+                output.writeInt(vertexData.length);
+                for (int value : vertexData) {
+                    output.writeInt(value);
+                }
+            }
+        }
+    }
+}
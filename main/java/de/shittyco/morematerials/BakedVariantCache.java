@@ -0,0 +1,347 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.minecraft.client.resources.model.IBakedModel;
+import net.minecraftforge.client.event.ModelBakeEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.FMLLog;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Bounds the model variants that were baked when they first rendered,
+ * dropping the least recently used ones once the cache is full.
+ * Each model holds its variants in its own array, so a lookup is one
+ * array read without a lock. Chunks are meshed on worker threads, so a
+ * hit only writes an access stamp into the model's array and bumps a
+ * counter striped by thread. The stamp is the clock of the last miss,
+ * which orders variants by the misses they survived. The capacity
+ * counts variants over every wall model, and each wall material has one
+ * model of {@link ConnectionUtility#MASK_COUNT} variants.
+ * @author jrowlett
+ *
+ */
+@SideOnly(Side.CLIENT)
+public final class BakedVariantCache {
+
+    /**
+     * Count of hit counters, a power of two.
+     */
+    private static final int HIT_STRIPES = 16;
+
+    /**
+     * Longs between two hit counters, so each has its own cache line.
+     */
+    private static final int STRIPE_STRIDE = 8;
+
+    /**
+     * The part of the capacity a sweep drops, so the sweep runs once
+     * every that many misses instead of on each miss.
+     */
+    private static final int SWEEP_DIVISOR = 4;
+
+    /**
+     * The most variants to keep.
+     */
+    private int capacity;
+
+    /**
+     * The baked variants, in the order they were baked.
+     */
+    private Queue<Entry> entries = new ConcurrentLinkedQueue<Entry>();
+
+    /**
+     * Count of baked variants held.
+     */
+    private AtomicInteger held = new AtomicInteger();
+
+    /**
+     * Advances on each miss. Hits stamp their variant with it.
+     */
+    private AtomicLong clock = new AtomicLong();
+
+    /**
+     * Held by the thread sweeping out the least recently used variants.
+     */
+    private ReentrantLock sweepLock = new ReentrantLock();
+
+    /**
+     * Count of lookups that found the variant, striped by thread.
+     */
+    private AtomicLongArray hits =
+        new AtomicLongArray(HIT_STRIPES * STRIPE_STRIDE);
+
+    /**
+     * Count of lookups that had to bake the variant.
+     */
+    private AtomicLong misses = new AtomicLong();
+
+    /**
+     * Count of variants dropped to make room.
+     */
+    private AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Initializes a new instance of the BakedVariantCache class.
+     * @param maxVariants the most variants to keep.
+     */
+    public BakedVariantCache(final int maxVariants) {
+        this.capacity = maxVariants;
+    }
+
+    /**
+     * Creates the variant array of a model.
+     * @param count the count of variants of the model.
+     * @return the variants, all of them not baked yet.
+     */
+    public Variants createVariants(final int count) {
+        return new Variants(this, count);
+    }
+
+    /**
+     * Logs the lookups since the last report and drops the variants,
+     * which belong to models that were just replaced.
+     * @param event the event.
+     */
+    @SubscribeEvent
+    public void onModelBake(final ModelBakeEvent event) {
+        this.report();
+        while (this.entries.poll() != null) {
+            this.held.decrementAndGet();
+        }
+    }
+
+    /**
+     * Logs the lookups since the last report when the client leaves a
+     * world. The variants are kept for the next world.
+     * @param event the event.
+     */
+    @SubscribeEvent
+    public void onWorldUnload(final WorldEvent.Unload event) {
+        if (event.world.isRemote) {
+            this.report();
+        }
+    }
+
+    /**
+     * Helper to count a hit on the counter of the current thread.
+     */
+    private void countHit() {
+        int stripe = (int) Thread.currentThread().getId()
+            & (HIT_STRIPES - 1);
+        this.hits.incrementAndGet(stripe * STRIPE_STRIDE);
+    }
+
+    /**
+     * Helper to add a variant that was just baked, and to sweep out the
+     * least recently used variants if the cache is full.
+     * @param entry the variant.
+     */
+    private void add(final Entry entry) {
+        this.misses.incrementAndGet();
+        this.entries.add(entry);
+        if (this.held.incrementAndGet() > this.capacity) {
+            this.sweep();
+        }
+    }
+
+    /**
+     * Helper to drop the least recently used variants down to three
+     * quarters of the capacity. Skipped if another thread is sweeping.
+     */
+    private void sweep() {
+        if (!this.sweepLock.tryLock()) {
+            return;
+        }
+
+        try {
+            int excess = this.held.get() - this.capacity
+                + this.capacity / SWEEP_DIVISOR;
+            if (excess <= 0) {
+                return;
+            }
+
+            List<Entry> byAge = new ArrayList<Entry>(this.entries);
+            for (Entry entry : byAge) {
+                entry.age = entry.owner.stamps.get(entry.variant);
+            }
+
+            Collections.sort(byAge, new Comparator<Entry>() {
+                @Override
+                public int compare(final Entry a, final Entry b) {
+                    return a.age < b.age ? -1 : (a.age == b.age ? 0 : 1);
+                }
+            });
+
+            for (int i = 0; i < excess && i < byAge.size(); i++) {
+                Entry entry = byAge.get(i);
+                entry.evicted = true;
+                entry.owner.models.compareAndSet(
+                    entry.variant,
+                    entry.model,
+                    null);
+            }
+
+            Iterator<Entry> iterator = this.entries.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().evicted) {
+                    iterator.remove();
+                    this.held.decrementAndGet();
+                    this.evictions.incrementAndGet();
+                }
+            }
+        } finally {
+            this.sweepLock.unlock();
+        }
+    }
+
+    /**
+     * Helper to log the lookups since the last report and reset the
+     * counts.
+     */
+    private void report() {
+        long found = 0;
+        for (int i = 0; i < HIT_STRIPES; i++) {
+            found += this.hits.getAndSet(i * STRIPE_STRIDE, 0);
+        }
+
+        long baked = this.misses.getAndSet(0);
+        long evicted = this.evictions.getAndSet(0);
+        if (baked > 0) {
+            FMLLog.info(
+                "Baked model variants: %d hits, %d misses, %d evicted, "
+                + "%d held.",
+                found,
+                baked,
+                evicted,
+                this.held.get());
+        }
+    }
+
+    /**
+     * The variants of one model, each baked the first time it renders.
+     */
+    public static final class Variants {
+        /**
+         * The cache holding the variants.
+         */
+        private final BakedVariantCache cache;
+
+        /**
+         * The baked variants, or null where not baked.
+         */
+        private final AtomicReferenceArray<IBakedModel> models;
+
+        /**
+         * The clock of the cache when each variant was last used.
+         */
+        private final AtomicLongArray stamps;
+
+        /**
+         * Initializes a new instance of the Variants class.
+         * @param variantCache the cache holding the variants.
+         * @param count the count of variants.
+         */
+        private Variants(
+            final BakedVariantCache variantCache,
+            final int count) {
+            this.cache = variantCache;
+            this.models = new AtomicReferenceArray<IBakedModel>(count);
+            this.stamps = new AtomicLongArray(count);
+        }
+
+        /**
+         * Gets a variant and marks it as used.
+         * @param variant the variant.
+         * @return the baked variant, or null if it is not baked.
+         */
+        public IBakedModel get(final int variant) {
+            IBakedModel model = this.models.get(variant);
+            if (model != null) {
+                this.stamps.lazySet(variant, this.cache.clock.get());
+                this.cache.countHit();
+            }
+
+            return model;
+        }
+
+        /**
+         * Adds a variant that was just baked. If another thread baked
+         * the variant first, its model is kept.
+         * @param variant the variant that was baked.
+         * @param model the baked variant.
+         * @return the baked variant held by the model.
+         */
+        public IBakedModel put(final int variant, final IBakedModel model) {
+            if (!this.models.compareAndSet(variant, null, model)) {
+                IBakedModel existing = this.models.get(variant);
+                return existing != null ? existing : model;
+            }
+
+            this.stamps.set(variant, this.cache.clock.incrementAndGet());
+            this.cache.add(new Entry(this, variant, model));
+            return model;
+        }
+    }
+
+    /**
+     * A baked variant of a model.
+     */
+    private static final class Entry {
+        /**
+         * The variants of the model.
+         */
+        private final Variants owner;
+
+        /**
+         * The variant.
+         */
+        private final int variant;
+
+        /**
+         * The baked variant.
+         */
+        private final IBakedModel model;
+
+        /**
+         * The stamp of the variant when the sweep started.
+         */
+        private long age;
+
+        /**
+         * Whether the sweep dropped the variant.
+         */
+        private boolean evicted;
+
+        /**
+         * Initializes a new instance of the Entry class.
+         * @param modelVariants the variants of the model.
+         * @param modelVariant the variant.
+         * @param bakedModel the baked variant.
+         */
+        private Entry(
+            final Variants modelVariants,
+            final int modelVariant,
+            final IBakedModel bakedModel) {
+            this.owner = modelVariants;
+            this.variant = modelVariant;
+            this.model = bakedModel;
+        }
+    }
+}
@@ -0,0 +1,595 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.client.renderer.block.model.BakedQuad;
+import net.minecraft.client.renderer.block.model.BlockFaceUV;
+import net.minecraft.client.renderer.block.model.BlockPartFace;
+import net.minecraft.client.renderer.block.model.FaceBakery;
+import net.minecraft.client.renderer.block.model.ItemCameraTransforms;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.client.renderer.vertex.VertexFormat;
+import net.minecraft.client.resources.model.IBakedModel;
+import net.minecraft.client.resources.model.ModelRotation;
+import net.minecraft.client.resources.model.SimpleBakedModel;
+import net.minecraft.util.EnumFacing;
+import net.minecraftforge.client.model.IFlexibleBakedModel;
+import net.minecraftforge.client.model.ISmartBlockModel;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+import org.lwjgl.util.vector.Vector3f;
+
+/**
+ * A wall model baked for every connection mask from one geometry table.
+ * The boxes are the same for every wall, only the sprites differ, so a
+ * new wall material needs no model files. An overlay is drawn over each
+ * face like the grass overlay and is the only part tinted by the block.
+ * @author jrowlett
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class BakedWallModel implements ISmartBlockModel, IFlexibleBakedModel {
+
+    /**
+     * Count of quad lists of a connection mask, one for each side that
+     * culls quads and one for quads that are never culled.
+     */
+    private static final int SLOTS_PER_MASK = EnumFacing.VALUES.length + 1;
+
+    /**
+     * Quad list of a connection mask for quads that are never culled.
+     */
+    private static final int GENERAL_SLOT = EnumFacing.VALUES.length;
+
+    /**
+     * Count of quad lists of a wall.
+     */
+    private static final int SLOT_COUNT =
+        ConnectionUtility.MASK_COUNT * SLOTS_PER_MASK;
+
+    /**
+     * Size of a block in model units.
+     */
+    private static final float BLOCK_SIZE = 16.0f;
+
+    /**
+     * Lower bounds of the post.
+     */
+    private static final float POST_MIN = 4.0f;
+
+    /**
+     * Upper bounds of the post.
+     */
+    private static final float POST_MAX = 12.0f;
+
+    /**
+     * Lower bounds of the wall.
+     */
+    private static final float WALL_MIN = 5.0f;
+
+    /**
+     * Upper bounds of the wall.
+     */
+    private static final float WALL_MAX = 11.0f;
+
+    /**
+     * Height of the wall without the post.
+     */
+    private static final float WALL_HEIGHT = 13.0f;
+
+    /**
+     * Boxes of the wall indexed by connection mask.
+     */
+    private static final Box[][] BOXES = createBoxes();
+
+    /**
+     * Tint index of the overlay faces.
+     */
+    private static final int OVERLAY_TINT_INDEX = 0;
+
+    /**
+     * Tint index of faces that are not tinted.
+     */
+    private static final int NO_TINT_INDEX = -1;
+
+    /**
+     * Bakes the quads.
+     */
+    private static final FaceBakery FACE_BAKERY = new FaceBakery();
+
+    /**
+     * The baked models indexed by connection mask, or null if the masks
+     * are baked on demand.
+     */
+    private IBakedModel[] models;
+
+    /**
+     * The masks baked on demand indexed by connection mask, or null if
+     * every mask is baked.
+     */
+    private BakedVariantCache.Variants variants;
+
+    /**
+     * The sprite of the wall.
+     */
+    private TextureAtlasSprite sprite;
+
+    /**
+     * The sprite of the tinted overlay, or null.
+     */
+    private TextureAtlasSprite overlay;
+
+    /**
+     * The vertex format.
+     */
+    private VertexFormat format;
+
+    /**
+     * Initializes a new instance of the BakedWallModel class.
+     * @param wallSprite the sprite of the wall.
+     * @param quads the quad lists from bakeQuads.
+     * @param vertexFormat the vertex format.
+     */
+    public BakedWallModel(
+        final TextureAtlasSprite wallSprite,
+        final List<BakedQuad>[] quads,
+        final VertexFormat vertexFormat) {
+        this.sprite = wallSprite;
+        this.format = vertexFormat;
+        this.models = new IBakedModel[ConnectionUtility.MASK_COUNT];
+        for (int mask = 0; mask < this.models.length; mask++) {
+            this.models[mask] = createModel(
+                quads,
+                mask * SLOTS_PER_MASK,
+                wallSprite);
+        }
+    }
+
+    /**
+     * Initializes a new instance of the BakedWallModel class that bakes
+     * each connection mask the first time it renders.
+     * @param wallSprite the sprite of the wall.
+     * @param overlaySprite the sprite of the tinted overlay, or null.
+     * @param vertexFormat the vertex format.
+     * @param variantCache holds the baked masks.
+     */
+    public BakedWallModel(
+        final TextureAtlasSprite wallSprite,
+        final TextureAtlasSprite overlaySprite,
+        final VertexFormat vertexFormat,
+        final BakedVariantCache variantCache) {
+        this.sprite = wallSprite;
+        this.format = vertexFormat;
+        this.overlay = overlaySprite;
+        this.variants = variantCache.createVariants(
+            ConnectionUtility.MASK_COUNT);
+    }
+
+    /**
+     * Bakes the quads of a wall for every connection mask.
+     * @param sprite the sprite of the wall.
+     * @param overlay the sprite of the tinted overlay, or null.
+     * @return the quad lists, for each mask one for each side that culls
+     * quads followed by one for quads that are never culled.
+     */
+    public static List<BakedQuad>[] bakeQuads(
+        final TextureAtlasSprite sprite,
+        final TextureAtlasSprite overlay) {
+        List<BakedQuad>[] quads = new List[SLOT_COUNT];
+        for (int i = 0; i < quads.length; i++) {
+            quads[i] = new ArrayList<BakedQuad>();
+        }
+
+        for (int mask = 0; mask < BOXES.length; mask++) {
+            bakeMask(
+                BOXES[mask],
+                sprite,
+                overlay,
+                quads,
+                mask * SLOTS_PER_MASK);
+        }
+
+        return quads;
+    }
+
+    /**
+     * Gets the model for the connections of a wall.
+     * @param state the actual block state.
+     * @return the model for the state's connection mask.
+     */
+    @Override
+    public final IBakedModel handleBlockState(final IBlockState state) {
+        return this.getModel(BlockGenericWall.getConnectionMask(state));
+    }
+
+    /**
+     * Gets the quads of a side of the lone post.
+     * @param side the side.
+     * @return the quads culled by the side.
+     */
+    @Override
+    public final List getFaceQuads(final EnumFacing side) {
+        return this.getModel(0).getFaceQuads(side);
+    }
+
+    /**
+     * Gets the quads of the lone post that are never culled.
+     * @return the quads.
+     */
+    @Override
+    public final List getGeneralQuads() {
+        return this.getModel(0).getGeneralQuads();
+    }
+
+    /**
+     * Gets whether the model uses ambient occlusion.
+     * @return true.
+     */
+    @Override
+    public final boolean isAmbientOcclusion() {
+        return true;
+    }
+
+    /**
+     * Gets whether the model is drawn in 3D in the inventory.
+     * @return true.
+     */
+    @Override
+    public final boolean isGui3d() {
+        return true;
+    }
+
+    /**
+     * Gets whether the model is drawn by a special renderer.
+     * @return false.
+     */
+    @Override
+    public final boolean isBuiltInRenderer() {
+        return false;
+    }
+
+    /**
+     * Gets the particle texture.
+     * @return the sprite of the wall.
+     */
+    @Override
+    public final TextureAtlasSprite getTexture() {
+        return this.sprite;
+    }
+
+    /**
+     * Gets the camera transforms.
+     * @return the default transforms.
+     */
+    @Override
+    public final ItemCameraTransforms getItemCameraTransforms() {
+        return ItemCameraTransforms.DEFAULT;
+    }
+
+    /**
+     * Gets the vertex format.
+     * @return the vertex format.
+     */
+    @Override
+    public final VertexFormat getFormat() {
+        return this.format;
+    }
+
+    /**
+     * Helper to get the model of a connection mask, baking it if it is
+     * baked on demand and not in the variant cache.
+     * @param mask the side connection bits plus the up bit.
+     * @return the model.
+     */
+    private IBakedModel getModel(final int mask) {
+        if (this.models != null) {
+            return this.models[mask];
+        }
+
+        IBakedModel model = this.variants.get(mask);
+        if (model != null) {
+            return model;
+        }
+
+        List<BakedQuad>[] quads = new List[SLOTS_PER_MASK];
+        for (int i = 0; i < quads.length; i++) {
+            quads[i] = new ArrayList<BakedQuad>();
+        }
+
+        bakeMask(BOXES[mask], this.sprite, this.overlay, quads, 0);
+        return this.variants.put(mask, createModel(quads, 0, this.sprite));
+    }
+
+    /**
+     * Helper to make the model of one connection mask.
+     * @param quads the quad lists.
+     * @param first the first quad list of the mask.
+     * @param sprite the sprite of the wall.
+     * @return the model.
+     */
+    private static IBakedModel createModel(
+        final List<BakedQuad>[] quads,
+        final int first,
+        final TextureAtlasSprite sprite) {
+        List<List<BakedQuad>> faceQuads = new ArrayList<List<BakedQuad>>();
+        for (int i = 0; i < EnumFacing.VALUES.length; i++) {
+            faceQuads.add(quads[first + i]);
+        }
+
+        return new SimpleBakedModel(
+            quads[first + GENERAL_SLOT],
+            faceQuads,
+            true,
+            true,
+            sprite,
+            ItemCameraTransforms.DEFAULT);
+    }
+
+    /**
+     * Helper to bake the boxes of one connection mask.
+     * @param boxes the boxes.
+     * @param sprite the sprite of the wall.
+     * @param overlay the sprite of the tinted overlay, or null.
+     * @param quads gets populated with the quads.
+     * @param first the first quad list of the mask.
+     */
+    private static void bakeMask(
+        final Box[] boxes,
+        final TextureAtlasSprite sprite,
+        final TextureAtlasSprite overlay,
+        final List<BakedQuad>[] quads,
+        final int first) {
+        for (Box box : boxes) {
+            for (int i = 0; i < box.faces.size(); i++) {
+                EnumFacing facing = box.faces.get(i);
+                EnumFacing cull = box.culls.get(i);
+                List<BakedQuad> slot = quads[first + GENERAL_SLOT];
+                if (cull != null) {
+                    slot = quads[first + cull.getIndex()];
+                }
+
+                slot.add(bakeFace(box, facing, cull, sprite, NO_TINT_INDEX));
+                if (overlay != null) {
+                    slot.add(bakeFace(
+                        box,
+                        facing,
+                        cull,
+                        overlay,
+                        OVERLAY_TINT_INDEX));
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper to bake a face of a box.
+     * @param box the box.
+     * @param facing the side of the face.
+     * @param cull the side that culls the face, or null.
+     * @param sprite the sprite.
+     * @param tintIndex the tint index of the face, or -1.
+     * @return the quad.
+     */
+    private static BakedQuad bakeFace(
+        final Box box,
+        final EnumFacing facing,
+        final EnumFacing cull,
+        final TextureAtlasSprite sprite,
+        final int tintIndex) {
+        return FACE_BAKERY.makeBakedQuad(
+            box.from,
+            box.to,
+            new BlockPartFace(
+                cull,
+                tintIndex,
+                "#wall",
+                new BlockFaceUV(getUVs(box, facing), 0)),
+            sprite,
+            facing,
+            ModelRotation.X0_Y0,
+            null,
+            false,
+            true);
+    }
+
+    /**
+     * Helper to get the texture coordinates of a face, the same as a
+     * model file without uv gets.
+     * @param box the box.
+     * @param facing the side of the face.
+     * @return the texture coordinates.
+     */
+    private static float[] getUVs(final Box box, final EnumFacing facing) {
+        Vector3f from = box.from;
+        Vector3f to = box.to;
+        switch (facing) {
+        case DOWN:
+        case UP:
+            return new float[] {from.x, from.z, to.x, to.z};
+        case NORTH:
+        case SOUTH:
+            return new float[] {
+                from.x, BLOCK_SIZE - to.y, to.x, BLOCK_SIZE - from.y};
+        default:
+            return new float[] {
+                from.z, BLOCK_SIZE - to.y, to.z, BLOCK_SIZE - from.y};
+        }
+    }
+
+    /**
+     * Helper to build the boxes for every connection mask.
+     * @return the boxes indexed by connection mask.
+     */
+    private static Box[][] createBoxes() {
+        Box[][] boxes = new Box[ConnectionUtility.MASK_COUNT][];
+        for (int mask = 0; mask < boxes.length; mask++) {
+            boxes[mask] = createBoxes(mask);
+        }
+
+        return boxes;
+    }
+
+    /**
+     * Helper to build the boxes of the wall for a connection mask.
+     * A straight wall is one box, which is raised to full height if
+     * something sits on it. Any other wall is a post with an arm for
+     * each connection.
+     * @param mask the side connection bits plus the up bit.
+     * @return the boxes.
+     */
+    private static Box[] createBoxes(final int mask) {
+        int sides = mask & (ConnectionUtility.SIDE_MASK_COUNT - 1);
+        boolean up = (mask & ConnectionUtility.UP) != 0;
+        float height = up ? BLOCK_SIZE : WALL_HEIGHT;
+        EnumFacing upCull = up ? EnumFacing.UP : null;
+        if (sides == (ConnectionUtility.NORTH | ConnectionUtility.SOUTH)) {
+            return new Box[] {
+                new Box(WALL_MIN, 0, 0, WALL_MAX, height, BLOCK_SIZE)
+                    .face(EnumFacing.DOWN, EnumFacing.DOWN)
+                    .face(EnumFacing.UP, upCull)
+                    .face(EnumFacing.NORTH, EnumFacing.NORTH)
+                    .face(EnumFacing.SOUTH, EnumFacing.SOUTH)
+                    .face(EnumFacing.WEST, null)
+                    .face(EnumFacing.EAST, null)
+            };
+        }
+
+        if (sides == (ConnectionUtility.WEST | ConnectionUtility.EAST)) {
+            return new Box[] {
+                new Box(0, 0, WALL_MIN, BLOCK_SIZE, height, WALL_MAX)
+                    .face(EnumFacing.DOWN, EnumFacing.DOWN)
+                    .face(EnumFacing.UP, upCull)
+                    .face(EnumFacing.NORTH, null)
+                    .face(EnumFacing.SOUTH, null)
+                    .face(EnumFacing.WEST, EnumFacing.WEST)
+                    .face(EnumFacing.EAST, EnumFacing.EAST)
+            };
+        }
+
+        List<Box> boxes = new ArrayList<Box>();
+        boxes.add(
+            new Box(POST_MIN, 0, POST_MIN, POST_MAX, BLOCK_SIZE, POST_MAX)
+                .face(EnumFacing.DOWN, EnumFacing.DOWN)
+                .face(EnumFacing.UP, EnumFacing.UP)
+                .face(EnumFacing.NORTH, null)
+                .face(EnumFacing.SOUTH, null)
+                .face(EnumFacing.WEST, null)
+                .face(EnumFacing.EAST, null));
+        if ((sides & ConnectionUtility.NORTH) != 0) {
+            boxes.add(
+                new Box(WALL_MIN, 0, 0, WALL_MAX, WALL_HEIGHT, POST_MIN)
+                    .face(EnumFacing.DOWN, EnumFacing.DOWN)
+                    .face(EnumFacing.UP, null)
+                    .face(EnumFacing.NORTH, EnumFacing.NORTH)
+                    .face(EnumFacing.WEST, null)
+                    .face(EnumFacing.EAST, null));
+        }
+
+        if ((sides & ConnectionUtility.SOUTH) != 0) {
+            boxes.add(
+                new Box(
+                    WALL_MIN,
+                    0,
+                    POST_MAX,
+                    WALL_MAX,
+                    WALL_HEIGHT,
+                    BLOCK_SIZE)
+                    .face(EnumFacing.DOWN, EnumFacing.DOWN)
+                    .face(EnumFacing.UP, null)
+                    .face(EnumFacing.SOUTH, EnumFacing.SOUTH)
+                    .face(EnumFacing.WEST, null)
+                    .face(EnumFacing.EAST, null));
+        }
+
+        if ((sides & ConnectionUtility.WEST) != 0) {
+            boxes.add(
+                new Box(0, 0, WALL_MIN, POST_MIN, WALL_HEIGHT, WALL_MAX)
+                    .face(EnumFacing.DOWN, EnumFacing.DOWN)
+                    .face(EnumFacing.UP, null)
+                    .face(EnumFacing.NORTH, null)
+                    .face(EnumFacing.SOUTH, null)
+                    .face(EnumFacing.WEST, EnumFacing.WEST));
+        }
+
+        if ((sides & ConnectionUtility.EAST) != 0) {
+            boxes.add(
+                new Box(
+                    POST_MAX,
+                    0,
+                    WALL_MIN,
+                    BLOCK_SIZE,
+                    WALL_HEIGHT,
+                    WALL_MAX)
+                    .face(EnumFacing.DOWN, EnumFacing.DOWN)
+                    .face(EnumFacing.UP, null)
+                    .face(EnumFacing.NORTH, null)
+                    .face(EnumFacing.SOUTH, null)
+                    .face(EnumFacing.EAST, EnumFacing.EAST));
+        }
+
+        return boxes.toArray(new Box[boxes.size()]);
+    }
+
+    /**
+     * A box of the wall and the faces it shows.
+     */
+    private static final class Box {
+        /**
+         * The lower corner in model units.
+         */
+        private Vector3f from;
+
+        /**
+         * The upper corner in model units.
+         */
+        private Vector3f to;
+
+        /**
+         * The sides of the faces.
+         */
+        private List<EnumFacing> faces = new ArrayList<EnumFacing>();
+
+        /**
+         * The side that culls each face, or null if it is never culled.
+         */
+        private List<EnumFacing> culls = new ArrayList<EnumFacing>();
+
+        /**
+         * Initializes a new instance of the Box class.
+         * @param minX lower x.
+         * @param minY lower y.
+         * @param minZ lower z.
+         * @param maxX upper x.
+         * @param maxY upper y.
+         * @param maxZ upper z.
+         */
+        private Box(
+            final float minX,
+            final float minY,
+            final float minZ,
+            final float maxX,
+            final float maxY,
+            final float maxZ) {
+            this.from = new Vector3f(minX, minY, minZ);
+            this.to = new Vector3f(maxX, maxY, maxZ);
+        }
+
+        /**
+         * Adds a face.
+         * @param facing the side of the face.
+         * @param cull the side that culls the face, or null.
+         * @return this box.
+         */
+        private Box face(final EnumFacing facing, final EnumFacing cull) {
+            this.faces.add(facing);
+            this.culls.add(cull);
+            return this;
+        }
+    }
+}
@@ -4,14 +4,60 @@
 package de.shittyco.morematerials;
 
 import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.creativetab.CreativeTabs;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.EnumWorldBlockLayer;
+import net.minecraft.world.IBlockAccess;
+import net.minecraftforge.common.property.IExtendedBlockState;
+import net.minecraftforge.common.property.IUnlistedProperty;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
 
 /**
  * Base class of all wooden frame variants.
+ * The frame model draws a shared frame overlay over the planks of the
+ * block's wood. When connected frames are rendered, the extended state
+ * of a frame whose overlay can connect carries a mask of the sides with
+ * the same frame of the same wood, which the frame model uses to leave
+ * out the timbers between them.
  * @author jrowlett
  *
  */
-public abstract class BlockBaseWoodenFrame extends WoodBlock {
+public abstract class BlockBaseWoodenFrame extends WoodBlock
+    implements IModelRegistrant {
+
+    /**
+     * Count of connection masks, one bit per side by facing index.
+     */
+    public static final int CONNECTION_MASK_COUNT =
+        1 << EnumFacing.VALUES.length;
+
+    /**
+     * The sides with the same frame of the same wood, set only for
+     * rendering.
+     */
+    private static final IUnlistedProperty<Integer> CONNECTIONS =
+        new ConnectionsProperty();
+
+    /**
+     * Reusable position for neighbor lookups, one per thread since chunks
+     * are meshed on worker threads.
+     */
+    private static final ThreadLocal<BlockPos.MutableBlockPos> CURSOR =
+        new ThreadLocal<BlockPos.MutableBlockPos>() {
+            @Override
+            protected BlockPos.MutableBlockPos initialValue() {
+                return new BlockPos.MutableBlockPos();
+            }
+        };
+
+    /**
+     * Whether connected frames are rendered.
+     */
+    private static volatile boolean connectedTextures;
+
     /**
      * The blocks registered id or name.
      */
@@ -44,11 +90,161 @@ public abstract class BlockBaseWoodenFrame extends WoodBlock {
         this.setUnlocalizedName(unlocalizedName);
     }
 
+    /**
+     * Sets whether connected frames are rendered. The connections are
+     * only looked up when they are.
+     * @param enabled whether connected frames are rendered.
+     */
+    public static void setConnectedTextures(final boolean enabled) {
+        connectedTextures = enabled;
+    }
+
+    /**
+     * Gets the connection mask of an extended block state.
+     * @param state the extended block state.
+     * @return a bit for each side with the same frame of the same wood,
+     * by facing index.
+     */
+    public static int getConnectionMask(final IBlockState state) {
+        if (!(state instanceof IExtendedBlockState)) {
+            return 0;
+        }
+
+        Integer mask = ((IExtendedBlockState) state).getValue(CONNECTIONS);
+        return mask == null ? 0 : mask;
+    }
+
     /**
      * Registers models for inventory.
      * @param proxy the proxy for either client or server.
      */
+    @Override
     public final void registerModels(final CommonProxy proxy) {
         super.registerModels(proxy, this.id);
     }
+
+    /**
+     * Gets the render layer. The frame overlay is cut out over the planks
+     * like the grass overlay.
+     * @return the cutout mipped layer.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final EnumWorldBlockLayer getBlockLayer() {
+        return EnumWorldBlockLayer.CUTOUT_MIPPED;
+    }
+
+    /**
+     * Gets the extended block state for rendering. Only called on the
+     * client, once per block each time its chunk is meshed.
+     * @param state the actual block state.
+     * @param world the world.
+     * @param pos the block position.
+     * @return the block state with the connections if connected frames
+     * are rendered and the overlay can connect.
+     */
+    @Override
+    public final IBlockState getExtendedState(
+        final IBlockState state,
+        final IBlockAccess world,
+        final BlockPos pos) {
+        if (!connectedTextures || !this.hasConnectedOverlay()) {
+            return state;
+        }
+
+        return ((IExtendedBlockState) state).withProperty(
+            CONNECTIONS,
+            this.computeConnections(state, world, pos));
+    }
+
+    /**
+     * Gets the properties that are only set on the extended block state.
+     * @return the connections.
+     */
+    @Override
+    protected final IUnlistedProperty[] getUnlistedProperties() {
+        return new IUnlistedProperty[] {CONNECTIONS};
+    }
+
+    /**
+     * Gets whether the overlay can connect to the same frame beside it.
+     * Only an overlay with nothing but timbers along its edges can leave
+     * them out, the diagonal timbers would no longer meet.
+     * @return false.
+     */
+    protected boolean hasConnectedOverlay() {
+        return false;
+    }
+
+    /**
+     * Helper to find the sides with the same frame of the same wood.
+     * @param state the block state.
+     * @param world the world.
+     * @param pos the block position.
+     * @return the connection mask.
+     */
+    private int computeConnections(
+        final IBlockState state,
+        final IBlockAccess world,
+        final BlockPos pos) {
+        BlockPos.MutableBlockPos cursor = CURSOR.get();
+        int meta = this.getMetaFromState(state);
+        int mask = 0;
+        for (EnumFacing facing : EnumFacing.VALUES) {
+            IBlockState neighbor = world.getBlockState(cursor.set(
+                pos.getX() + facing.getFrontOffsetX(),
+                pos.getY() + facing.getFrontOffsetY(),
+                pos.getZ() + facing.getFrontOffsetZ()));
+            if (neighbor.getBlock() == this
+                && this.getMetaFromState(neighbor) == meta) {
+                mask |= 1 << facing.getIndex();
+            }
+        }
+
+        return mask;
+    }
+
+    /**
+     * The connection mask property.
+     */
+    private static final class ConnectionsProperty
+        implements IUnlistedProperty<Integer> {
+        /**
+         * Gets the name of the property.
+         * @return the name.
+         */
+        @Override
+        public String getName() {
+            return "connections";
+        }
+
+        /**
+         * Checks a value of the property.
+         * @param value the value.
+         * @return whether the value is a connection mask.
+         */
+        @Override
+        public boolean isValid(final Integer value) {
+            return value >= 0 && value < CONNECTION_MASK_COUNT;
+        }
+
+        /**
+         * Gets the type of the values.
+         * @return integer.
+         */
+        @Override
+        public Class<Integer> getType() {
+            return Integer.class;
+        }
+
+        /**
+         * Converts a value to a string.
+         * @param value the value.
+         * @return the mask as a decimal number.
+         */
+        @Override
+        public String valueToString(final Integer value) {
+            return value.toString();
+        }
+    }
 }
@@ -11,7 +11,8 @@ import net.minecraft.item.Item;
  * @author jrowlett
  *
  */
-public class BlockBrickWall extends BlockGenericWall {
+public class BlockBrickWall extends BlockGenericWall
+    implements IModelRegistrant {
     /**
      * ID for registry.
      */
@@ -46,9 +47,10 @@ public class BlockBrickWall extends BlockGenericWall {
      * Call on init to register the icons for inventory.
      * @param proxy the proxy to register the models.
      */
+    @Override
     public final void registerModels(
         final CommonProxy proxy) {
-        Item itemBlock = GameUtility.getItemFromBlock(ID);
+        Item itemBlock = Item.getItemFromBlock(this);
         proxy.addModelBakeryVariant(
             itemBlock,
             "morematerials:" + ID);
@@ -56,5 +58,6 @@ public class BlockBrickWall extends BlockGenericWall {
             itemBlock,
             ID,
             0);
+        proxy.registerWallStateMapper(this, null, new String[] {ID});
     }
 }
@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.network.Packet;
+import net.minecraft.network.play.server.S21PacketChunkData;
+import net.minecraft.network.play.server.S22PacketMultiBlockChange;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * Block changes that are sent to the clients together.
+ * Each block is set without notifying its neighbors or sending its own
+ * packet, and the commit sends one packet per chunk to the players
+ * watching it. Only use it for changes that keep the shape of the block,
+ * since the neighbors are never told.
+ * @author jrowlett
+ *
+ */
+final class BlockChangeBatch {
+
+    /**
+     * Flags for setting a block with no neighbor notification or packet.
+     */
+    private static final int NO_UPDATE_FLAGS = 0;
+
+    /**
+     * Count of changes in a chunk from which the changed sections are
+     * resent whole, the same as the player manager.
+     */
+    private static final int SECTION_RESEND_THRESHOLD = 64;
+
+    /**
+     * Shift from a block coordinate to a chunk or section coordinate.
+     */
+    private static final int CHUNK_SHIFT = 4;
+
+    /**
+     * Mask of a block coordinate within a chunk.
+     */
+    private static final int CHUNK_MASK = 15;
+
+    /**
+     * Shift of the x coordinate in a packed position.
+     */
+    private static final int PACKED_X_SHIFT = 12;
+
+    /**
+     * Shift of the z coordinate in a packed position.
+     */
+    private static final int PACKED_Z_SHIFT = 8;
+
+    /**
+     * The world the blocks are in.
+     */
+    private final World world;
+
+    /**
+     * The changed positions, grouped by chunk.
+     */
+    private final Map<Long, List<BlockPos>> changes =
+        new LinkedHashMap<Long, List<BlockPos>>();
+
+    /**
+     * Count of changed blocks.
+     */
+    private int size;
+
+    /**
+     * Initializes a new instance of the BlockChangeBatch class.
+     * @param batchWorld the world the blocks are in.
+     */
+    BlockChangeBatch(final World batchWorld) {
+        this.world = batchWorld;
+    }
+
+    /**
+     * Gets the count of changed blocks.
+     * @return the count.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Sets a block without notifying the neighbors or the clients.
+     * @param pos the block position.
+     * @param state the new block state.
+     */
+    public void setBlockState(final BlockPos pos, final IBlockState state) {
+        if (!this.world.setBlockState(pos, state, NO_UPDATE_FLAGS)) {
+            return;
+        }
+
+        Long key = ChunkCoordIntPair.chunkXZ2Int(
+            pos.getX() >> CHUNK_SHIFT,
+            pos.getZ() >> CHUNK_SHIFT);
+        List<BlockPos> chunkChanges = this.changes.get(key);
+        if (chunkChanges == null) {
+            chunkChanges = new ArrayList<BlockPos>();
+            this.changes.put(key, chunkChanges);
+        }
+
+        chunkChanges.add(pos);
+        this.size++;
+    }
+
+    /**
+     * Sends the changes to the players watching each chunk, one packet
+     * per chunk.
+     */
+    public void commit() {
+        if (!(this.world instanceof WorldServer)) {
+            return;
+        }
+
+        for (List<BlockPos> chunkChanges : this.changes.values()) {
+            BlockPos first = chunkChanges.get(0);
+            Chunk chunk = this.world.getChunkFromBlockCoords(first);
+            this.sendToWatchers(
+                chunk,
+                createPacket(chunk, chunkChanges));
+        }
+
+        this.changes.clear();
+        this.size = 0;
+    }
+
+    /**
+     * Helper to make the packet for the changes in a chunk: the changed
+     * blocks, or the changed sections if there are many.
+     * @param chunk the chunk.
+     * @param chunkChanges the changed positions in the chunk.
+     * @return the packet.
+     */
+    private static Packet createPacket(
+        final Chunk chunk,
+        final List<BlockPos> chunkChanges) {
+        if (chunkChanges.size() >= SECTION_RESEND_THRESHOLD) {
+            int sectionMask = 0;
+            for (BlockPos pos : chunkChanges) {
+                sectionMask |= 1 << (pos.getY() >> CHUNK_SHIFT);
+            }
+
+            return new S21PacketChunkData(chunk, false, sectionMask);
+        }
+
+        short[] positions = new short[chunkChanges.size()];
+        for (int i = 0; i < positions.length; i++) {
+            BlockPos pos = chunkChanges.get(i);
+            positions[i] = (short) (
+                (pos.getX() & CHUNK_MASK) << PACKED_X_SHIFT
+                | (pos.getZ() & CHUNK_MASK) << PACKED_Z_SHIFT
+                | pos.getY());
+        }
+
+        return new S22PacketMultiBlockChange(
+            positions.length,
+            positions,
+            chunk);
+    }
+
+    /**
+     * Helper to send a packet to the players watching a chunk.
+     * @param chunk the chunk.
+     * @param packet the packet.
+     */
+    private void sendToWatchers(final Chunk chunk, final Packet packet) {
+        WorldServer server = (WorldServer) this.world;
+        for (Object entity : server.playerEntities) {
+            EntityPlayerMP player = (EntityPlayerMP) entity;
+            if (server.getPlayerManager().isPlayerWatchingChunk(
+                player,
+                chunk.xPosition,
+                chunk.zPosition)) {
+                player.playerNetServerHandler.sendPacket(packet);
+            }
+        }
+    }
+}
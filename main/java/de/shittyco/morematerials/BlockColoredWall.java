@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.List;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockFence;
+import net.minecraft.block.properties.IProperty;
+import net.minecraft.block.properties.PropertyEnum;
+import net.minecraft.block.state.BlockState;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.creativetab.CreativeTabs;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Base class of walls that come in every color.
+ * The color is stored in metadata, so the connections are derived
+ * from the neighbors.
+ * @author jrowlett
+ *
+ */
+public abstract class BlockColoredWall extends BlockGenericWall
+    implements IModelRegistrant, IPaintable {
+    /**
+     * The property used for the color.
+     */
+    public static final PropertyEnum COLOR =
+        PropertyEnum.create("color", ColorMetadata.class);
+
+    /**
+     * Converts between metadata and block states.
+     */
+    private final StateCodec codec;
+
+    /**
+     * Initializes a new instance of the BlockColoredWall class.
+     * @param source the material the wall is made of.
+     */
+    protected BlockColoredWall(final Block source) {
+        super(source, 0);
+        IBlockState state = this.getDefaultState();
+        state = state.withProperty(COLOR, ColorMetadata.BLACK);
+        this.setDefaultState(state);
+        this.codec = StateCodec.create(state, COLOR, ColorMetadata.values());
+    }
+
+    /**
+     * Gets the ID to use for registration.
+     * @return the unique name of the block.
+     */
+    public abstract String getId();
+
+    /**
+     * Gets the name the models for a color were registered under.
+     * This was the block ID when every color was its own block.
+     * @param color the color from 0-15.
+     * @return the model name.
+     */
+    public abstract String getModelId(int color);
+
+    /**
+     * Gets a block state from metadata.
+     * @param meta the color value.
+     * @return a block state with the color set.
+     */
+    @Override
+    public final IBlockState getStateFromMeta(final int meta) {
+        return this.codec.getState(meta);
+    }
+
+    /**
+     * Gets the metadata value from a block state.
+     * @param state the block state.
+     * @return the color value.
+     */
+    @Override
+    public final int getMetaFromState(final IBlockState state) {
+        return this.codec.getMeta(state);
+    }
+
+    /**
+     * Gets the color of a block state.
+     * @param state the block state.
+     * @return the color from 0-15.
+     */
+    @Override
+    public final int getColor(final IBlockState state) {
+        return this.codec.getMeta(state);
+    }
+
+    /**
+     * Gets the block state of another color. The connections come from
+     * the neighbors, so they stay the same.
+     * @param state the block state.
+     * @param color the color from 0-15.
+     * @return the block state of the color.
+     */
+    @Override
+    public final IBlockState withColor(
+        final IBlockState state,
+        final int color) {
+        return this.codec.getState(color);
+    }
+
+    /**
+     * Gets the damage for the block's item when dropped.
+     * @param state the block's state.
+     * @return the color value.
+     */
+    @Override
+    public final int damageDropped(final IBlockState state) {
+        return this.codec.getMeta(state);
+    }
+
+    /**
+     * Gets the sub blocks.
+     * @param item the item that gets dropped.
+     * @param tab the creative tab for the item.
+     * @param subItems gets populated with sub items.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final void getSubBlocks(
+        final Item item,
+        final CreativeTabs tab,
+        final List subItems) {
+        for (int ix = 0; ix < ColorUtility.COLOR_COUNT; ix++) {
+            subItems.add(new ItemStack(item, 1, ix));
+        }
+    }
+
+    /**
+     * Call on init to register the icons for inventory.
+     * @param proxy the proxy to register the models.
+     */
+    @Override
+    public final void registerModels(final CommonProxy proxy) {
+        String[] modelIds = new String[ColorUtility.COLOR_COUNT];
+        String[] blockStateIds = new String[ColorUtility.COLOR_COUNT];
+        for (int i = 0; i < ColorUtility.COLOR_COUNT; i++) {
+            modelIds[i] = this.getModelId(i);
+            blockStateIds[i] = this.getBlockStateId(i);
+        }
+
+        proxy.registerVariantInventoryModels(
+            Item.getItemFromBlock(this),
+            modelIds);
+        proxy.registerWallStateMapper(this, COLOR, blockStateIds);
+    }
+
+    /**
+     * Gets the block state file for a color.
+     * @param color the color metadata.
+     * @return the block state file, the same as the item model.
+     */
+    protected String getBlockStateId(final int color) {
+        return this.getModelId(color);
+    }
+
+    /**
+     * Gets whether the side connections are stored in metadata.
+     * @return false, the metadata holds the color.
+     */
+    @Override
+    protected final boolean storesConnections() {
+        return false;
+    }
+
+    /**
+     * Creates the empty block state.
+     * @return empty block state with properties.
+     */
+    @Override
+    protected final BlockState createBlockState() {
+        IProperty[] props = new IProperty[] {
+            BlockFence.NORTH,
+            BlockFence.EAST,
+            BlockFence.WEST,
+            BlockFence.SOUTH,
+            UP,
+            COLOR
+        };
+
+        return new BlockState(this, props);
+    }
+}
@@ -11,10 +11,10 @@ package de.shittyco.morematerials;
 public class BlockDoubleStainedBrickSlab extends BlockStainedBrickSlab {
     /**
      * Initializes a new instance of the BlockDoubleStainedBrickSlab class.
-     * @param brickColor the brick color.
+     * @param colorGroup the group of 8 colors.
      */
-    public BlockDoubleStainedBrickSlab(final int brickColor) {
-        super(brickColor);
+    public BlockDoubleStainedBrickSlab(final int colorGroup) {
+        super(colorGroup);
     }
 
     /**
@@ -3,15 +3,26 @@
  */
 package de.shittyco.morematerials;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockFence;
-import net.minecraft.block.material.Material;
 import net.minecraft.block.properties.IProperty;
 import net.minecraft.block.properties.PropertyBool;
 import net.minecraft.block.state.BlockState;
 import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.util.AxisAlignedBB;
 import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.MovingObjectPosition;
+import net.minecraft.util.Vec3;
 import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
 
 /**
  * Customizable Wall block that supports different materials.
@@ -26,7 +37,7 @@ public abstract class BlockGenericWall extends BlockFence {
     /**
      * The UP property to render the wall at full height.
      */
-    private static final PropertyBool UP = PropertyBool.create("up");
+    protected static final PropertyBool UP = PropertyBool.create("up");
 
     /**
      * lower bounds for the post.
@@ -53,6 +64,52 @@ public abstract class BlockGenericWall extends BlockFence {
      */
     private static final float WALL_HEIGHT = 0.8125F;
 
+    /**
+     * lower bounds for the collision boxes.
+     */
+    private static final float COLLISION_MIN = 0.375F;
+
+    /**
+     * upper bounds for the collision boxes.
+     */
+    private static final float COLLISION_MAX = 0.625F;
+
+    /**
+     * Height of the collision boxes so mobs cannot jump over.
+     */
+    private static final float COLLISION_HEIGHT = 1.5F;
+
+    /**
+     * Flag for setBlockState to send the change to clients without
+     * notifying neighbors.
+     */
+    private static final int UPDATE_CLIENTS = 2;
+
+    /**
+     * Selection and ray trace shapes indexed by connection mask.
+     * The boxes are immutable, so they can be shared between the
+     * client thread and the chunk render workers.
+     */
+    private static final AxisAlignedBB[] SHAPES = createShapes();
+
+    /**
+     * Entity collision boxes indexed by side connection mask.
+     */
+    private static final AxisAlignedBB[][] COLLISION_BOXES =
+        createCollisionBoxes();
+
+    /**
+     * Reusable position for neighbor lookups, one per thread since chunks
+     * are meshed on worker threads.
+     */
+    private static final ThreadLocal<BlockPos.MutableBlockPos> CURSOR =
+        new ThreadLocal<BlockPos.MutableBlockPos>() {
+            @Override
+            protected BlockPos.MutableBlockPos initialValue() {
+                return new BlockPos.MutableBlockPos();
+            }
+        };
+
     /**
      * The block on which the wall is based.
      */
@@ -83,6 +140,8 @@ public abstract class BlockGenericWall extends BlockFence {
 
     /**
      * Updates the blocks bounds based on its current state.
+     * Only kept for vanilla callers, the wall's own ray trace and
+     * selection use the shape table.
      * @param blockAccess the world.
      * @param pos block position.
      */
@@ -90,11 +149,471 @@ public abstract class BlockGenericWall extends BlockFence {
     public final void setBlockBoundsBasedOnState(
         final IBlockAccess blockAccess,
         final BlockPos pos) {
-        boolean north = this.canConnectTo(blockAccess, pos.north());
-        boolean south = this.canConnectTo(blockAccess, pos.south());
-        boolean west = this.canConnectTo(blockAccess, pos.west());
-        boolean east = this.canConnectTo(blockAccess, pos.east());
-        boolean up = this.canConnectUp(blockAccess, pos);
+        BoundsUtility.setBlockBounds(
+            this,
+            SHAPES[this.getShapeMask(blockAccess, pos)]);
+    }
+
+    /**
+     * Gets the box to outline when the wall is selected.
+     * @param world the world.
+     * @param pos block position.
+     * @return the selection box in world coordinates.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final AxisAlignedBB getSelectedBoundingBox(
+        final World world,
+        final BlockPos pos) {
+        return BoundsUtility.offset(
+            SHAPES[this.getShapeMask(world, pos)],
+            pos);
+    }
+
+    /**
+     * Gets whether a side of the wall is drawn. The end of an arm or
+     * a straight wall is hidden by a wall next to it, since every wall
+     * meets its neighbor with an arm at least as large. A straight wall
+     * raised to full height is taller than its neighbor's arm, so it
+     * keeps the face unless the neighbor is raised and straight too.
+     * @param blockAccess the world.
+     * @param pos the position of the neighbor on the side.
+     * @param side the side.
+     * @return whether the faces on the side are drawn.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final boolean shouldSideBeRendered(
+        final IBlockAccess blockAccess,
+        final BlockPos pos,
+        final EnumFacing side) {
+        if (side.getAxis().isHorizontal()) {
+            Block neighbor = blockAccess.getBlockState(pos).getBlock();
+            if (neighbor instanceof BlockGenericWall
+                && (!isRaisedStraight(this.getShapeMask(
+                        blockAccess,
+                        pos.offset(side.getOpposite())))
+                    || isRaisedStraight(((BlockGenericWall) neighbor)
+                        .getShapeMask(blockAccess, pos)))) {
+                return false;
+            }
+        }
+
+        return super.shouldSideBeRendered(blockAccess, pos, side);
+    }
+
+    /**
+     * Traces a ray against the wall's shape.
+     * @param world the world.
+     * @param pos block position.
+     * @param start the start of the ray.
+     * @param end the end of the ray.
+     * @return the hit or null if the ray misses.
+     */
+    @Override
+    public final MovingObjectPosition collisionRayTrace(
+        final World world,
+        final BlockPos pos,
+        final Vec3 start,
+        final Vec3 end) {
+        return BoundsUtility.rayTrace(
+            SHAPES[this.getShapeMask(world, pos)],
+            pos,
+            start,
+            end);
+    }
+
+    /**
+     * Adds the collision boxes for the wall's connections.
+     * @param world the world.
+     * @param pos block position.
+     * @param state the block state.
+     * @param mask the area being tested.
+     * @param list gets populated with the intersecting boxes.
+     * @param collidingEntity the entity being moved.
+     */
+    @Override
+    public final void addCollisionBoxesToList(
+        final World world,
+        final BlockPos pos,
+        final IBlockState state,
+        final AxisAlignedBB mask,
+        final List<AxisAlignedBB> list,
+        final Entity collidingEntity) {
+        int sides = this.getStoredConnections(world, pos, state);
+        BoundsUtility.addCollisionBoxes(
+            COLLISION_BOXES[sides],
+            pos,
+            mask,
+            list);
+    }
+
+    /**
+     * Return whether an adjacent block can connect to a wall.
+     * @param blockAccess the block access interface.
+     * @param pos world coordinate.
+     * @return whether a block can connect to the wall.
+     */
+    @Override
+    public final boolean canConnectTo(
+        final IBlockAccess blockAccess,
+        final BlockPos pos) {
+        return WallConnectivity.connects(
+            blockAccess.getBlockState(pos).getBlock());
+    }
+
+    /**
+     * Gets the actual block state.
+     * The side connections are read back from metadata, only the up
+     * property is derived from the world.
+     * @param state block state object
+     * @param blockAccess world
+     * @param pos location in the world
+     * @return the modified state.
+     */
+    @Override
+    public final IBlockState getActualState(
+        final IBlockState state,
+        final IBlockAccess blockAccess,
+        final BlockPos pos) {
+        int mask = this.getStoredConnections(blockAccess, pos, state);
+        boolean isUp = this.canConnectUp(blockAccess, pos);
+        return withConnections(state, mask).withProperty(UP, isUp);
+    }
+
+    /**
+     * Gets the connection mask of an actual block state, which picks
+     * the wall's shape and model.
+     * @param state the actual block state.
+     * @return the side connection bits plus the up bit.
+     */
+    public static int getConnectionMask(final IBlockState state) {
+        int mask = ConnectionUtility.getSideMask(
+            state,
+            BlockFence.NORTH,
+            BlockFence.SOUTH,
+            BlockFence.WEST,
+            BlockFence.EAST);
+        if ((Boolean) state.getValue(UP)) {
+            mask |= ConnectionUtility.UP;
+        }
+
+        return mask;
+    }
+
+    /**
+     * Gets a block state from metadata.
+     * @param meta the stored connection bits.
+     * @return a block state with the side connections set.
+     */
+    @Override
+    public IBlockState getStateFromMeta(final int meta) {
+        return withConnections(this.getDefaultState(), meta);
+    }
+
+    /**
+     * Gets the metadata value from a block state.
+     * @param state the block state.
+     * @return the stored connection bits.
+     */
+    @Override
+    public int getMetaFromState(final IBlockState state) {
+        return ConnectionUtility.getSideMask(
+            state,
+            BlockFence.NORTH,
+            BlockFence.SOUTH,
+            BlockFence.WEST,
+            BlockFence.EAST);
+    }
+
+    /**
+     * Gets the state to place, with connections to the current neighbors.
+     * @param world the world.
+     * @param pos the position of the new block.
+     * @param facing the side that was clicked.
+     * @param hitX x coordinate of the hit.
+     * @param hitY y coordinate of the hit.
+     * @param hitZ z coordinate of the hit.
+     * @param meta metadata from the item.
+     * @param placer the entity placing the block.
+     * @return the state to place.
+     */
+    @Override
+    public final IBlockState onBlockPlaced(
+        final World world,
+        final BlockPos pos,
+        final EnumFacing facing,
+        final float hitX,
+        final float hitY,
+        final float hitZ,
+        final int meta,
+        final EntityLivingBase placer) {
+        IBlockState state = this.getStateFromMeta(meta);
+        if (!this.storesConnections()) {
+            return state;
+        }
+
+        return withConnections(
+            state,
+            this.computeConnections(world, pos, 0));
+    }
+
+    /**
+     * Stores the connections when the block is set in the world by
+     * other means than placing it, for example by commands.
+     * @param world the world.
+     * @param pos the block position.
+     * @param state the block state.
+     */
+    @Override
+    public final void onBlockAdded(
+        final World world,
+        final BlockPos pos,
+        final IBlockState state) {
+        this.updateConnections(world, pos, state);
+    }
+
+    /**
+     * Stores the connections again when a neighbor changes.
+     * @param world the world.
+     * @param pos the block position.
+     * @param state the block state.
+     * @param neighborBlock the block that changed.
+     */
+    @Override
+    public final void onNeighborBlockChange(
+        final World world,
+        final BlockPos pos,
+        final IBlockState state,
+        final Block neighborBlock) {
+        this.updateConnections(world, pos, state);
+    }
+
+    /**
+     * Gets whether the side connections are stored in metadata.
+     * Walls that need the metadata for something else derive all of
+     * their connections from the world.
+     * @return true if the metadata holds the connections.
+     */
+    protected boolean storesConnections() {
+        return true;
+    }
+
+    /**
+     * Creates the empty block state.
+     * @return empty block state with properties.
+     */
+    protected BlockState createBlockState() {
+        IProperty[] props = new IProperty[] {
+            BlockFence.NORTH,
+            BlockFence.EAST,
+            BlockFence.WEST,
+            BlockFence.SOUTH,
+            UP
+        };
+
+        return new BlockState(this, props);
+    }
+
+    /**
+     * Helper to get the index into the shape table.
+     * @param blockAccess the world.
+     * @param pos the wall's position.
+     * @return the side connection bits plus the up bit.
+     */
+    private int getShapeMask(
+        final IBlockAccess blockAccess,
+        final BlockPos pos) {
+        int mask = this.getStoredConnections(
+            blockAccess,
+            pos,
+            blockAccess.getBlockState(pos));
+        if (this.canConnectUp(blockAccess, pos)) {
+            mask |= ConnectionUtility.UP;
+        }
+
+        return mask;
+    }
+
+    /**
+     * Helper to check whether a wall is one box at full height.
+     * @param mask the side connection bits plus the up bit.
+     * @return whether the wall is straight and raised.
+     */
+    private static boolean isRaisedStraight(final int mask) {
+        int sides = mask & (ConnectionUtility.SIDE_MASK_COUNT - 1);
+        return (mask & ConnectionUtility.UP) != 0
+            && (sides == (ConnectionUtility.NORTH | ConnectionUtility.SOUTH)
+                || sides == (ConnectionUtility.WEST | ConnectionUtility.EAST));
+    }
+
+    /**
+     * Helper to write the current connections to metadata if they changed.
+     * @param world the world.
+     * @param pos the wall's position.
+     * @param state the stored block state.
+     */
+    private void updateConnections(
+        final World world,
+        final BlockPos pos,
+        final IBlockState state) {
+        if (world.isRemote || !this.storesConnections()) {
+            return;
+        }
+
+        int stored = this.getMetaFromState(state);
+        int mask = this.computeConnections(world, pos, stored);
+        if (mask != stored) {
+            world.setBlockState(
+                pos,
+                withConnections(state, mask),
+                UPDATE_CLIENTS);
+        }
+    }
+
+    /**
+     * Helper to get the connections stored in metadata.
+     * Walls placed before the connections were stored have no bits set,
+     * so an unconnected wall is checked against its neighbors. Lone posts
+     * are rare enough that this stays off the hot path. Walls that do not
+     * store their connections always check their neighbors.
+     * @param blockAccess the world.
+     * @param pos the wall's position.
+     * @param state the stored block state.
+     * @return the connection bits.
+     */
+    private int getStoredConnections(
+        final IBlockAccess blockAccess,
+        final BlockPos pos,
+        final IBlockState state) {
+        if (state.getBlock() != this) {
+            return 0;
+        }
+
+        if (!this.storesConnections()) {
+            return this.computeConnections(blockAccess, pos, 0);
+        }
+
+        int mask = this.getMetaFromState(state);
+        if (mask == 0) {
+            mask = this.computeConnections(blockAccess, pos, 0);
+        }
+
+        return mask;
+    }
+
+    /**
+     * Helper to compute the connections from the neighboring blocks.
+     * Neighbors in chunks that are not loaded keep their stored bit, so
+     * walls along the edge of the loaded area do not load more chunks.
+     * @param blockAccess the world.
+     * @param pos the wall's position.
+     * @param stored the connection bits stored so far.
+     * @return the connection bits.
+     */
+    private int computeConnections(
+        final IBlockAccess blockAccess,
+        final BlockPos pos,
+        final int stored) {
+        BlockPos.MutableBlockPos cursor = CURSOR.get();
+        int x = pos.getX();
+        int y = pos.getY();
+        int z = pos.getZ();
+        int mask = connectsAt(
+            blockAccess,
+            cursor.set(x, y, z - 1),
+            ConnectionUtility.NORTH,
+            stored);
+
+        mask |= connectsAt(
+            blockAccess,
+            cursor.set(x, y, z + 1),
+            ConnectionUtility.SOUTH,
+            stored);
+
+        mask |= connectsAt(
+            blockAccess,
+            cursor.set(x - 1, y, z),
+            ConnectionUtility.WEST,
+            stored);
+
+        mask |= connectsAt(
+            blockAccess,
+            cursor.set(x + 1, y, z),
+            ConnectionUtility.EAST,
+            stored);
+
+        return mask;
+    }
+
+    /**
+     * Helper to check the connectivity table for a neighbor.
+     * @param blockAccess the world.
+     * @param pos the neighbor's position.
+     * @param bit the connection bit for the direction of the neighbor.
+     * @param stored the connection bits stored so far.
+     * @return the bit if the wall connects to the neighbor or 0.
+     */
+    private static int connectsAt(
+        final IBlockAccess blockAccess,
+        final BlockPos pos,
+        final int bit,
+        final int stored) {
+        if (!ConnectionUtility.isNeighborLoaded(blockAccess, pos)) {
+            return stored & bit;
+        }
+
+        if (WallConnectivity.connects(
+            blockAccess.getBlockState(pos).getBlock())) {
+            return bit;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Helper to set the side connection properties from bits.
+     * @param state the source block state.
+     * @param mask the connection bits.
+     * @return the block state with the side connections set.
+     */
+    private static IBlockState withConnections(
+        final IBlockState state,
+        final int mask) {
+        return ConnectionUtility.withSideMask(
+            state,
+            mask,
+            BlockFence.NORTH,
+            BlockFence.SOUTH,
+            BlockFence.WEST,
+            BlockFence.EAST);
+    }
+
+    /**
+     * Helper to build the shape table for every connection mask.
+     * @return the shapes indexed by connection mask.
+     */
+    private static AxisAlignedBB[] createShapes() {
+        AxisAlignedBB[] shapes =
+            new AxisAlignedBB[ConnectionUtility.MASK_COUNT];
+        for (int mask = 0; mask < shapes.length; mask++) {
+            shapes[mask] = createShape(mask);
+        }
+
+        return shapes;
+    }
+
+    /**
+     * Helper to compute the shape of the wall for a connection mask.
+     * @param mask the side connection bits plus the up bit.
+     * @return the shape relative to the block.
+     */
+    private static AxisAlignedBB createShape(final int mask) {
+        boolean north = (mask & ConnectionUtility.NORTH) != 0;
+        boolean south = (mask & ConnectionUtility.SOUTH) != 0;
+        boolean west = (mask & ConnectionUtility.WEST) != 0;
+        boolean east = (mask & ConnectionUtility.EAST) != 0;
+        boolean up = (mask & ConnectionUtility.UP) != 0;
         float f = POST_MIN;
         float f1 = POST_MAX;
         float f2 = POST_MIN;
@@ -139,78 +658,48 @@ public abstract class BlockGenericWall extends BlockFence {
             }
         }
 
-        this.setBlockBounds(f, 0.0F, f2, f1, f4, f3);
+        return new AxisAlignedBB(f, 0.0F, f2, f1, f4, f3);
     }
 
     /**
-     * Return whether an adjacent block can connect to a wall.
-     * @param blockAccess the block access interface.
-     * @param pos world coordinate.
-     * @return whether a block can connect to the wall.
+     * Helper to build the collision boxes for every side connection mask.
+     * The boxes match what BlockFence adds, one for the north-south
+     * arms and one for the west-east arms or the lone post.
+     * @return the collision boxes indexed by side connection mask.
      */
-    @Override
-    public final boolean canConnectTo(
-        final IBlockAccess blockAccess,
-        final BlockPos pos) {
-        IBlockState blockState = blockAccess.getBlockState(pos);
-        Block block = blockState.getBlock();
+    private static AxisAlignedBB[][] createCollisionBoxes() {
+        AxisAlignedBB[][] boxes =
+            new AxisAlignedBB[ConnectionUtility.SIDE_MASK_COUNT][];
+        for (int mask = 0; mask < boxes.length; mask++) {
+            boolean north = (mask & ConnectionUtility.NORTH) != 0;
+            boolean south = (mask & ConnectionUtility.SOUTH) != 0;
+            boolean west = (mask & ConnectionUtility.WEST) != 0;
+            boolean east = (mask & ConnectionUtility.EAST) != 0;
+            List<AxisAlignedBB> list = new ArrayList<AxisAlignedBB>();
+            if (north || south) {
+                list.add(new AxisAlignedBB(
+                    COLLISION_MIN,
+                    0.0F,
+                    north ? 0.0F : COLLISION_MIN,
+                    COLLISION_MAX,
+                    COLLISION_HEIGHT,
+                    south ? 1.0F : COLLISION_MAX));
+            }
 
-        if (block instanceof BlockGenericWall
-            || block instanceof net.minecraft.block.BlockFenceGate) {
-            return true;
-        }
+            if (west || east || (!north && !south)) {
+                list.add(new AxisAlignedBB(
+                    west ? 0.0F : COLLISION_MIN,
+                    0.0F,
+                    COLLISION_MIN,
+                    east ? 1.0F : COLLISION_MAX,
+                    COLLISION_HEIGHT,
+                    COLLISION_MAX));
+            }
 
-        if (block.getMaterial().isOpaque()
-            && block.isFullCube()) {
-            return block.getMaterial() != Material.gourd;
+            boxes[mask] = list.toArray(new AxisAlignedBB[list.size()]);
         }
 
-        return false;
-    }
-
-    /**
-     * Gets the actual block state.
-     * @param state block state object
-     * @param blockAccess world
-     * @param pos location in the world
-     * @return the modified state.
-     */
-    @Override
-    public final IBlockState getActualState(
-        final IBlockState state,
-        final IBlockAccess blockAccess,
-        final BlockPos pos) {
-        boolean isUp = this.canConnectUp(blockAccess, pos);
-        return state
-            .withProperty(
-                BlockFence.NORTH,
-                this.canConnectTo(blockAccess, pos.north()))
-            .withProperty(
-                BlockFence.SOUTH,
-                this.canConnectTo(blockAccess, pos.south()))
-            .withProperty(
-                BlockFence.WEST,
-                this.canConnectTo(blockAccess, pos.west()))
-            .withProperty(
-                BlockFence.EAST,
-                this.canConnectTo(blockAccess, pos.east()))
-            .withProperty(UP, isUp);
-    }
-
-    /**
-     * Creates the empty block state.
-     * @return empty block state with properties.
-     */
-    protected final BlockState createBlockState() {
-        IProperty[] props = new IProperty[] {
-            BlockFence.NORTH,
-            BlockFence.EAST,
-            BlockFence.WEST,
-            BlockFence.SOUTH,
-            UP
-        };
-
-        return new BlockState(this, props);
+        return boxes;
     }
 
     /**
@@ -225,10 +714,9 @@ public abstract class BlockGenericWall extends BlockFence {
 
         // draw the wall at full height if a torch is on top, but not if a
         // torch is anywhere else.
-        BlockPos upPos = pos.up();
-        IBlockState upState = blockAccess.getBlockState(upPos);
-        Block upBlock = upState.getBlock();
-        return upBlock instanceof net.minecraft.block.BlockTorch
-            || this.canConnectTo(blockAccess, upPos);
+        BlockPos.MutableBlockPos cursor = CURSOR.get();
+        cursor.set(pos.getX(), pos.getY() + 1, pos.getZ());
+        return WallConnectivity.raisesPost(
+            blockAccess.getBlockState(cursor).getBlock());
     }
 }
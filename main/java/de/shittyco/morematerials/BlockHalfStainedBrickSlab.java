@@ -11,10 +11,10 @@ package de.shittyco.morematerials;
 public class BlockHalfStainedBrickSlab extends BlockStainedBrickSlab {
     /**
      * Initializes a new instance of the BlockHalfStainedBrickSlab class.
-     * @param brickColor the brick color.
+     * @param colorGroup the group of 8 colors.
      */
-    public BlockHalfStainedBrickSlab(final int brickColor) {
-        super(brickColor);
+    public BlockHalfStainedBrickSlab(final int colorGroup) {
+        super(colorGroup);
     }
 
     /**
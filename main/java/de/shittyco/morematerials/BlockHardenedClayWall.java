@@ -11,7 +11,8 @@ import net.minecraft.item.Item;
  * @author jrowlett
  *
  */
-public class BlockHardenedClayWall extends BlockGenericWall {
+public class BlockHardenedClayWall extends BlockGenericWall
+    implements IModelRegistrant {
     /**
      * The registration ID.
      */
@@ -46,9 +47,10 @@ public class BlockHardenedClayWall extends BlockGenericWall {
      * Call on init to register the icons for inventory.
      * @param proxy the proxy to register the models.
      */
+    @Override
     public final void registerModels(
         final CommonProxy proxy) {
-        Item itemBlock = GameUtility.getItemFromBlock(ID);
+        Item itemBlock = Item.getItemFromBlock(this);
         proxy.addModelBakeryVariant(
             itemBlock,
             "morematerials:" + ID);
@@ -56,5 +58,6 @@ public class BlockHardenedClayWall extends BlockGenericWall {
             itemBlock,
             ID,
             0);
+        proxy.registerWallStateMapper(this, null, new String[] {ID});
     }
 }
@@ -0,0 +1,201 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.Random;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.properties.IProperty;
+import net.minecraft.block.properties.PropertyInteger;
+import net.minecraft.block.state.BlockState;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.item.Item;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.World;
+
+/**
+ * Holds a registry name from when every color was its own block, so
+ * saves keep their block IDs and the color in the legacy name.
+ * The block is hidden and cannot be crafted. It turns into the block
+ * that replaced it when its chunk is loaded, or when it gets a random
+ * tick if it was placed some other way.
+ * @author jrowlett
+ *
+ */
+public class BlockLegacyAlias extends Block implements IModelRegistrant {
+
+    /**
+     * The property holding the legacy metadata.
+     */
+    public static final PropertyInteger META_PROPERTY =
+        PropertyInteger.create("meta", 0, 15);
+
+    /**
+     * The block that replaced the legacy block.
+     */
+    private final Block replacement;
+
+    /**
+     * The metadata of the replacement block.
+     */
+    private final int replacementMeta;
+
+    /**
+     * Bits of the legacy metadata to keep.
+     */
+    private final int keepMask;
+
+    /**
+     * Initializes a new instance of the BlockLegacyAlias class.
+     * @param replacementBlock the block that replaced the legacy block.
+     * @param meta the metadata of the replacement block.
+     * @param legacyKeepMask bits of the legacy metadata to keep.
+     */
+    public BlockLegacyAlias(
+        final Block replacementBlock,
+        final int meta,
+        final int legacyKeepMask) {
+        super(replacementBlock.getMaterial());
+        this.replacement = replacementBlock;
+        this.replacementMeta = meta;
+        this.keepMask = legacyKeepMask;
+        this.setTickRandomly(true);
+        this.setDefaultState(
+            this.blockState.getBaseState().withProperty(META_PROPERTY, 0));
+        this.setUnlocalizedName(
+            replacementBlock.getUnlocalizedName().substring("tile.".length()));
+    }
+
+    /**
+     * Gets the block that replaced the legacy block.
+     * @return the replacement block.
+     */
+    public final Block getReplacement() {
+        return this.replacement;
+    }
+
+    /**
+     * Gets the replacement state for legacy metadata.
+     * @param legacyMeta the metadata of the legacy block or the damage
+     * of the legacy item.
+     * @return the replacement state.
+     */
+    public final IBlockState getReplacementState(final int legacyMeta) {
+        return this.replacement.getStateFromMeta(
+            this.replacementMeta | (legacyMeta & this.keepMask));
+    }
+
+    /**
+     * Gets the item damage that carries the color of the replacement.
+     * @param legacyMeta the metadata of the legacy block or the damage
+     * of the legacy item.
+     * @return the damage of the replacement item.
+     */
+    public final int getReplacementDamage(final int legacyMeta) {
+        return this.replacement.damageDropped(
+            this.getReplacementState(legacyMeta));
+    }
+
+    /**
+     * Replaces the block when it gets a random tick.
+     * @param world the world.
+     * @param pos the block position.
+     * @param state the block state.
+     * @param rand the random number generator.
+     */
+    @Override
+    public final void updateTick(
+        final World world,
+        final BlockPos pos,
+        final IBlockState state,
+        final Random rand) {
+        world.setBlockState(
+            pos,
+            this.getReplacementState(this.getMetaFromState(state)));
+    }
+
+    /**
+     * Gets the item dropped by the block.
+     * @param state the block state.
+     * @param rand the random number generator.
+     * @param fortune the fortune level.
+     * @return the item dropped by the replacement.
+     */
+    @Override
+    public final Item getItemDropped(
+        final IBlockState state,
+        final Random rand,
+        final int fortune) {
+        return this.replacement.getItemDropped(
+            this.getReplacementState(this.getMetaFromState(state)),
+            rand,
+            fortune);
+    }
+
+    /**
+     * Gets the damage of the item dropped by the block.
+     * @param state the block state.
+     * @return the damage dropped by the replacement.
+     */
+    @Override
+    public final int damageDropped(final IBlockState state) {
+        return this.getReplacementDamage(this.getMetaFromState(state));
+    }
+
+    /**
+     * Gets whether the block is an opaque cube.
+     * @return false, the block is never drawn.
+     */
+    @Override
+    public final boolean isOpaqueCube() {
+        return false;
+    }
+
+    /**
+     * Gets the render type.
+     * @return -1, the block is never drawn.
+     */
+    @Override
+    public final int getRenderType() {
+        return -1;
+    }
+
+    /**
+     * Convert the given metadata into a BlockState for this Block.
+     * @param meta the legacy metadata.
+     * @return the block state.
+     */
+    @Override
+    public final IBlockState getStateFromMeta(final int meta) {
+        return this.getDefaultState().withProperty(META_PROPERTY, meta);
+    }
+
+    /**
+     * Convert the BlockState into the correct metadata value.
+     * @param state the block state.
+     * @return the legacy metadata.
+     */
+    @Override
+    public final int getMetaFromState(final IBlockState state) {
+        return (Integer) state.getValue(META_PROPERTY);
+    }
+
+    /**
+     * Creates the block state.
+     * @return the block state with the legacy metadata property.
+     */
+    @Override
+    protected final BlockState createBlockState() {
+        return new BlockState(this, new IProperty[] {META_PROPERTY});
+    }
+
+    /**
+     * Hides the block from the model loader, it has no models.
+     * @param proxy the proxy to register the models.
+     */
+    @Override
+    public final void registerModels(final CommonProxy proxy) {
+        proxy.registerHiddenBlock(this);
+    }
+}
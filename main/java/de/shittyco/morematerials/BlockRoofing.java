@@ -3,8 +3,15 @@
  */
 package de.shittyco.morematerials;
 
+import java.util.List;
+
 import net.minecraft.block.BlockStairs;
 import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.AxisAlignedBB;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.World;
 
 /**
  * Base class for all roofing blocks.
@@ -21,4 +28,39 @@ public abstract class BlockRoofing extends BlockStairs {
         super(blockState);
         this.useNeighborBrightness = true;
     }
+
+    /**
+     * Gets the actual block state with the shape from the neighbors.
+     * @param state block state object
+     * @param blockAccess world
+     * @param pos location in the world
+     * @return the modified state.
+     */
+    @Override
+    public final IBlockState getActualState(
+        final IBlockState state,
+        final IBlockAccess blockAccess,
+        final BlockPos pos) {
+        return StairsShapeUtility.getActualState(state, blockAccess, pos);
+    }
+
+    /**
+     * Adds the precomputed collision boxes for the stairs' shape.
+     * @param world the world.
+     * @param pos block position.
+     * @param state the block state.
+     * @param mask the area being tested.
+     * @param list gets populated with the intersecting boxes.
+     * @param collidingEntity the entity being moved.
+     */
+    @Override
+    public final void addCollisionBoxesToList(
+        final World world,
+        final BlockPos pos,
+        final IBlockState state,
+        final AxisAlignedBB mask,
+        final List<AxisAlignedBB> list,
+        final Entity collidingEntity) {
+        StairsShapeUtility.addCollisionBoxes(state, world, pos, mask, list);
+    }
 }
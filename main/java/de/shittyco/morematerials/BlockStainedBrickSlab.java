@@ -3,30 +3,55 @@
  */
 package de.shittyco.morematerials;
 
+import java.util.List;
+
 import net.minecraft.block.BlockSlab;
 import net.minecraft.block.material.Material;
 import net.minecraft.block.properties.IProperty;
-import net.minecraft.block.properties.PropertyBool;
+import net.minecraft.block.properties.PropertyInteger;
 import net.minecraft.block.state.BlockState;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.creativetab.CreativeTabs;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumWorldBlockLayer;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.World;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 /**
- * A slab or double slab of stained bricks of a certain color.
+ * A slab or double slab of stained bricks.
+ * Slabs need a metadata bit for the half, so each block holds a group
+ * of 8 colors.
  * @author jrowlett
  *
  */
-public abstract class BlockStainedBrickSlab extends BlockSlab {
+public abstract class BlockStainedBrickSlab extends BlockSlab
+    implements IModelRegistrant, IPaintable {
+    /**
+     * Count of colors in one slab block.
+     */
+    public static final int COLORS_PER_BLOCK = 8;
+
+    /**
+     * Count of slab blocks needed for all colors.
+     */
+    public static final int GROUP_COUNT =
+        ColorUtility.COLOR_COUNT / COLORS_PER_BLOCK;
+
+    /**
+     * The bit in metadata used by the half property.
+     */
+    public static final int HALF_META_BIT = 8;
+
     /**
-     * The property used for the variant.
+     * The property for the color within the group.
      * Needed for interactions with ItemSlab.
      */
-    private static final PropertyBool VARIANT_PROPERTY =
-        PropertyBool.create("variant");
+    private static final PropertyInteger COLOR_PROPERTY =
+        PropertyInteger.create("color", 0, COLORS_PER_BLOCK - 1);
 
     /**
      * The ID for the registry.
@@ -49,39 +74,64 @@ public abstract class BlockStainedBrickSlab extends BlockSlab {
     private static final float RESISTANCE = 10.0f;
 
     /**
-     * The bit in metadata used by the half property.
+     * The bits in metadata used by the color property.
+     */
+    private static final int COLOR_META_MASK = 7;
+
+    /**
+     * The group of colors in this block.
+     */
+    private int group;
+
+    /**
+     * Converts between metadata and block states.
      */
-    private static final int HALF_META_BIT = 8;
+    private final StateCodec codec;
 
     /**
-     * Color - normally stored in metadata, but slabs need the meta.
+     * The half slab item, dropped by both the half and double slab.
      */
-    private int color;
+    private Item slabItem;
+
+    /**
+     * The half and double slabs of every group, paired by group.
+     */
+    private BlockStainedBrickSlab[] colorBlocks;
 
     /**
      * Initializes a new instance of the BlockStainedBrickSlab class.
-     * @param brickColor the color of the stain from 0-15.
+     * @param colorGroup the group of 8 colors, 0 or 1.
      */
     public BlockStainedBrickSlab(
-        final int brickColor) {
+        final int colorGroup) {
         super(Material.rock);
-        this.color = brickColor;
+        this.group = colorGroup;
         this.useNeighborBrightness = !this.isDouble();
         setHardness(HARDNESS);
         setResistance(RESISTANCE);
         setStepSound(soundTypePiston);
-        setUnlocalizedName(NAME + '_' + ColorUtility.COLOR_NAMES[this.color]);
+        setUnlocalizedName(NAME);
         if (!this.isDouble()) {
             setCreativeTab(CreativeTabs.tabBlock);
         }
 
         IBlockState blockState = this.blockState.getBaseState();
-        blockState = blockState.withProperty(VARIANT_PROPERTY, false);
+        blockState = blockState.withProperty(COLOR_PROPERTY, 0);
         if (!this.isDouble()) {
             blockState = blockState.withProperty(HALF, EnumBlockHalf.BOTTOM);
         }
 
         setDefaultState(blockState);
+        if (this.isDouble()) {
+            this.codec = new StateCodec(
+                this.createStates(blockState),
+                COLOR_PROPERTY);
+        } else {
+            this.codec = new StateCodec(
+                this.createStates(blockState),
+                COLOR_PROPERTY,
+                HALF);
+        }
     }
 
     /**
@@ -89,7 +139,98 @@ public abstract class BlockStainedBrickSlab extends BlockSlab {
      * @return the unique id for the registry.
      */
     public final String getId() {
-        return this.innerGetId(this.isDouble());
+        return getId(this.isDouble(), this.group);
+    }
+
+    /**
+     * Gets the ID for the game registry.
+     * @param isDoubleStacked whether it is the double slab.
+     * @param colorGroup the group of 8 colors.
+     * @return the unique id for the registry.
+     */
+    public static String getId(
+        final boolean isDoubleStacked,
+        final int colorGroup) {
+        String result = "";
+        if (isDoubleStacked) {
+            result = "double_";
+        }
+
+        return result + ID + '_' + colorGroup;
+    }
+
+    /**
+     * Gets the name the models for a color were registered under.
+     * This was the block ID when every color was its own block.
+     * @param isDoubleStacked whether it is the double slab.
+     * @param color the color from 0-15.
+     * @return the model name.
+     */
+    public static String getModelId(
+        final boolean isDoubleStacked,
+        final int color) {
+        String result = "";
+        if (isDoubleStacked) {
+            result = "double_";
+        }
+
+        return result + ID + '_' + ColorUtility.COLOR_IDS[color];
+    }
+
+    /**
+     * Sets the half slab item once it is registered.
+     * @param item the half slab item.
+     */
+    public final void setSlabItem(final Item item) {
+        this.slabItem = item;
+    }
+
+    /**
+     * Sets the slabs of every group once they are all created.
+     * @param blocks the half and double slab of each group, in order.
+     */
+    public final void setColorBlocks(final BlockStainedBrickSlab[] blocks) {
+        this.colorBlocks = blocks;
+    }
+
+    /**
+     * Gets the color of a block state.
+     * @param state the block state.
+     * @return the color from 0-15.
+     */
+    @Override
+    public final int getColor(final IBlockState state) {
+        return this.getColor(this.codec.getMeta(state));
+    }
+
+    /**
+     * Gets the slab of another color in the same half.
+     * @param state the block state.
+     * @param color the color from 0-15.
+     * @return the block state of the color, in the slab block of its
+     * group.
+     */
+    @Override
+    public final IBlockState withColor(
+        final IBlockState state,
+        final int color) {
+        int index = 2 * (color / COLORS_PER_BLOCK);
+        if (this.isDouble()) {
+            index++;
+        }
+
+        int meta = (color % COLORS_PER_BLOCK)
+            | (this.codec.getMeta(state) & HALF_META_BIT);
+        return this.colorBlocks[index].getStateFromMeta(meta);
+    }
+
+    /**
+     * Gets the color of the slab from 0-15.
+     * @param meta block metadata or item damage.
+     * @return the color.
+     */
+    public final int getColor(final int meta) {
+        return this.group * COLORS_PER_BLOCK + (meta & COLOR_META_MASK);
     }
 
     /**
@@ -99,75 +240,69 @@ public abstract class BlockStainedBrickSlab extends BlockSlab {
      */
     @Override
     public final String getUnlocalizedName(final int metadata) {
-        return this.getUnlocalizedName();
+        return this.getUnlocalizedName()
+            + '_'
+            + ColorUtility.COLOR_NAMES[this.getColor(metadata)];
     }
 
     /**
      * Gets the value of the variant property based on the item.
      * @param itemStack item stack.
-     * @return the variant value null.
+     * @return the color within the group.
      */
     @Override
     public final Object getVariant(final ItemStack itemStack) {
-        return false;
+        return itemStack.getMetadata() & COLOR_META_MASK;
     }
 
     /**
      * Gets the variant property.
-     * @return the variant property null.
+     * @return the color property.
      */
     @Override
     public final IProperty getVariantProperty() {
-        return VARIANT_PROPERTY;
+        return COLOR_PROPERTY;
     }
 
     /**
      * Gets a block state from metadata.
-     * @param meta the metadata or color value.
-     * @return a block state with the meta encoded as the variant property.
+     * @param meta the metadata with the color and half.
+     * @return a block state with the meta encoded as properties.
      */
     @Override
     public final IBlockState getStateFromMeta(final int meta) {
-        IBlockState blockState = this.getDefaultState();
-        blockState = blockState.withProperty(VARIANT_PROPERTY, false);
-        if (!this.isDouble()) {
-            EnumBlockHalf value = EnumBlockHalf.BOTTOM;
-            if ((meta & HALF_META_BIT) != 0) {
-                value = EnumBlockHalf.TOP;
-            }
-
-            blockState = blockState.withProperty(HALF, value);
-        }
-
-        return blockState;
+        return this.codec.getState(meta);
     }
 
     /**
      * Gets the metadata value from a block state.
      * @param state the block state.
-     * @return the metadata or color value.
+     * @return the metadata with the color and half.
      */
     @Override
     public final int getMetaFromState(final IBlockState state) {
-        if (this.isDouble()) {
-           return 0;
-        }
-
-        if ((EnumBlockHalf) state.getValue(HALF) == EnumBlockHalf.TOP) {
-            return HALF_META_BIT;
-        } else {
-            return 0;
-        }
+        return this.codec.getMeta(state);
     }
 
     /**
      * Gets the damage for the block's item when dropped.
      * @param state the block's state.
-     * @return the metadata or color value.
+     * @return the color within the group.
      */
     @Override
     public final int damageDropped(final IBlockState state) {
-        return 0;
+        return this.codec.getMeta(state) & COLOR_META_MASK;
+    }
+
+    /**
+     * Gets the damage of the item picked from the block.
+     * @param world the world.
+     * @param pos the block position.
+     * @return the color within the group, without the half bit.
+     */
+    @Override
+    public final int getDamageValue(final World world, final BlockPos pos) {
+        return super.getDamageValue(world, pos) & COLOR_META_MASK;
     }
 
     /**
@@ -182,8 +317,7 @@ public abstract class BlockStainedBrickSlab extends BlockSlab {
         final IBlockState blockState,
         final java.util.Random random,
         final int unused) {
-        String blockId = this.innerGetId(false);
-        return GameUtility.getItemFromBlock(blockId);
+        return this.slabItem;
     }
 
     /**
@@ -197,24 +331,117 @@ public abstract class BlockStainedBrickSlab extends BlockSlab {
     public final net.minecraft.item.Item getItem(
         final net.minecraft.world.World world,
         final net.minecraft.util.BlockPos blockPos) {
-        String blockId = this.innerGetId(false);
-        return GameUtility.getItemFromBlock(blockId);
+        return this.slabItem;
+    }
+
+    /**
+     * Gets the sub blocks.
+     * @param item the item that gets dropped.
+     * @param tab the creative tab for the item.
+     * @param subItems gets populated with sub items.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final void getSubBlocks(
+        final Item item,
+        final CreativeTabs tab,
+        final List subItems) {
+        if (this.isDouble()) {
+            return;
+        }
+
+        for (int ix = 0; ix < COLORS_PER_BLOCK; ix++) {
+            subItems.add(new ItemStack(item, 1, ix));
+        }
     }
 
     /**
      * Call on init to register the icons for inventory.
      * @param proxy the proxy to register the models.
      */
+    @Override
     public final void registerModels(final CommonProxy proxy) {
-        Item itemBlock = GameUtility.getItemFromBlock(
-            this.getId());
-        proxy.addModelBakeryVariant(
-            itemBlock,
-            "morematerials:" + this.getId());
-        proxy.registerInventoryModel(
-            itemBlock,
-            this.getId(),
-            0);
+        String[] modelIds = new String[COLORS_PER_BLOCK];
+        for (int i = 0; i < COLORS_PER_BLOCK; i++) {
+            modelIds[i] = getModelId(this.isDouble(), this.getColor(i));
+        }
+
+        proxy.registerColoredStateMapper(this, COLOR_PROPERTY, modelIds);
+        if (this.isDouble()) {
+            return;
+        }
+
+        proxy.registerVariantInventoryModels(
+            Item.getItemFromBlock(this),
+            modelIds);
+    }
+
+    /**
+     * Gets the render layer. The brick overlay is cut out over the
+     * untinted mortar like the grass overlay.
+     * @return the cutout mipped layer.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final EnumWorldBlockLayer getBlockLayer() {
+        return EnumWorldBlockLayer.CUTOUT_MIPPED;
+    }
+
+    /**
+     * Gets the tint of the grayscale brick overlay for a block state.
+     * @param state the block state.
+     * @return the tint as RGB.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final int getRenderColor(final IBlockState state) {
+        return ColorUtility.getTint(
+            ColorUtility.STAINED_BRICKS_TINTS,
+            this.getColor(this.getMetaFromState(state)));
+    }
+
+    /**
+     * Gets the tint of the grayscale brick overlay for a block in the
+     * world.
+     * @param world the world.
+     * @param pos the block position.
+     * @param renderPass the tint index of the face.
+     * @return the tint as RGB.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final int colorMultiplier(
+        final IBlockAccess world,
+        final BlockPos pos,
+        final int renderPass) {
+        return this.getRenderColor(world.getBlockState(pos));
+    }
+
+    /**
+     * Helper to decode every metadata value once for the codec.
+     * Double slabs ignore the half bit.
+     * @param defaultState the default state.
+     * @return the block states indexed by metadata.
+     */
+    private IBlockState[] createStates(final IBlockState defaultState) {
+        IBlockState[] states = new IBlockState[StateCodec.META_COUNT];
+        for (int meta = 0; meta < states.length; meta++) {
+            IBlockState state = defaultState.withProperty(
+                COLOR_PROPERTY,
+                meta & COLOR_META_MASK);
+            if (!this.isDouble()) {
+                EnumBlockHalf value = EnumBlockHalf.BOTTOM;
+                if ((meta & HALF_META_BIT) != 0) {
+                    value = EnumBlockHalf.TOP;
+                }
+
+                state = state.withProperty(HALF, value);
+            }
+
+            states[meta] = state;
+        }
+
+        return states;
     }
 
     /**
@@ -224,25 +451,11 @@ public abstract class BlockStainedBrickSlab extends BlockSlab {
     @Override
     protected final BlockState createBlockState() {
         if (this.isDouble()) {
-            return new BlockState(this, new IProperty[] {VARIANT_PROPERTY});
+            return new BlockState(this, new IProperty[] {COLOR_PROPERTY});
         } else {
             return new BlockState(
                 this,
-                new IProperty[] {VARIANT_PROPERTY, HALF});
+                new IProperty[] {COLOR_PROPERTY, HALF});
         }
     }
-
-    /**
-     * Gets the ID of the block.
-     * @param isDoubleStacked override the isDouble() method.
-     * @return the unique block id.
-     */
-    private String innerGetId(final boolean isDoubleStacked) {
-        String result = "";
-        if (isDoubleStacked) {
-            result = "double_";
-        }
-
-        return result + ID + '_' + ColorUtility.COLOR_IDS[this.color];
-    }
 }
@@ -3,16 +3,27 @@
  */
 package de.shittyco.morematerials;
 
+import java.util.List;
+
 import net.minecraft.block.BlockStairs;
 import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
 import net.minecraft.item.Item;
+import net.minecraft.util.AxisAlignedBB;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumWorldBlockLayer;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
 
 /**
  * Stained brick stairs.
  * @author jrowlett
  *
  */
-public class BlockStainedBrickStairs extends BlockStairs {
+public class BlockStainedBrickStairs extends BlockStairs
+    implements IModelRegistrant, IPaintable {
 
     /**
      * base unlocalized name of the block.
@@ -24,6 +35,11 @@ public class BlockStainedBrickStairs extends BlockStairs {
      */
     private int color;
 
+    /**
+     * The stairs of every color, indexed by color.
+     */
+    private BlockStainedBrickStairs[] colorBlocks;
+
     /**
      * Initializes a new instance of the BlockStainedBrickStairs class.
      * @param block the stained bricks block.
@@ -46,19 +62,61 @@ public class BlockStainedBrickStairs extends BlockStairs {
      * @return the unique name of the block.
      */
     public final String getId() {
+       return getId(this.color);
+    }
+
+    /**
+     * Gets the ID to use for registration.
+     * @param brickColor the color from 0-15.
+     * @return the unique name of the stairs of the color.
+     */
+    public static String getId(final int brickColor) {
        return BlockStainedBricks.ID
            + "_"
-           + ColorUtility.COLOR_IDS[this.color]
+           + ColorUtility.COLOR_IDS[brickColor]
            + "_stairs";
     }
 
+    /**
+     * Sets the stairs of every color once they are all created.
+     * @param blocks the stairs indexed by color.
+     */
+    public final void setColorBlocks(final BlockStainedBrickStairs[] blocks) {
+        this.colorBlocks = blocks;
+    }
+
+    /**
+     * Gets the color of a block state.
+     * @param state the block state.
+     * @return the color from 0-15.
+     */
+    @Override
+    public final int getColor(final IBlockState state) {
+        return this.color;
+    }
+
+    /**
+     * Gets the stairs of another color facing the same way.
+     * @param state the block state.
+     * @param paintColor the color from 0-15.
+     * @return the block state of the stairs of the color.
+     */
+    @Override
+    public final IBlockState withColor(
+        final IBlockState state,
+        final int paintColor) {
+        return this.colorBlocks[paintColor].getDefaultState()
+            .withProperty(FACING, state.getValue(FACING))
+            .withProperty(HALF, state.getValue(HALF));
+    }
+
     /**
      * Call on init to register the icons for inventory.
      * @param proxy the proxy to register the models.
      */
+    @Override
     public final void registerModels(final CommonProxy proxy) {
-        Item itemBlock = GameUtility.getItemFromBlock(
-            this.getId());
+        Item itemBlock = Item.getItemFromBlock(this);
         proxy.addModelBakeryVariant(
             itemBlock,
             "morematerials:" + this.getId());
@@ -68,6 +126,82 @@ public class BlockStainedBrickStairs extends BlockStairs {
             0);
     }
 
+    /**
+     * Gets the actual block state with the shape from the neighbors.
+     * @param state block state object
+     * @param blockAccess world
+     * @param pos location in the world
+     * @return the modified state.
+     */
+    @Override
+    public final IBlockState getActualState(
+        final IBlockState state,
+        final IBlockAccess blockAccess,
+        final BlockPos pos) {
+        return StairsShapeUtility.getActualState(state, blockAccess, pos);
+    }
+
+    /**
+     * Adds the precomputed collision boxes for the stairs' shape.
+     * @param world the world.
+     * @param pos block position.
+     * @param state the block state.
+     * @param mask the area being tested.
+     * @param list gets populated with the intersecting boxes.
+     * @param collidingEntity the entity being moved.
+     */
+    @Override
+    public final void addCollisionBoxesToList(
+        final World world,
+        final BlockPos pos,
+        final IBlockState state,
+        final AxisAlignedBB mask,
+        final List<AxisAlignedBB> list,
+        final Entity collidingEntity) {
+        StairsShapeUtility.addCollisionBoxes(state, world, pos, mask, list);
+    }
+
+    /**
+     * Gets the render layer. The brick overlay is cut out over the
+     * untinted mortar like the grass overlay.
+     * @return the cutout mipped layer.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final EnumWorldBlockLayer getBlockLayer() {
+        return EnumWorldBlockLayer.CUTOUT_MIPPED;
+    }
+
+    /**
+     * Gets the tint of the grayscale brick overlay for a block state.
+     * @param state the block state.
+     * @return the tint as RGB.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final int getRenderColor(final IBlockState state) {
+        return ColorUtility.getTint(
+            ColorUtility.STAINED_BRICKS_TINTS,
+            this.color);
+    }
+
+    /**
+     * Gets the tint of the grayscale brick overlay for a block in the
+     * world.
+     * @param world the world.
+     * @param pos the block position.
+     * @param renderPass the tint index of the face.
+     * @return the tint as RGB.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final int colorMultiplier(
+        final IBlockAccess world,
+        final BlockPos pos,
+        final int renderPass) {
+        return this.getRenderColor(world.getBlockState(pos));
+    }
+
     /**
      * Helper to get the block state from the brick color.
      * @param block the source block.
@@ -3,14 +3,24 @@
  */
 package de.shittyco.morematerials;
 
-import net.minecraft.item.Item;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumWorldBlockLayer;
+import net.minecraft.world.IBlockAccess;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
 
 /**
  * Different color brick walls.
  * @author jrowlett
  *
  */
-public class BlockStainedBrickWall extends BlockGenericWall {
+public class BlockStainedBrickWall extends BlockColoredWall {
+    /**
+     * ID for registry.
+     */
+    public static final String ID = "stained_bricks_wall";
+
     /**
      * base unlocalized name of the block.
      */
@@ -26,25 +36,13 @@ public class BlockStainedBrickWall extends BlockGenericWall {
      */
     private static final float RESISTANCE = 10.0f;
 
-    /**
-     * color of the bricks.
-     */
-    private int color;
-
     /**
      * Initializes a new instance of the BlockStainedBrickWall class.
      * @param block the registered stained bricks block.
-     * @param brickColor color of the bricks.
      */
-    public BlockStainedBrickWall(
-        final BlockStainedBricks block,
-        final int brickColor) {
-        super(block, brickColor);
-        this.color = brickColor;
-        this.setUnlocalizedName(
-                NAME
-                + "."
-                + ColorUtility.COLOR_NAMES[this.color]);
+    public BlockStainedBrickWall(final BlockStainedBricks block) {
+        super(block);
+        this.setUnlocalizedName(NAME);
         this.setHardness(HARDNESS);
         this.setResistance(RESISTANCE);
     }
@@ -53,27 +51,83 @@ public class BlockStainedBrickWall extends BlockGenericWall {
      * Gets the ID to use for registration.
      * @return the unique name of the block.
      */
+    @Override
     public final String getId() {
+       return ID;
+    }
+
+    /**
+     * Gets the name the models for a color were registered under.
+     * @param color the color from 0-15.
+     * @return the model name.
+     */
+    @Override
+    public final String getModelId(final int color) {
+       return getLegacyId(color);
+    }
+
+    /**
+     * Gets the ID a color was registered under when every color was its
+     * own block.
+     * @param color the color from 0-15.
+     * @return the legacy registry name.
+     */
+    public static String getLegacyId(final int color) {
        return BlockStainedBricks.ID
            + "_"
-           + ColorUtility.COLOR_IDS[this.color]
+           + ColorUtility.COLOR_IDS[color]
            + "_wall";
     }
 
     /**
-     * Call on init to register the icons for inventory.
-     * @param proxy the proxy to register the models.
+     * Gets the block state file for a color. Every color shares one
+     * file since the block tints the texture.
+     * @param color the color from 0-15.
+     * @return the block state file.
+     */
+    @Override
+    protected final String getBlockStateId(final int color) {
+        return ID;
+    }
+
+    /**
+     * Gets the render layer. The brick overlay is cut out over the
+     * untinted mortar like the grass overlay.
+     * @return the cutout mipped layer.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final EnumWorldBlockLayer getBlockLayer() {
+        return EnumWorldBlockLayer.CUTOUT_MIPPED;
+    }
+
+    /**
+     * Gets the tint of the grayscale brick overlay for a block state.
+     * @param state the block state.
+     * @return the tint as RGB.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final int getRenderColor(final IBlockState state) {
+        return ColorUtility.getTint(
+            ColorUtility.STAINED_BRICKS_TINTS,
+            this.getMetaFromState(state));
+    }
+
+    /**
+     * Gets the tint of the grayscale brick overlay for a block in the
+     * world.
+     * @param world the world.
+     * @param pos the block position.
+     * @param renderPass the tint index of the face.
+     * @return the tint as RGB.
      */
-    public final void registerModels(
-        final CommonProxy proxy) {
-        String id = this.getId();
-        Item itemBlock = GameUtility.getItemFromBlock(id);
-        proxy.addModelBakeryVariant(
-            itemBlock,
-            "morematerials:" + id);
-        proxy.registerInventoryModel(
-            itemBlock,
-            id,
-            0);
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final int colorMultiplier(
+        final IBlockAccess world,
+        final BlockPos pos,
+        final int renderPass) {
+        return this.getRenderColor(world.getBlockState(pos));
     }
 }
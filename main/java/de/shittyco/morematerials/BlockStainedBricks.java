@@ -4,15 +4,22 @@
 package de.shittyco.morematerials;
 
 import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.creativetab.CreativeTabs;
 import net.minecraft.item.Item;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumWorldBlockLayer;
+import net.minecraft.world.IBlockAccess;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
 
 /**
  * Stained Brick Blocks.
  * @author jrowlett
  *
  */
-public class BlockStainedBricks extends ColoredBlock {
+public class BlockStainedBricks extends ColoredBlock
+    implements IModelRegistrant, IPaintable {
 
     /**
      * The ID for the registry.
@@ -50,16 +57,79 @@ public class BlockStainedBricks extends ColoredBlock {
      * Call on init to register the icons for inventory.
      * @param proxy the proxy to register the models.
      */
+    @Override
     public final void registerModels(final CommonProxy proxy) {
-        Item itemBlock = GameUtility.getItemFromBlock(ID);
+        String[] modelIds = new String[ColorUtility.COLOR_COUNT];
         for (int i = 0; i < ColorUtility.COLOR_COUNT; i++) {
-            proxy.registerInventoryModel(
-                itemBlock,
-                ID + "_" + ColorUtility.COLOR_IDS[i],
-                i);
-            proxy.addModelBakeryVariant(
-                itemBlock,
-                "morematerials:" + ID + "_" + ColorUtility.COLOR_IDS[i]);
+            modelIds[i] = ID + "_" + ColorUtility.COLOR_IDS[i];
         }
+
+        proxy.registerVariantInventoryModels(
+            Item.getItemFromBlock(this),
+            modelIds);
+    }
+
+    /**
+     * Gets the color of a block state.
+     * @param state the block state.
+     * @return the color from 0-15.
+     */
+    @Override
+    public final int getColor(final IBlockState state) {
+        return this.getMetaFromState(state);
+    }
+
+    /**
+     * Gets the block state of another color.
+     * @param state the block state.
+     * @param color the color from 0-15.
+     * @return the block state of the color.
+     */
+    @Override
+    public final IBlockState withColor(
+        final IBlockState state,
+        final int color) {
+        return this.getStateFromMeta(color);
+    }
+
+    /**
+     * Gets the render layer. The brick overlay is cut out over the
+     * untinted mortar like the grass overlay.
+     * @return the cutout mipped layer.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final EnumWorldBlockLayer getBlockLayer() {
+        return EnumWorldBlockLayer.CUTOUT_MIPPED;
+    }
+
+    /**
+     * Gets the tint of the grayscale brick overlay for a block state.
+     * @param state the block state.
+     * @return the tint as RGB.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final int getRenderColor(final IBlockState state) {
+        return ColorUtility.getTint(
+            ColorUtility.STAINED_BRICKS_TINTS,
+            this.getMetaFromState(state));
+    }
+
+    /**
+     * Gets the tint of the grayscale brick overlay for a block in the
+     * world.
+     * @param world the world.
+     * @param pos the block position.
+     * @param renderPass the tint index of the face.
+     * @return the tint as RGB.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final int colorMultiplier(
+        final IBlockAccess world,
+        final BlockPos pos,
+        final int renderPass) {
+        return this.getRenderColor(world.getBlockState(pos));
     }
 }
@@ -4,14 +4,18 @@
 package de.shittyco.morematerials;
 
 import net.minecraft.init.Blocks;
-import net.minecraft.item.Item;
 
 /**
  * Clay walls stained with different colors.
  * @author jrowlett
  *
  */
-public class BlockStainedHardenedClayWall extends BlockGenericWall {
+public class BlockStainedHardenedClayWall extends BlockColoredWall {
+    /**
+     * ID for registry.
+     */
+    public static final String ID = "stained_hardened_clay_wall";
+
     /**
      * base unlocalized name of the block.
      */
@@ -27,22 +31,12 @@ public class BlockStainedHardenedClayWall extends BlockGenericWall {
      */
     private static final float RESISTANCE = 7.0f;
 
-    /**
-     * Color of the clay.
-     */
-    private int color;
-
     /**
      * Initializes a new instance of the BlockStainedHardenedClayWall class.
-     * @param blockColor the stain color.
      */
-    public BlockStainedHardenedClayWall(final int blockColor) {
-        super(Blocks.stained_hardened_clay, blockColor);
-        this.color = blockColor;
-        this.setUnlocalizedName(
-                NAME
-                + "."
-                + ColorUtility.COLOR_NAMES[this.color]);
+    public BlockStainedHardenedClayWall() {
+        super(Blocks.stained_hardened_clay);
+        this.setUnlocalizedName(NAME);
         this.setHardness(HARDNESS);
         this.setResistance(RESISTANCE);
     }
@@ -51,25 +45,29 @@ public class BlockStainedHardenedClayWall extends BlockGenericWall {
      * Gets the ID to use for registration.
      * @return the unique name of the block.
      */
+    @Override
     public final String getId() {
-       return ColorUtility.COLOR_IDS[this.color]
-           + "_stained_hardened_clay_wall";
+       return ID;
+    }
+
+    /**
+     * Gets the name the models for a color were registered under.
+     * @param color the color from 0-15.
+     * @return the model name.
+     */
+    @Override
+    public final String getModelId(final int color) {
+       return getLegacyId(color);
     }
 
     /**
-     * Call on init to register the icons for inventory.
-     * @param proxy the proxy to register the models.
+     * Gets the ID a color was registered under when every color was its
+     * own block.
+     * @param color the color from 0-15.
+     * @return the legacy registry name.
      */
-    public final void registerModels(
-        final CommonProxy proxy) {
-        String id = this.getId();
-        Item itemBlock = GameUtility.getItemFromBlock(id);
-        proxy.addModelBakeryVariant(
-            itemBlock,
-            "morematerials:" + id);
-        proxy.registerInventoryModel(
-            itemBlock,
-            id,
-            0);
+    public static String getLegacyId(final int color) {
+       return ColorUtility.COLOR_IDS[color]
+           + "_stained_hardened_clay_wall";
     }
 }
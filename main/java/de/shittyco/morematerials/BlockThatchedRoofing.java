@@ -11,7 +11,8 @@ import net.minecraft.item.Item;
  * @author jrowlett
  *
  */
-public class BlockThatchedRoofing extends BlockRoofing {
+public class BlockThatchedRoofing extends BlockRoofing
+    implements IModelRegistrant {
 
     /**
      * ID for registration.
@@ -35,8 +36,9 @@ public class BlockThatchedRoofing extends BlockRoofing {
      * Registers models for display in the inventory.
      * @param proxy the proxy to register the models.
      */
+    @Override
     public final void registerModels(final CommonProxy proxy) {
-        Item itemBlock = GameUtility.getItemFromBlock(ID);
+        Item itemBlock = Item.getItemFromBlock(this);
         proxy.addModelBakeryVariant(
             itemBlock,
             "morematerials:" + ID);
@@ -13,7 +13,8 @@ import net.minecraft.item.Item;
  * @author jrowlett
  *
  */
-public class BlockWattleAndDaub extends Block {
+public class BlockWattleAndDaub extends Block
+    implements IModelRegistrant {
     /**
      * The registration ID.
      */
@@ -50,9 +51,10 @@ public class BlockWattleAndDaub extends Block {
      * Call on init to register the icons for inventory.
      * @param proxy the proxy to register the models.
      */
+    @Override
     public final void registerModels(
         final CommonProxy proxy) {
-        Item itemBlock = GameUtility.getItemFromBlock(ID);
+        Item itemBlock = Item.getItemFromBlock(this);
         proxy.addModelBakeryVariant(
             itemBlock,
             "morematerials:" + ID);
@@ -3,9 +3,25 @@
  */
 package de.shittyco.morematerials;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.block.Block;
 import net.minecraft.block.BlockPane;
 import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.item.Item;
+import net.minecraft.util.AxisAlignedBB;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.MovingObjectPosition;
+import net.minecraft.util.Vec3;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
 
 /**
  * A wattle panel that can have daub spread over it to form
@@ -13,7 +29,8 @@ import net.minecraft.item.Item;
  * @author jrowlett
  *
  */
-public class BlockWattlePanel extends BlockPane {
+public class BlockWattlePanel extends BlockPane
+    implements IModelRegistrant {
     /**
      * The registration ID.
      */
@@ -34,6 +51,38 @@ public class BlockWattlePanel extends BlockPane {
      */
     private static final float RESISTANCE = 2.0F;
 
+    /**
+     * lower bounds of the panel's thickness.
+     */
+    private static final float PANEL_MIN = 0.4375F;
+
+    /**
+     * upper bounds of the panel's thickness.
+     */
+    private static final float PANEL_MAX = 0.5625F;
+
+    /**
+     * The middle of the block where half panels end.
+     */
+    private static final float HALF = 0.5F;
+
+    /**
+     * Flag for setBlockState to send the change to clients without
+     * notifying neighbors.
+     */
+    private static final int UPDATE_CLIENTS = 2;
+
+    /**
+     * Selection and ray trace shapes indexed by connection mask.
+     */
+    private static final AxisAlignedBB[] SHAPES = createShapes();
+
+    /**
+     * Entity collision boxes indexed by connection mask.
+     */
+    private static final AxisAlignedBB[][] COLLISION_BOXES =
+        createCollisionBoxes();
+
     /**
      * Initializes a new instance of the BlockWattlePanel class.
      */
@@ -45,13 +94,213 @@ public class BlockWattlePanel extends BlockPane {
         this.setUnlocalizedName(NAME);
     }
 
+    /**
+     * Gets the actual block state.
+     * The connections are read back from metadata.
+     * @param state block state object
+     * @param blockAccess world
+     * @param pos location in the world
+     * @return the modified state.
+     */
+    @Override
+    public final IBlockState getActualState(
+        final IBlockState state,
+        final IBlockAccess blockAccess,
+        final BlockPos pos) {
+        return withConnections(
+            state,
+            this.getStoredConnections(blockAccess, pos, state));
+    }
+
+    /**
+     * Gets whether a side of the panel is drawn. The edge of the panel
+     * is hidden by the edge of a panel next to it.
+     * @param blockAccess the world.
+     * @param pos the position of the neighbor on the side.
+     * @param side the side.
+     * @return whether the faces on the side are drawn.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final boolean shouldSideBeRendered(
+        final IBlockAccess blockAccess,
+        final BlockPos pos,
+        final EnumFacing side) {
+        if (side.getAxis().isHorizontal()
+            && blockAccess.getBlockState(pos).getBlock() == this) {
+            return false;
+        }
+
+        return super.shouldSideBeRendered(blockAccess, pos, side);
+    }
+
+    /**
+     * Gets a block state from metadata.
+     * @param meta the stored connection bits.
+     * @return a block state with the connections set.
+     */
+    @Override
+    public final IBlockState getStateFromMeta(final int meta) {
+        return withConnections(this.getDefaultState(), meta);
+    }
+
+    /**
+     * Gets the metadata value from a block state.
+     * @param state the block state.
+     * @return the stored connection bits.
+     */
+    @Override
+    public final int getMetaFromState(final IBlockState state) {
+        return ConnectionUtility.getSideMask(
+            state,
+            BlockPane.NORTH,
+            BlockPane.SOUTH,
+            BlockPane.WEST,
+            BlockPane.EAST);
+    }
+
+    /**
+     * Gets the state to place, with connections to the current neighbors.
+     * @param world the world.
+     * @param pos the position of the new block.
+     * @param facing the side that was clicked.
+     * @param hitX x coordinate of the hit.
+     * @param hitY y coordinate of the hit.
+     * @param hitZ z coordinate of the hit.
+     * @param meta metadata from the item.
+     * @param placer the entity placing the block.
+     * @return the state to place.
+     */
+    @Override
+    public final IBlockState onBlockPlaced(
+        final World world,
+        final BlockPos pos,
+        final EnumFacing facing,
+        final float hitX,
+        final float hitY,
+        final float hitZ,
+        final int meta,
+        final EntityLivingBase placer) {
+        return this.getStateFromMeta(
+            this.computeConnections(world, pos, 0));
+    }
+
+    /**
+     * Stores the connections when the block is set in the world by
+     * other means than placing it.
+     * @param world the world.
+     * @param pos the block position.
+     * @param state the block state.
+     */
+    @Override
+    public final void onBlockAdded(
+        final World world,
+        final BlockPos pos,
+        final IBlockState state) {
+        this.updateConnections(world, pos, state);
+    }
+
+    /**
+     * Stores the connections again when a neighbor changes.
+     * @param world the world.
+     * @param pos the block position.
+     * @param state the block state.
+     * @param neighborBlock the block that changed.
+     */
+    @Override
+    public final void onNeighborBlockChange(
+        final World world,
+        final BlockPos pos,
+        final IBlockState state,
+        final Block neighborBlock) {
+        this.updateConnections(world, pos, state);
+    }
+
+    /**
+     * Updates the blocks bounds based on its current state.
+     * Only kept for vanilla callers, the panel's own ray trace and
+     * selection use the shape table.
+     * @param blockAccess the world.
+     * @param pos block position.
+     */
+    @Override
+    public final void setBlockBoundsBasedOnState(
+        final IBlockAccess blockAccess,
+        final BlockPos pos) {
+        BoundsUtility.setBlockBounds(
+            this,
+            SHAPES[this.getShapeMask(blockAccess, pos)]);
+    }
+
+    /**
+     * Gets the box to outline when the panel is selected.
+     * @param world the world.
+     * @param pos block position.
+     * @return the selection box in world coordinates.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final AxisAlignedBB getSelectedBoundingBox(
+        final World world,
+        final BlockPos pos) {
+        return BoundsUtility.offset(
+            SHAPES[this.getShapeMask(world, pos)],
+            pos);
+    }
+
+    /**
+     * Traces a ray against the panel's shape.
+     * @param world the world.
+     * @param pos block position.
+     * @param start the start of the ray.
+     * @param end the end of the ray.
+     * @return the hit or null if the ray misses.
+     */
+    @Override
+    public final MovingObjectPosition collisionRayTrace(
+        final World world,
+        final BlockPos pos,
+        final Vec3 start,
+        final Vec3 end) {
+        return BoundsUtility.rayTrace(
+            SHAPES[this.getShapeMask(world, pos)],
+            pos,
+            start,
+            end);
+    }
+
+    /**
+     * Adds the collision boxes for the panel's connections.
+     * @param world the world.
+     * @param pos block position.
+     * @param state the block state.
+     * @param mask the area being tested.
+     * @param list gets populated with the intersecting boxes.
+     * @param collidingEntity the entity being moved.
+     */
+    @Override
+    public final void addCollisionBoxesToList(
+        final World world,
+        final BlockPos pos,
+        final IBlockState state,
+        final AxisAlignedBB mask,
+        final List<AxisAlignedBB> list,
+        final Entity collidingEntity) {
+        BoundsUtility.addCollisionBoxes(
+            COLLISION_BOXES[this.getShapeMask(world, pos)],
+            pos,
+            mask,
+            list);
+    }
+
     /**
      * Call on init to register the icons for inventory.
      * @param proxy the proxy to register the models.
      */
+    @Override
     public final void registerModels(
         final CommonProxy proxy) {
-        Item itemBlock = GameUtility.getItemFromBlock(ID);
+        Item itemBlock = Item.getItemFromBlock(this);
         proxy.addModelBakeryVariant(
             itemBlock,
             "morematerials:" + ID);
@@ -60,4 +309,257 @@ public class BlockWattlePanel extends BlockPane {
             ID,
             0);
     }
+
+    /**
+     * Helper to get the index into the shape table.
+     * @param blockAccess the world.
+     * @param pos the panel's position.
+     * @return the connection bits.
+     */
+    private int getShapeMask(
+        final IBlockAccess blockAccess,
+        final BlockPos pos) {
+        return this.getStoredConnections(
+            blockAccess,
+            pos,
+            blockAccess.getBlockState(pos));
+    }
+
+    /**
+     * Helper to write the current connections to metadata if they changed.
+     * @param world the world.
+     * @param pos the panel's position.
+     * @param state the stored block state.
+     */
+    private void updateConnections(
+        final World world,
+        final BlockPos pos,
+        final IBlockState state) {
+        if (world.isRemote) {
+            return;
+        }
+
+        int stored = this.getMetaFromState(state);
+        int mask = this.computeConnections(world, pos, stored);
+        if (mask != stored) {
+            world.setBlockState(
+                pos,
+                withConnections(state, mask),
+                UPDATE_CLIENTS);
+        }
+    }
+
+    /**
+     * Helper to get the connections stored in metadata.
+     * Panels placed before the connections were stored have no bits set,
+     * so an unconnected panel is checked against its neighbors.
+     * @param blockAccess the world.
+     * @param pos the panel's position.
+     * @param state the stored block state.
+     * @return the connection bits.
+     */
+    private int getStoredConnections(
+        final IBlockAccess blockAccess,
+        final BlockPos pos,
+        final IBlockState state) {
+        if (state.getBlock() != this) {
+            return 0;
+        }
+
+        int mask = this.getMetaFromState(state);
+        if (mask == 0) {
+            mask = this.computeConnections(blockAccess, pos, 0);
+        }
+
+        return mask;
+    }
+
+    /**
+     * Helper to compute the connections from the neighboring blocks.
+     * Neighbors in chunks that are not loaded keep their stored bit.
+     * @param blockAccess the world.
+     * @param pos the panel's position.
+     * @param stored the connection bits stored so far.
+     * @return the connection bits.
+     */
+    private int computeConnections(
+        final IBlockAccess blockAccess,
+        final BlockPos pos,
+        final int stored) {
+        int mask = this.connectsAt(
+            blockAccess,
+            pos,
+            EnumFacing.NORTH,
+            ConnectionUtility.NORTH,
+            stored);
+        mask |= this.connectsAt(
+            blockAccess,
+            pos,
+            EnumFacing.SOUTH,
+            ConnectionUtility.SOUTH,
+            stored);
+        mask |= this.connectsAt(
+            blockAccess,
+            pos,
+            EnumFacing.WEST,
+            ConnectionUtility.WEST,
+            stored);
+        mask |= this.connectsAt(
+            blockAccess,
+            pos,
+            EnumFacing.EAST,
+            ConnectionUtility.EAST,
+            stored);
+        return mask;
+    }
+
+    /**
+     * Helper to check whether the panel connects in a direction.
+     * @param blockAccess the world.
+     * @param pos the panel's position.
+     * @param facing the direction of the neighbor.
+     * @param bit the connection bit for the direction.
+     * @param stored the connection bits stored so far.
+     * @return the bit if the panel connects to the neighbor or 0.
+     */
+    private int connectsAt(
+        final IBlockAccess blockAccess,
+        final BlockPos pos,
+        final EnumFacing facing,
+        final int bit,
+        final int stored) {
+        if (!ConnectionUtility.isNeighborLoaded(
+            blockAccess,
+            pos.offset(facing))) {
+            return stored & bit;
+        }
+
+        if (this.canPaneConnectTo(blockAccess, pos, facing)) {
+            return bit;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Helper to set the connection properties from bits.
+     * @param state the source block state.
+     * @param mask the connection bits.
+     * @return the block state with the connections set.
+     */
+    private static IBlockState withConnections(
+        final IBlockState state,
+        final int mask) {
+        return ConnectionUtility.withSideMask(
+            state,
+            mask,
+            BlockPane.NORTH,
+            BlockPane.SOUTH,
+            BlockPane.WEST,
+            BlockPane.EAST);
+    }
+
+    /**
+     * Helper to build the shape table for every connection mask.
+     * @return the shapes indexed by connection mask.
+     */
+    private static AxisAlignedBB[] createShapes() {
+        AxisAlignedBB[] shapes =
+            new AxisAlignedBB[ConnectionUtility.SIDE_MASK_COUNT];
+        for (int mask = 0; mask < shapes.length; mask++) {
+            shapes[mask] = createShape(mask);
+        }
+
+        return shapes;
+    }
+
+    /**
+     * Helper to build the collision boxes for every connection mask.
+     * The boxes match what BlockPane adds, one for the west-east half
+     * and one for the north-south half.
+     * @return the collision boxes indexed by connection mask.
+     */
+    private static AxisAlignedBB[][] createCollisionBoxes() {
+        AxisAlignedBB[][] boxes =
+            new AxisAlignedBB[ConnectionUtility.SIDE_MASK_COUNT][];
+        for (int mask = 0; mask < boxes.length; mask++) {
+            boolean north = (mask & ConnectionUtility.NORTH) != 0;
+            boolean south = (mask & ConnectionUtility.SOUTH) != 0;
+            boolean west = (mask & ConnectionUtility.WEST) != 0;
+            boolean east = (mask & ConnectionUtility.EAST) != 0;
+            boolean connected = mask != 0;
+            List<AxisAlignedBB> list = new ArrayList<AxisAlignedBB>();
+            if ((!west || !east) && connected) {
+                if (west) {
+                    list.add(new AxisAlignedBB(
+                        0.0F, 0.0F, PANEL_MIN, HALF, 1.0F, PANEL_MAX));
+                } else if (east) {
+                    list.add(new AxisAlignedBB(
+                        HALF, 0.0F, PANEL_MIN, 1.0F, 1.0F, PANEL_MAX));
+                }
+            } else {
+                list.add(new AxisAlignedBB(
+                    0.0F, 0.0F, PANEL_MIN, 1.0F, 1.0F, PANEL_MAX));
+            }
+
+            if ((!north || !south) && connected) {
+                if (north) {
+                    list.add(new AxisAlignedBB(
+                        PANEL_MIN, 0.0F, 0.0F, PANEL_MAX, 1.0F, HALF));
+                } else if (south) {
+                    list.add(new AxisAlignedBB(
+                        PANEL_MIN, 0.0F, HALF, PANEL_MAX, 1.0F, 1.0F));
+                }
+            } else {
+                list.add(new AxisAlignedBB(
+                    PANEL_MIN, 0.0F, 0.0F, PANEL_MAX, 1.0F, 1.0F));
+            }
+
+            boxes[mask] = list.toArray(new AxisAlignedBB[list.size()]);
+        }
+
+        return boxes;
+    }
+
+    /**
+     * Helper to compute the shape of the panel for a connection mask.
+     * A panel that connects nowhere spans the whole block both ways.
+     * @param mask the connection bits.
+     * @return the shape relative to the block.
+     */
+    private static AxisAlignedBB createShape(final int mask) {
+        boolean north = (mask & ConnectionUtility.NORTH) != 0;
+        boolean south = (mask & ConnectionUtility.SOUTH) != 0;
+        boolean west = (mask & ConnectionUtility.WEST) != 0;
+        boolean east = (mask & ConnectionUtility.EAST) != 0;
+        boolean connected = mask != 0;
+        float minX = PANEL_MIN;
+        float maxX = PANEL_MAX;
+        float minZ = PANEL_MIN;
+        float maxZ = PANEL_MAX;
+
+        if ((!west || !east) && connected) {
+            if (west) {
+                minX = 0.0F;
+            } else if (east) {
+                maxX = 1.0F;
+            }
+        } else {
+            minX = 0.0F;
+            maxX = 1.0F;
+        }
+
+        if ((!north || !south) && connected) {
+            if (north) {
+                minZ = 0.0F;
+            } else if (south) {
+                maxZ = 1.0F;
+            }
+        } else {
+            minZ = 0.0F;
+            maxZ = 1.0F;
+        }
+
+        return new AxisAlignedBB(minX, 0.0F, minZ, maxX, 1.0F, maxZ);
+    }
 }
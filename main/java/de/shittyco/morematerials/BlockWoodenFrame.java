@@ -26,4 +26,13 @@ public class BlockWoodenFrame extends BlockBaseWoodenFrame {
     public BlockWoodenFrame() {
         super(ID, NAME);
     }
+
+    /**
+     * Gets whether the overlay can connect to the same frame beside it.
+     * @return true, the plain frame only has timbers along its edges.
+     */
+    @Override
+    protected final boolean hasConnectedOverlay() {
+        return true;
+    }
 }
@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.List;
+
+import net.minecraft.block.Block;
+import net.minecraft.util.AxisAlignedBB;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.MovingObjectPosition;
+import net.minecraft.util.Vec3;
+
+/**
+ * Helpers for blocks that keep their shapes in immutable tables
+ * instead of the mutable bounds on the block singleton.
+ * @author jrowlett
+ *
+ */
+final class BoundsUtility {
+
+    /**
+     * Gets a box in world coordinates.
+     * @param bounds the box relative to the block.
+     * @param pos the block position.
+     * @return a new box offset to the block position.
+     */
+    public static AxisAlignedBB offset(
+        final AxisAlignedBB bounds,
+        final BlockPos pos) {
+        return bounds.offset(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    /**
+     * Traces a ray against a box without touching the block bounds.
+     * @param bounds the box relative to the block.
+     * @param pos the block position.
+     * @param start the start of the ray.
+     * @param end the end of the ray.
+     * @return the hit or null if the ray misses.
+     */
+    public static MovingObjectPosition rayTrace(
+        final AxisAlignedBB bounds,
+        final BlockPos pos,
+        final Vec3 start,
+        final Vec3 end) {
+        MovingObjectPosition hit =
+            offset(bounds, pos).calculateIntercept(start, end);
+        if (hit == null) {
+            return null;
+        }
+
+        return new MovingObjectPosition(hit.hitVec, hit.sideHit, pos);
+    }
+
+    /**
+     * Adds the boxes that intersect the mask to the collision list.
+     * Only the boxes that are hit get copied into world coordinates.
+     * @param boxes the boxes relative to the block.
+     * @param pos the block position.
+     * @param mask the area being tested in world coordinates.
+     * @param list gets populated with the intersecting boxes.
+     */
+    public static void addCollisionBoxes(
+        final AxisAlignedBB[] boxes,
+        final BlockPos pos,
+        final AxisAlignedBB mask,
+        final List<AxisAlignedBB> list) {
+        double x = pos.getX();
+        double y = pos.getY();
+        double z = pos.getZ();
+        for (AxisAlignedBB box : boxes) {
+            if (mask.maxX > box.minX + x && mask.minX < box.maxX + x
+                && mask.maxY > box.minY + y && mask.minY < box.maxY + y
+                && mask.maxZ > box.minZ + z && mask.minZ < box.maxZ + z) {
+                list.add(box.offset(x, y, z));
+            }
+        }
+    }
+
+    /**
+     * Copies a box into the block bounds for callers that still read them.
+     * @param block the block.
+     * @param bounds the box relative to the block.
+     */
+    public static void setBlockBounds(
+        final Block block,
+        final AxisAlignedBB bounds) {
+        block.setBlockBounds(
+            (float) bounds.minX,
+            (float) bounds.minY,
+            (float) bounds.minZ,
+            (float) bounds.maxX,
+            (float) bounds.maxY,
+            (float) bounds.maxZ);
+    }
+
+    /**
+     * Prevent instantiation of the BoundsUtility class.
+     */
+    private BoundsUtility() {
+    }
+}
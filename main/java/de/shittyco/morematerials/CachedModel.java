@@ -0,0 +1,166 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import net.minecraft.client.renderer.block.model.BakedQuad;
+import net.minecraft.client.renderer.block.model.ItemCameraTransforms;
+import net.minecraft.client.renderer.block.model.ModelBlock;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.client.renderer.vertex.VertexFormat;
+import net.minecraft.client.resources.model.IBakedModel;
+import net.minecraft.client.resources.model.ModelRotation;
+import net.minecraft.client.resources.model.SimpleBakedModel;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.client.model.IFlexibleBakedModel;
+import net.minecraftforge.client.model.IModel;
+import net.minecraftforge.client.model.IModelState;
+import net.minecraftforge.fml.common.FMLLog;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+import com.google.common.base.Function;
+
+/**
+ * A model file whose baked quads are in the model cache. Bakes from the
+ * cache, or parses the file and bakes it when the quads do not fit the
+ * current texture atlas.
+ * @author jrowlett
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class CachedModel implements IModel {
+
+    /**
+     * Name of the model.
+     */
+    private ResourceLocation name;
+
+    /**
+     * The model cache.
+     */
+    private BakedModelCache cache;
+
+    /**
+     * Parses the model file when the cache cannot be used.
+     */
+    private PreparsedModelLoader loader;
+
+    /**
+     * Initializes a new instance of the CachedModel class.
+     * @param modelName name of the model.
+     * @param modelCache the model cache.
+     * @param modelLoader parses the model file when the cache cannot be
+     * used.
+     */
+    public CachedModel(
+        final ResourceLocation modelName,
+        final BakedModelCache modelCache,
+        final PreparsedModelLoader modelLoader) {
+        this.name = modelName;
+        this.cache = modelCache;
+        this.loader = modelLoader;
+    }
+
+    /**
+     * Gets the models this model needs.
+     * @return none, the quads are already baked.
+     */
+    @Override
+    public final Collection<ResourceLocation> getDependencies() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Gets the textures this model needs.
+     * @return the textures of the quads and the particle texture.
+     */
+    @Override
+    public final Collection<ResourceLocation> getTextures() {
+        return this.cache.getTextures(this.name);
+    }
+
+    /**
+     * Bakes the model.
+     * @param state the model state, a rotation from the block state.
+     * @param format the vertex format.
+     * @param bakedTextureGetter gets the sprite of a texture.
+     * @return the baked model.
+     */
+    @Override
+    public final IFlexibleBakedModel bake(
+        final IModelState state,
+        final VertexFormat format,
+        final Function<ResourceLocation, TextureAtlasSprite>
+            bakedTextureGetter) {
+        ModelRotation rotation = ModelRotation.X0_Y0;
+        if (state instanceof ModelRotation) {
+            rotation = (ModelRotation) state;
+        }
+
+        IBakedModel model = this.cache.get(
+            this.name,
+            rotation,
+            format,
+            bakedTextureGetter);
+        if (model != null) {
+            StartupMetrics.increment(StartupMetrics.MODEL_CACHE_HITS);
+            return new IFlexibleBakedModel.Wrapper(model, format);
+        }
+
+        StartupMetrics.increment(StartupMetrics.MODEL_CACHE_MISSES);
+        ModelBlock parsed = this.loader.getParsedModel(this.name);
+        if (parsed == null) {
+            FMLLog.warning("Could not bake %s from its file.", this.name);
+            return createEmptyModel(
+                bakedTextureGetter.apply(
+                    this.getTextures().iterator().next()),
+                format);
+        }
+
+        return new PreparsedModel(parsed, this.name, this.cache).bake(
+            state,
+            format,
+            bakedTextureGetter);
+    }
+
+    /**
+     * Helper to make a model without quads.
+     * @param particle the particle sprite.
+     * @param format the vertex format.
+     * @return the model.
+     */
+    private static IFlexibleBakedModel createEmptyModel(
+        final TextureAtlasSprite particle,
+        final VertexFormat format) {
+        List<List<BakedQuad>> faceQuads = new ArrayList<List<BakedQuad>>();
+        for (int i = 0; i < EnumFacing.VALUES.length; i++) {
+            faceQuads.add(Collections.<BakedQuad>emptyList());
+        }
+
+        return new IFlexibleBakedModel.Wrapper(
+            new SimpleBakedModel(
+                Collections.<BakedQuad>emptyList(),
+                faceQuads,
+                true,
+                true,
+                particle,
+                ItemCameraTransforms.DEFAULT),
+            format);
+    }
+
+    /**
+     * Gets the default model state.
+     * @return no rotation.
+     */
+    @Override
+    public final IModelState getDefaultState() {
+        return ModelRotation.X0_Y0;
+    }
+}
@@ -3,11 +3,22 @@
  */
 package de.shittyco.morematerials;
 
-import net.minecraft.client.Minecraft;
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.properties.IProperty;
+import net.minecraft.client.renderer.block.statemap.IStateMapper;
 import net.minecraft.client.resources.model.ModelBakery;
 import net.minecraft.client.resources.model.ModelResourceLocation;
 import net.minecraft.item.Item;
+import net.minecraftforge.client.model.ModelLoader;
+import net.minecraftforge.client.model.ModelLoaderRegistry;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.common.config.Configuration;
 import net.minecraftforge.fml.common.FMLLog;
+import net.minecraftforge.fml.common.Loader;
 
 /**
  * Client-specific calls needed by the mod.
@@ -15,6 +26,28 @@ import net.minecraftforge.fml.common.FMLLog;
  *
  */
 public class ClientProxy extends CommonProxy {
+    /**
+     * Config category of the client rendering options.
+     */
+    private static final String RENDERING_CATEGORY = "rendering";
+
+    /**
+     * Default count of wall shapes baked on demand to keep, over every
+     * wall model. Each model has 32 shapes and the mod has 19 wall
+     * models, so the default keeps fewer than half of the 608 shapes.
+     */
+    private static final int DEFAULT_VARIANT_CACHE_SIZE = 256;
+
+    /**
+     * Least count of wall shapes baked on demand to keep.
+     */
+    private static final int MIN_VARIANT_CACHE_SIZE = 32;
+
+    /**
+     * Most count of wall shapes baked on demand to keep.
+     */
+    private static final int MAX_VARIANT_CACHE_SIZE = 65536;
+
     /**
      * Initializes a new instance of the ClientProxy class.
      */
@@ -38,7 +71,9 @@ public class ClientProxy extends CommonProxy {
             "Registering inventory for item %s and metadata %d",
             id,
             metadata);
-        Minecraft.getMinecraft().getRenderItem().getItemModelMesher().register(
+        StartupMetrics.increment(StartupMetrics.INVENTORY_MODELS);
+        // the item model mesher does not exist yet in preInit.
+        ModelLoader.setCustomModelResourceLocation(
                 item,
                 metadata,
                 new ModelResourceLocation(
@@ -46,6 +81,34 @@ public class ClientProxy extends CommonProxy {
                     "inventory"));
     }
 
+    /**
+     * Helper to register the item models of an item that picks its
+     * model by damage. One mesh definition serves every damage value
+     * instead of a mesher entry per value.
+     * @param item the item to register.
+     * @param modelIds the item model for each damage value.
+     */
+    @Override
+    public final void registerVariantInventoryModels(
+        final Item item,
+        final String[] modelIds) {
+        FMLLog.fine(
+            "Registering %d inventory variants for item %s.",
+            modelIds.length,
+            item.getUnlocalizedName());
+        String[] variantNames = new String[modelIds.length];
+        for (int i = 0; i < modelIds.length; i++) {
+            variantNames[i] = "morematerials:" + modelIds[i];
+        }
+
+        StartupMetrics.add(StartupMetrics.MODEL_VARIANTS, modelIds.length);
+        StartupMetrics.increment(StartupMetrics.INVENTORY_MODELS);
+        ModelBakery.addVariantName(item, variantNames);
+        ModelLoader.setCustomMeshDefinition(
+            item,
+            new VariantMeshDefinition(modelIds));
+    }
+
     /**
      * Helper to add a model variant in the ModelBakery.
      * @param item the main item.
@@ -59,8 +122,146 @@ public class ClientProxy extends CommonProxy {
                 "Registering variant %s for item %s.",
                 variantName,
                 item.getUnlocalizedName());
+        StartupMetrics.increment(StartupMetrics.MODEL_VARIANTS);
         ModelBakery.addVariantName(
                 item,
                 variantName);
     }
+
+    /**
+     * Helper to map the states of a block with a color property to the
+     * block state files named per color.
+     * @param block the block.
+     * @param colorProperty the property holding the color.
+     * @param modelIds the block state file for each color value.
+     */
+    @Override
+    public final void registerColoredStateMapper(
+        final Block block,
+        final IProperty colorProperty,
+        final String[] modelIds) {
+        FMLLog.fine(
+            "Registering state mapper for block %s.",
+            block.getUnlocalizedName());
+        StartupMetrics.increment(StartupMetrics.STATE_MAPPERS);
+        ModelLoader.setCustomStateMapper(
+            block,
+            new ColoredStateMapper(colorProperty, modelIds));
+    }
+
+    /**
+     * Helper to map every state of a wall to the block state file for
+     * its color. The wall model handles the connections.
+     * @param block the wall block.
+     * @param colorProperty the property holding the color, or null if
+     * there is one color.
+     * @param modelIds the block state file for each color value.
+     */
+    @Override
+    public final void registerWallStateMapper(
+        final Block block,
+        final IProperty colorProperty,
+        final String[] modelIds) {
+        FMLLog.fine(
+            "Registering wall state mapper for block %s.",
+            block.getUnlocalizedName());
+        StartupMetrics.increment(StartupMetrics.STATE_MAPPERS);
+        ModelLoader.setCustomStateMapper(
+            block,
+            new WallStateMapper(colorProperty, modelIds));
+    }
+
+    /**
+     * Helper to keep the model loader away from a block that is never
+     * drawn. The block maps none of its states to a model, so no block
+     * state file is looked up for it.
+     * @param block the block.
+     */
+    @Override
+    public final void registerHiddenBlock(final Block block) {
+        FMLLog.fine(
+            "Registering hidden block %s.",
+            block.getUnlocalizedName());
+        StartupMetrics.increment(StartupMetrics.STATE_MAPPERS);
+        ModelLoader.setCustomStateMapper(block, new IStateMapper() {
+            @Override
+            public Map putStateModelLocations(final Block unused) {
+                return Collections.emptyMap();
+            }
+        });
+    }
+
+    /**
+     * Registers the loaders that generate the wall and wooden frame
+     * models and the loader that parses the mod's model files ahead of
+     * the model bakery or reads them from the model cache.
+     * @param config the mod's configuration.
+     */
+    @Override
+    public final void registerModelLoaders(final Configuration config) {
+        BakedVariantCache variants = null;
+        if (config.getBoolean(
+            "bakeOnDemand",
+            RENDERING_CATEGORY,
+            false,
+            "Whether walls bake each shape the first time it renders "
+            + "instead of baking every shape when resources load.")) {
+            variants = new BakedVariantCache(config.getInt(
+                "bakedVariantCacheSize",
+                RENDERING_CATEGORY,
+                DEFAULT_VARIANT_CACHE_SIZE,
+                MIN_VARIANT_CACHE_SIZE,
+                MAX_VARIANT_CACHE_SIZE,
+                "The most wall shapes baked on demand to keep, counted "
+                + "over every wall model. Each model has 32 shapes, the "
+                + "least recently used are dropped first."));
+            MinecraftForge.EVENT_BUS.register(variants);
+        }
+
+        ModelLoaderRegistry.registerLoader(
+            new WallModelLoader(variants));
+        boolean connectedFrames = config.getBoolean(
+            "connectedFrames",
+            RENDERING_CATEGORY,
+            false,
+            "Whether wooden frames next to each other leave out the "
+            + "timbers between them.");
+        BlockBaseWoodenFrame.setConnectedTextures(connectedFrames);
+        ModelLoaderRegistry.registerLoader(
+            new FrameModelLoader(connectedFrames));
+
+        BakedModelCache cache = null;
+        if (config.getBoolean(
+            "cacheModels",
+            RENDERING_CATEGORY,
+            true,
+            "Whether the models baked from the mod's model files are kept "
+            + "in a file for the next launch. Needs preparseModels.")) {
+            cache = new BakedModelCache(new File(
+                config.getConfigFile().getParentFile(),
+                MoreMaterialsMod.MODID + "-models.bin"));
+        }
+
+        PreparsedModelLoader preparsed = new PreparsedModelLoader(
+            Loader.instance().getIndexedModList()
+                .get(MoreMaterialsMod.MODID).getSource(),
+            config.getBoolean(
+                "preparseModels",
+                RENDERING_CATEGORY,
+                true,
+                "Whether the mod's model files are parsed on worker threads "
+                + "ahead of the model bakery."),
+            cache);
+        MinecraftForge.EVENT_BUS.register(preparsed);
+        ModelLoaderRegistry.registerLoader(preparsed);
+    }
+
+    /**
+     * Gets whether this side renders models.
+     * @return always true.
+     */
+    @Override
+    public final boolean rendersModels() {
+        return true;
+    }
 }
@@ -91,6 +91,11 @@ public enum ColorMetadata implements IStringSerializable {
      */
     WHITE(15);
 
+    /**
+     * The values indexed by metadata.
+     */
+    private static final ColorMetadata[] VALUES = values();
+
     /**
      * The metadata value for the enum.
      */
@@ -99,10 +104,14 @@ public enum ColorMetadata implements IStringSerializable {
     /**
      * Gets the ColorMetadata value from an integer.
      * @param meta the integer value
-     * @return the matching enum value.
+     * @return the matching enum value, or BLACK if out of range.
      */
     public static ColorMetadata fromMetadata(final int meta) {
-        return values()[meta];
+        if (meta < 0 || meta >= VALUES.length) {
+            return BLACK;
+        }
+
+        return VALUES[meta];
     }
 
     /**
@@ -37,6 +37,11 @@ final class ColorUtility {
      */
     public static final int COLOR_COUNT = 16;
 
+    /**
+     * The tint that leaves a texture unchanged.
+     */
+    public static final int WHITE_TINT = 0xFFFFFF;
+
     /**
      * Common color tags used for icon name lookup indexed by item damage.
      */
@@ -59,6 +64,50 @@ final class ColorUtility {
         "white"
     };
 
+    /**
+     * Tints of the grayscale stained bricks overlay indexed by color.
+     */
+    public static final int[] STAINED_BRICKS_TINTS = new int[] {
+        0x2C2A29, 0x994E3C, 0xA9A592, 0x6C554F,
+        0x6F778C, 0x62535D, 0x8A98A2, 0xBCB8AC,
+        0x8C8983, 0xBD9E94, 0xC7C1A2, 0xE3D3BC,
+        0xB6C4D0, 0xA78588, 0xE4BFA3, 0xF4EBDB
+    };
+
+    /**
+     * Tints of the grayscale stained brick texture indexed by color.
+     */
+    public static final int[] STAINED_BRICK_TINTS = new int[] {
+        0x383533, 0xA2533F, 0xB0AD99, 0x725A53,
+        0x747E93, 0x675761, 0x91A0AA, 0xC6C2B5,
+        0x93908A, 0xCFA99E, 0xD1CBAC, 0xEDDCC4,
+        0xC1CFDB, 0xB08D8F, 0xEEC8AA, 0xFFF5E5
+    };
+
+    /**
+     * Tints of the grayscale stained brick clay texture indexed by color.
+     */
+    public static final int[] STAINED_BRICK_CLAY_TINTS = new int[] {
+        0x565662, 0xAA6A73, 0x6A7966, 0x7C6B68,
+        0x6771BB, 0x9A6FCE, 0x6898B7, 0xBEC4CF,
+        0x71747F, 0xD3A5BD, 0x73C47B, 0xD0CB74,
+        0x92A9DD, 0xC181D5, 0xDA9E80, 0xF1F4FF
+    };
+
+    /**
+     * Gets the tint of a color.
+     * @param tints the tints indexed by color.
+     * @param color the color from 0-15.
+     * @return the tint as RGB, or white if the color is out of range.
+     */
+    public static int getTint(final int[] tints, final int color) {
+        if (color < 0 || color >= tints.length) {
+            return WHITE_TINT;
+        }
+
+        return tints[color];
+    }
+
     /**
      * Prevent instantiation of the ColorUtility class.
      */
@@ -29,6 +29,11 @@ public abstract class ColoredBlock extends Block {
     private static final PropertyEnum VARIANT_PROPERTY =
         PropertyEnum.create("variant", ColorMetadata.class);
 
+    /**
+     * Converts between metadata and block states.
+     */
+    private final StateCodec codec;
+
     /**
      * Gets a block state from metadata.
      * @param meta the metadata or color value.
@@ -36,9 +41,7 @@ public abstract class ColoredBlock extends Block {
      */
     @Override
     public final IBlockState getStateFromMeta(final int meta) {
-        return addVariant(
-            this.getDefaultState(),
-            ColorMetadata.fromMetadata(meta));
+        return this.codec.getState(meta);
     }
 
     /**
@@ -48,9 +51,7 @@ public abstract class ColoredBlock extends Block {
      */
     @Override
     public final int getMetaFromState(final IBlockState state) {
-        ColorMetadata value =
-            (ColorMetadata) state.getValue(VARIANT_PROPERTY);
-        return value.ordinal();
+        return this.codec.getMeta(state);
     }
 
     /**
@@ -60,9 +61,7 @@ public abstract class ColoredBlock extends Block {
      */
     @Override
     public final int damageDropped(final IBlockState state) {
-        ColorMetadata value =
-            (ColorMetadata) state.getValue(VARIANT_PROPERTY);
-        return value.ordinal();
+        return this.codec.getMeta(state);
     }
 
     /**
@@ -101,6 +100,10 @@ public abstract class ColoredBlock extends Block {
             ColorMetadata.BLACK);
         this.setDefaultState(
             state);
+        this.codec = StateCodec.create(
+            state,
+            VARIANT_PROPERTY,
+            ColorMetadata.values());
     }
 
     /**
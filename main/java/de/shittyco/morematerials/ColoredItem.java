@@ -16,24 +16,33 @@ import net.minecraft.item.ItemStack;
  * @author jrowlett
  *
  */
-public abstract class ColoredItem extends Item {
+public abstract class ColoredItem extends Item
+    implements IModelRegistrant {
 
     /**
      * the base model name for each sub item.
      */
     private String modelName;
 
+    /**
+     * The tint of the grayscale texture indexed by color.
+     */
+    private int[] tints;
+
     /**
      * Initializes a new instance of the ColoredItem class.
      * @param unlocalizedName the unlocalized name to use.
      * @param baseModelName the base model name.
+     * @param colorTints the tint of the texture indexed by color.
      */
     protected ColoredItem(
         final String unlocalizedName,
-        final String baseModelName) {
+        final String baseModelName,
+        final int[] colorTints) {
         this.setHasSubtypes(true);
         this.setUnlocalizedName(unlocalizedName);
         this.modelName = baseModelName;
+        this.tints = colorTints;
     }
 
     /**
@@ -51,6 +60,20 @@ public abstract class ColoredItem extends Item {
             + ColorUtility.COLOR_NAMES[damage];
     }
 
+    /**
+     * Gets the tint of the grayscale texture for a stack.
+     * @param itemStack the item stack.
+     * @param renderPass the tint index of the layer.
+     * @return the tint as RGB.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final int getColorFromItemStack(
+        final ItemStack itemStack,
+        final int renderPass) {
+        return ColorUtility.getTint(this.tints, itemStack.getMetadata());
+    }
+
     /**
      * returns a list of items with the same ID, but different meta
      * (eg: dye returns 16 items).
@@ -73,19 +96,13 @@ public abstract class ColoredItem extends Item {
      * Call on init to register the icons for inventory.
      * @param proxy the proxy to register the models.
      */
+    @Override
     public final void registerModels(final CommonProxy proxy) {
+        String[] modelIds = new String[ColorUtility.COLOR_COUNT];
         for (int i = 0; i < ColorUtility.COLOR_COUNT; i++) {
-            String variantName = "morematerials:"
-                + this.modelName
-                + "_"
-                + ColorUtility.COLOR_IDS[i];
-            proxy.registerInventoryModel(
-                this,
-                this.modelName + "_" + ColorUtility.COLOR_IDS[i],
-                i);
-            proxy.addModelBakeryVariant(
-                this,
-                variantName);
+            modelIds[i] = this.modelName + "_" + ColorUtility.COLOR_IDS[i];
         }
+
+        proxy.registerVariantInventoryModels(this, modelIds);
     }
 }
@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.minecraft.block.properties.IProperty;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.client.renderer.block.statemap.StateMapperBase;
+import net.minecraft.client.resources.model.ModelResourceLocation;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Maps the states of a block with a color property to the block state
+ * file for that color, so one block can reuse the files written when
+ * every color was its own block.
+ * @author jrowlett
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class ColoredStateMapper extends StateMapperBase {
+
+    /**
+     * The property holding the color, or null if there is one color.
+     */
+    private IProperty colorProperty;
+
+    /**
+     * The block state file for each color value.
+     */
+    private String[] modelIds;
+
+    /**
+     * Initializes a new instance of the ColoredStateMapper class.
+     * @param property the property holding the color, or null if there
+     * is one color.
+     * @param ids the block state file for each color value.
+     */
+    public ColoredStateMapper(
+        final IProperty property,
+        final String[] ids) {
+        this.colorProperty = property;
+        this.modelIds = ids.clone();
+    }
+
+    /**
+     * Gets the model location for a block state.
+     * @param state the block state.
+     * @return the variant in the file for the state's color.
+     */
+    @Override
+    protected final ModelResourceLocation getModelResourceLocation(
+        final IBlockState state) {
+        Map properties = new LinkedHashMap(state.getProperties());
+        int index = 0;
+        if (this.colorProperty != null) {
+            Comparable value =
+                (Comparable) properties.remove(this.colorProperty);
+            if (value instanceof Enum) {
+                index = ((Enum) value).ordinal();
+            } else {
+                index = (Integer) value;
+            }
+        }
+
+        return new ModelResourceLocation(
+            "morematerials:" + this.modelIds[index],
+            this.getVariant(properties));
+    }
+
+    /**
+     * Gets the variant in the block state file.
+     * @param properties the properties of the state without the color.
+     * @return the variant.
+     */
+    protected String getVariant(final Map properties) {
+        return this.getPropertyString(properties);
+    }
+}
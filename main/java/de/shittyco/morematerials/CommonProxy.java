@@ -3,7 +3,10 @@
  */
 package de.shittyco.morematerials;
 
+import net.minecraft.block.Block;
+import net.minecraft.block.properties.IProperty;
 import net.minecraft.item.Item;
+import net.minecraftforge.common.config.Configuration;
 
 /**
  * Base class to specialize client vs. server calls in the mod.
@@ -28,6 +31,16 @@ public abstract class CommonProxy {
         final String id,
         final int metadata);
 
+    /**
+     * Helper to register the item models of an item that picks its
+     * model by damage, such as an item in every color.
+     * @param item the item to register.
+     * @param modelIds the item model for each damage value.
+     */
+    public abstract void registerVariantInventoryModels(
+        final Item item,
+        final String[] modelIds);
+
     /**
      * Helper to add a model variant in the ModelBakery.
      * @param item the main item.
@@ -36,4 +49,63 @@ public abstract class CommonProxy {
     public abstract void addModelBakeryVariant(
         final Item item,
         final String variantName);
+
+    /**
+     * Helper to map the states of a block with a color property to the
+     * block state files named per color.
+     * @param block the block.
+     * @param colorProperty the property holding the color.
+     * @param modelIds the block state file for each color value.
+     */
+    public abstract void registerColoredStateMapper(
+        final Block block,
+        final IProperty colorProperty,
+        final String[] modelIds);
+
+    /**
+     * Helper to map every state of a wall to the block state file for
+     * its color. The wall model handles the connections.
+     * @param block the wall block.
+     * @param colorProperty the property holding the color, or null if
+     * there is one color.
+     * @param modelIds the block state file for each color value.
+     */
+    public abstract void registerWallStateMapper(
+        final Block block,
+        final IProperty colorProperty,
+        final String[] modelIds);
+
+    /**
+     * Helper to keep the model loader away from a block that is never
+     * drawn and has no block state file.
+     * @param block the block.
+     */
+    public abstract void registerHiddenBlock(final Block block);
+
+    /**
+     * Gets whether this side renders models.
+     * @return whether models are rendered.
+     */
+    public abstract boolean rendersModels();
+
+    /**
+     * Registers the loaders of generated models.
+     * Does nothing where models are not rendered.
+     * @param config the mod's configuration, which the rendering side
+     * reads its options from.
+     */
+    public void registerModelLoaders(final Configuration config) {
+    }
+
+    /**
+     * Registers the models of a block or item for rendering.
+     * Does nothing where models are not rendered, so the registrant
+     * never builds its variant names.
+     * @param registrant the block or item.
+     */
+    public void registerModels(final IModelRegistrant registrant) {
+        if (this.rendersModels()) {
+            registrant.registerModels(this);
+        }
+    }
 }
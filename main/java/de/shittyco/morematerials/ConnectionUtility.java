@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.minecraft.block.properties.IProperty;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.World;
+
+/**
+ * Common definitions and helpers for blocks that connect to their
+ * horizontal neighbors, like walls and panels.
+ * @author jrowlett
+ *
+ */
+final class ConnectionUtility {
+
+    /**
+     * Bit for a connection to the north.
+     */
+    public static final int NORTH = 1;
+
+    /**
+     * Bit for a connection to the south.
+     */
+    public static final int SOUTH = 2;
+
+    /**
+     * Bit for a connection to the west.
+     */
+    public static final int WEST = 4;
+
+    /**
+     * Bit for a connection to the east.
+     */
+    public static final int EAST = 8;
+
+    /**
+     * Bit for a connection above, used by walls to raise the post.
+     */
+    public static final int UP = 16;
+
+    /**
+     * Count of masks made from the horizontal bits.
+     */
+    public static final int SIDE_MASK_COUNT = 16;
+
+    /**
+     * Count of masks made from the horizontal and up bits.
+     */
+    public static final int MASK_COUNT = 32;
+
+    /**
+     * Count of neighbor queries skipped because the chunk was not loaded.
+     */
+    private static final AtomicLong AVOIDED_CHUNK_LOADS = new AtomicLong();
+
+    /**
+     * Gets whether a neighbor can be queried without loading its chunk.
+     * Only a server world loads or generates chunks on demand, client
+     * worlds and render caches never do.
+     * @param blockAccess the world.
+     * @param pos the neighbor's position.
+     * @return whether the neighbor's chunk is loaded.
+     */
+    public static boolean isNeighborLoaded(
+        final IBlockAccess blockAccess,
+        final BlockPos pos) {
+        if (!(blockAccess instanceof World)) {
+            return true;
+        }
+
+        World world = (World) blockAccess;
+        if (world.isRemote || world.isBlockLoaded(pos)) {
+            return true;
+        }
+
+        AVOIDED_CHUNK_LOADS.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Gets the count of neighbor queries that were answered from the
+     * stored connections instead of loading a chunk.
+     * @return the count since the game started.
+     */
+    public static long getAvoidedChunkLoads() {
+        return AVOIDED_CHUNK_LOADS.get();
+    }
+
+    /**
+     * Gets the horizontal connection bits from a block state.
+     * @param state the block state.
+     * @param north the north property.
+     * @param south the south property.
+     * @param west the west property.
+     * @param east the east property.
+     * @return the connection bits.
+     */
+    public static int getSideMask(
+        final IBlockState state,
+        final IProperty north,
+        final IProperty south,
+        final IProperty west,
+        final IProperty east) {
+        int mask = 0;
+        if ((Boolean) state.getValue(north)) {
+            mask |= NORTH;
+        }
+
+        if ((Boolean) state.getValue(south)) {
+            mask |= SOUTH;
+        }
+
+        if ((Boolean) state.getValue(west)) {
+            mask |= WEST;
+        }
+
+        if ((Boolean) state.getValue(east)) {
+            mask |= EAST;
+        }
+
+        return mask;
+    }
+
+    /**
+     * Sets the horizontal connection properties from bits.
+     * @param state the source block state.
+     * @param mask the connection bits.
+     * @param north the north property.
+     * @param south the south property.
+     * @param west the west property.
+     * @param east the east property.
+     * @return the block state with the connections set.
+     */
+    public static IBlockState withSideMask(
+        final IBlockState state,
+        final int mask,
+        final IProperty north,
+        final IProperty south,
+        final IProperty west,
+        final IProperty east) {
+        return state
+            .withProperty(north, (mask & NORTH) != 0)
+            .withProperty(south, (mask & SOUTH) != 0)
+            .withProperty(west, (mask & WEST) != 0)
+            .withProperty(east, (mask & EAST) != 0);
+    }
+
+    /**
+     * Prevent instantiation of the ConnectionUtility class.
+     */
+    private ConnectionUtility() {
+    }
+}
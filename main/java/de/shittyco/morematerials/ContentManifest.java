@@ -0,0 +1,364 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.properties.IProperty;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraftforge.fml.common.registry.GameRegistry;
+
+/**
+ * The recipes, smelting recipes and model registrations of the mod.
+ * Tasks build the parts in parallel once the blocks and items are
+ * registered, then the manifest is committed on the main thread.
+ * @author jrowlett
+ *
+ */
+final class ContentManifest {
+
+    /**
+     * The crafting recipes.
+     */
+    private final List<IRecipe> recipes;
+
+    /**
+     * The smelting recipes.
+     */
+    private final List<Smelting> smelting;
+
+    /**
+     * The model registrations, in the order the proxy gets them.
+     */
+    private final List<ModelCall> models;
+
+    /**
+     * Initializes a new instance of the ContentManifest class.
+     * @param builders the parts, in the order to commit them.
+     */
+    private ContentManifest(final List<Builder> builders) {
+        List<IRecipe> allRecipes = new ArrayList<IRecipe>();
+        List<Smelting> allSmelting = new ArrayList<Smelting>();
+        List<ModelCall> allModels = new ArrayList<ModelCall>();
+        for (Builder builder : builders) {
+            allRecipes.addAll(builder.recipes);
+            allSmelting.addAll(builder.smelting);
+            allModels.addAll(builder.models);
+        }
+
+        this.recipes = Collections.unmodifiableList(allRecipes);
+        this.smelting = Collections.unmodifiableList(allSmelting);
+        this.models = Collections.unmodifiableList(allModels);
+    }
+
+    /**
+     * Builds the manifest by running the tasks in parallel.
+     * @param proxy the proxy the manifest will be committed to.
+     * @param tasks the tasks that build the parts.
+     * @return the manifest.
+     */
+    public static ContentManifest build(
+        final CommonProxy proxy,
+        final List<Task> tasks) {
+        ExecutorService executor = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<Builder>> futures = new ArrayList<Future<Builder>>();
+            for (final Task task : tasks) {
+                futures.add(executor.submit(new Callable<Builder>() {
+                    @Override
+                    public Builder call() {
+                        Builder builder = new Builder(proxy);
+                        task.build(builder);
+                        return builder;
+                    }
+                }));
+            }
+
+            List<Builder> builders = new ArrayList<Builder>();
+            for (Future<Builder> future : futures) {
+                builders.add(future.get());
+            }
+
+            return new ContentManifest(builders);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(
+                "Interrupted building the content manifest.",
+                e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(
+                "Failed to build the content manifest.",
+                e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Registers the recorded models. Call on the main thread.
+     * @param proxy the proxy to register the models.
+     */
+    public void commitModels(final CommonProxy proxy) {
+        for (ModelCall call : this.models) {
+            call.apply(proxy);
+        }
+    }
+
+    /**
+     * Registers the recipes and smelting recipes. Call on the main thread.
+     */
+    public void commitRecipes() {
+        for (IRecipe recipe : this.recipes) {
+            GameRegistry.addRecipe(recipe);
+        }
+
+        for (Smelting entry : this.smelting) {
+            GameRegistry.addSmelting(entry.input, entry.output, entry.xp);
+        }
+    }
+
+    /**
+     * Builds one part of the manifest.
+     */
+    public interface Task {
+        /**
+         * Adds the part to the builder. Called on a worker thread.
+         * @param builder the builder.
+         */
+        void build(Builder builder);
+    }
+
+    /**
+     * Collects one part of the manifest. Records model registrations
+     * as a proxy would get them, so registrants can be run off the main
+     * thread.
+     */
+    public static final class Builder extends CommonProxy {
+        /**
+         * The proxy the manifest will be committed to.
+         */
+        private CommonProxy target;
+
+        /**
+         * The crafting recipes.
+         */
+        private List<IRecipe> recipes = new ArrayList<IRecipe>();
+
+        /**
+         * The smelting recipes.
+         */
+        private List<Smelting> smelting = new ArrayList<Smelting>();
+
+        /**
+         * The model registrations.
+         */
+        private List<ModelCall> models = new ArrayList<ModelCall>();
+
+        /**
+         * Initializes a new instance of the Builder class.
+         * @param proxy the proxy the manifest will be committed to.
+         */
+        private Builder(final CommonProxy proxy) {
+            this.target = proxy;
+        }
+
+        /**
+         * Adds a crafting recipe.
+         * @param recipe the recipe.
+         */
+        public void addRecipe(final IRecipe recipe) {
+            this.recipes.add(recipe);
+        }
+
+        /**
+         * Adds a smelting recipe.
+         * @param input the item stack to smelt, which may have the
+         * wildcard damage.
+         * @param output the result.
+         * @param xp the experience for smelting.
+         */
+        public void addSmelting(
+            final ItemStack input,
+            final ItemStack output,
+            final float xp) {
+            this.smelting.add(new Smelting(input, output, xp));
+        }
+
+        /**
+         * Records an inventory model.
+         * @param item the item to register.
+         * @param id the unique id of the item.
+         * @param metadata the item metadata.
+         */
+        @Override
+        public void registerInventoryModel(
+            final Item item,
+            final String id,
+            final int metadata) {
+            this.models.add(new ModelCall() {
+                @Override
+                public void apply(final CommonProxy proxy) {
+                    proxy.registerInventoryModel(item, id, metadata);
+                }
+            });
+        }
+
+        /**
+         * Records the item models of an item that picks its model by
+         * damage.
+         * @param item the item to register.
+         * @param modelIds the item model for each damage value.
+         */
+        @Override
+        public void registerVariantInventoryModels(
+            final Item item,
+            final String[] modelIds) {
+            this.models.add(new ModelCall() {
+                @Override
+                public void apply(final CommonProxy proxy) {
+                    proxy.registerVariantInventoryModels(item, modelIds);
+                }
+            });
+        }
+
+        /**
+         * Records a model variant.
+         * @param item the main item.
+         * @param variantName the variant name.
+         */
+        @Override
+        public void addModelBakeryVariant(
+            final Item item,
+            final String variantName) {
+            this.models.add(new ModelCall() {
+                @Override
+                public void apply(final CommonProxy proxy) {
+                    proxy.addModelBakeryVariant(item, variantName);
+                }
+            });
+        }
+
+        /**
+         * Records a state mapper.
+         * @param block the block.
+         * @param colorProperty the property holding the color.
+         * @param modelIds the block state file for each color value.
+         */
+        @Override
+        public void registerColoredStateMapper(
+            final Block block,
+            final IProperty colorProperty,
+            final String[] modelIds) {
+            this.models.add(new ModelCall() {
+                @Override
+                public void apply(final CommonProxy proxy) {
+                    proxy.registerColoredStateMapper(
+                        block,
+                        colorProperty,
+                        modelIds);
+                }
+            });
+        }
+
+        /**
+         * Records a wall state mapper.
+         * @param block the wall block.
+         * @param colorProperty the property holding the color, or null.
+         * @param modelIds the block state file for each color value.
+         */
+        @Override
+        public void registerWallStateMapper(
+            final Block block,
+            final IProperty colorProperty,
+            final String[] modelIds) {
+            this.models.add(new ModelCall() {
+                @Override
+                public void apply(final CommonProxy proxy) {
+                    proxy.registerWallStateMapper(
+                        block,
+                        colorProperty,
+                        modelIds);
+                }
+            });
+        }
+
+        /**
+         * Records the models of a block or item if the target proxy
+         * renders them.
+         * @param registrant the block or item.
+         */
+        @Override
+        public void registerModels(final IModelRegistrant registrant) {
+            if (this.target.rendersModels()) {
+                registrant.registerModels(this);
+            }
+        }
+
+        /**
+         * Gets whether the target proxy renders models.
+         * @return whether models are rendered.
+         */
+        @Override
+        public boolean rendersModels() {
+            return this.target.rendersModels();
+        }
+    }
+
+    /**
+     * A recorded model registration.
+     */
+    private interface ModelCall {
+        /**
+         * Makes the registration.
+         * @param proxy the proxy to register the model.
+         */
+        void apply(CommonProxy proxy);
+    }
+
+    /**
+     * A smelting recipe.
+     */
+    private static final class Smelting {
+        /**
+         * The item stack to smelt.
+         */
+        private ItemStack input;
+
+        /**
+         * The result.
+         */
+        private ItemStack output;
+
+        /**
+         * The experience for smelting.
+         */
+        private float xp;
+
+        /**
+         * Initializes a new instance of the Smelting class.
+         * @param smeltingInput the item stack to smelt.
+         * @param smeltingOutput the result.
+         * @param smeltingXp the experience for smelting.
+         */
+        private Smelting(
+            final ItemStack smeltingInput,
+            final ItemStack smeltingOutput,
+            final float smeltingXp) {
+            this.input = smeltingInput;
+            this.output = smeltingOutput;
+            this.xp = smeltingXp;
+        }
+    }
+}
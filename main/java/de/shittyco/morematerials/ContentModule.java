@@ -0,0 +1,289 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import net.minecraftforge.common.config.Configuration;
+
+/**
+ * A family of blocks and items that can be turned off in the config.
+ * A disabled module registers no blocks, items, recipes or models.
+ * @author jrowlett
+ *
+ */
+public enum ContentModule {
+    /**
+     * The paintbrush.
+     */
+    TOOLS("tools", "The paintbrush.", null),
+
+    /**
+     * Brick clay.
+     */
+    BRICKS("bricks", "Brick clay.", null),
+
+    /**
+     * Brick walls.
+     */
+    BRICK_WALLS("brickWalls", "Brick walls.", null),
+
+    /**
+     * Stained brick clay, stained bricks and stained brick blocks.
+     */
+    STAINED_BRICKS(
+        "stainedBricks",
+        "Stained brick clay, stained bricks and stained brick blocks. "
+        + "Needs bricks.",
+        BRICKS),
+
+    /**
+     * Stained brick slabs.
+     */
+    STAINED_BRICK_SLABS(
+        "stainedBrickSlabs",
+        "Stained brick slabs. Needs stainedBricks.",
+        STAINED_BRICKS),
+
+    /**
+     * Stained brick stairs.
+     */
+    STAINED_BRICK_STAIRS(
+        "stainedBrickStairs",
+        "Stained brick stairs. Needs stainedBricks.",
+        STAINED_BRICKS),
+
+    /**
+     * Stained brick walls.
+     */
+    STAINED_BRICK_WALLS(
+        "stainedBrickWalls",
+        "Stained brick walls. Needs stainedBricks.",
+        STAINED_BRICKS),
+
+    /**
+     * Daub, wattle panels and wattle and daub.
+     */
+    WATTLE_AND_DAUB(
+        "wattleAndDaub",
+        "Daub, wattle panels and wattle and daub.",
+        null),
+
+    /**
+     * Wooden frames.
+     */
+    WOODEN_FRAMES(
+        "woodenFrames",
+        "Wooden frames. Needs wattleAndDaub for the daub.",
+        WATTLE_AND_DAUB),
+
+    /**
+     * Thatched roofing.
+     */
+    THATCHED_ROOFING("thatchedRoofing", "Thatched roofing.", null),
+
+    /**
+     * Hardened clay walls.
+     */
+    HARDENED_CLAY_WALLS(
+        "hardenedClayWalls",
+        "Hardened clay walls.",
+        null),
+
+    /**
+     * Stained hardened clay walls.
+     */
+    STAINED_HARDENED_CLAY_WALLS(
+        "stainedHardenedClayWalls",
+        "Stained hardened clay walls.",
+        null);
+
+    /**
+     * Config category of the modules.
+     */
+    private static final String CATEGORY = "modules";
+
+    /**
+     * The config key.
+     */
+    private String key;
+
+    /**
+     * The config comment.
+     */
+    private String comment;
+
+    /**
+     * The module this module needs, or null.
+     */
+    private ContentModule parent;
+
+    /**
+     * Whether the module is turned on in the config.
+     */
+    private boolean configured = true;
+
+    /**
+     * The registry names of the module, or null until first needed.
+     */
+    private Set<String> names;
+
+    /**
+     * Reads which modules are turned on.
+     * @param config the mod's configuration.
+     */
+    public static void configure(final Configuration config) {
+        config.setCategoryComment(
+            CATEGORY,
+            "Families of blocks and items. A disabled family registers "
+            + "nothing. Blocks of a family disabled after use are removed "
+            + "from worlds when they load.");
+        for (ContentModule module : values()) {
+            module.configured = config.getBoolean(
+                module.key,
+                CATEGORY,
+                true,
+                module.comment);
+            config.getCategory(CATEGORY).get(module.key)
+                .setRequiresMcRestart(true);
+        }
+    }
+
+    /**
+     * Gets the module that registers a name.
+     * @param registryName the registry name without the mod ID.
+     * @return the module, or null if no module registers the name.
+     */
+    public static ContentModule getOwner(final String registryName) {
+        for (ContentModule module : values()) {
+            if (module.getNames().contains(registryName)) {
+                return module;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets whether the module and the modules it needs are turned on.
+     * @return whether the module is enabled.
+     */
+    public boolean isEnabled() {
+        return this.configured
+            && (this.parent == null || this.parent.isEnabled());
+    }
+
+    /**
+     * Gets the config key.
+     * @return the config key.
+     */
+    public String getKey() {
+        return this.key;
+    }
+
+    /**
+     * Helper to get the registry names of the module's blocks and items,
+     * including the names from when every color was its own block.
+     * The names do not depend on the blocks, so they are known even if
+     * the module is disabled.
+     * @return the registry names without the mod ID.
+     */
+    private Set<String> getNames() {
+        if (this.names != null) {
+            return this.names;
+        }
+
+        Set<String> result = new HashSet<String>();
+        switch (this) {
+        case TOOLS:
+            result.add(ItemPaintbrush.ID);
+            break;
+        case BRICKS:
+            result.add(ItemBrickClay.ID);
+            break;
+        case BRICK_WALLS:
+            result.add(BlockBrickWall.ID);
+            break;
+        case STAINED_BRICKS:
+            result.addAll(Arrays.asList(
+                ItemStainedBrickClay.ID,
+                ItemStainedBrick.ID,
+                BlockStainedBricks.ID));
+            break;
+        case STAINED_BRICK_SLABS:
+            for (int g = 0; g < BlockStainedBrickSlab.GROUP_COUNT; g++) {
+                result.add(BlockStainedBrickSlab.getId(false, g));
+                result.add(BlockStainedBrickSlab.getId(true, g));
+            }
+
+            for (int i = 0; i < ColorUtility.COLOR_COUNT; i++) {
+                result.add(BlockStainedBrickSlab.getModelId(false, i));
+                result.add(BlockStainedBrickSlab.getModelId(true, i));
+            }
+
+            break;
+        case STAINED_BRICK_STAIRS:
+            for (int i = 0; i < ColorUtility.COLOR_COUNT; i++) {
+                result.add(BlockStainedBrickStairs.getId(i));
+            }
+
+            break;
+        case STAINED_BRICK_WALLS:
+            result.add(BlockStainedBrickWall.ID);
+            for (int i = 0; i < ColorUtility.COLOR_COUNT; i++) {
+                result.add(BlockStainedBrickWall.getLegacyId(i));
+            }
+
+            break;
+        case WATTLE_AND_DAUB:
+            result.addAll(Arrays.asList(
+                ItemDaub.ID,
+                BlockWattleAndDaub.ID,
+                BlockWattlePanel.ID));
+            break;
+        case WOODEN_FRAMES:
+            result.addAll(Arrays.asList(
+                BlockWoodenFrame.ID,
+                BlockCrossWoodenFrame.ID,
+                BlockSlashWoodenFrame.ID,
+                BlockBackslashWoodenFrame.ID));
+            break;
+        case THATCHED_ROOFING:
+            result.add(BlockThatchedRoofing.ID);
+            break;
+        case HARDENED_CLAY_WALLS:
+            result.add(BlockHardenedClayWall.ID);
+            break;
+        case STAINED_HARDENED_CLAY_WALLS:
+            result.add(BlockStainedHardenedClayWall.ID);
+            for (int i = 0; i < ColorUtility.COLOR_COUNT; i++) {
+                result.add(BlockStainedHardenedClayWall.getLegacyId(i));
+            }
+
+            break;
+        default:
+            break;
+        }
+
+        this.names = result;
+        return result;
+    }
+
+    /**
+     * Initializes a new instance of the ContentModule class.
+     * @param configKey the config key.
+     * @param configComment the config comment.
+     * @param needs the module this module needs, or null.
+     */
+    private ContentModule(
+        final String configKey,
+        final String configComment,
+        final ContentModule needs) {
+        this.key = configKey;
+        this.comment = configComment;
+        this.parent = needs;
+    }
+}
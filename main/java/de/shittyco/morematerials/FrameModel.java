@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.client.renderer.vertex.VertexFormat;
+import net.minecraft.client.resources.model.ModelRotation;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.client.model.IFlexibleBakedModel;
+import net.minecraftforge.client.model.IModel;
+import net.minecraftforge.client.model.IModelState;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+import com.google.common.base.Function;
+
+/**
+ * A wooden frame model: the planks of a wood on every side, with a frame
+ * overlay shared by every wood on the four sides. Bakes to a model that
+ * covers every connection mask if the frames render connected.
+ * @author jrowlett
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class FrameModel implements IModel {
+
+    /**
+     * The frame overlay.
+     */
+    private ResourceLocation overlay;
+
+    /**
+     * The planks texture.
+     */
+    private ResourceLocation planks;
+
+    /**
+     * Whether the frame renders connected to its neighbors.
+     */
+    private boolean connected;
+
+    /**
+     * Initializes a new instance of the FrameModel class.
+     * @param overlayTexture the frame overlay.
+     * @param planksTexture the planks texture.
+     * @param connectedFrame whether the frame renders connected to its
+     * neighbors.
+     */
+    public FrameModel(
+        final ResourceLocation overlayTexture,
+        final ResourceLocation planksTexture,
+        final boolean connectedFrame) {
+        this.overlay = overlayTexture;
+        this.planks = planksTexture;
+        this.connected = connectedFrame;
+    }
+
+    /**
+     * Gets the models this model needs.
+     * @return none.
+     */
+    @Override
+    public final Collection<ResourceLocation> getDependencies() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Gets the textures this model needs.
+     * @return the overlay and planks textures.
+     */
+    @Override
+    public final Collection<ResourceLocation> getTextures() {
+        return Arrays.asList(this.overlay, this.planks);
+    }
+
+    /**
+     * Bakes the model.
+     * @param state the model state, frames are not rotated.
+     * @param format the vertex format.
+     * @param bakedTextureGetter gets the sprite of a texture.
+     * @return the baked model.
+     */
+    @Override
+    public final IFlexibleBakedModel bake(
+        final IModelState state,
+        final VertexFormat format,
+        final Function<ResourceLocation, TextureAtlasSprite>
+            bakedTextureGetter) {
+        return new BakedFrameModel(
+            bakedTextureGetter.apply(this.overlay),
+            bakedTextureGetter.apply(this.planks),
+            format,
+            this.connected);
+    }
+
+    /**
+     * Gets the default model state.
+     * @return no rotation.
+     */
+    @Override
+    public final IModelState getDefaultState() {
+        return ModelRotation.X0_Y0;
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import net.minecraft.client.resources.IResourceManager;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.client.model.ICustomModelLoader;
+import net.minecraftforge.client.model.IModel;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Loads the wooden frame models without model files. The model name
+ * holds the planks texture followed by the frame overlay, each with its
+ * domain so the planks can come from any mod, for example
+ * morematerials:frame/minecraft:blocks/planks_oak/
+ * morematerials:blocks/woodenframe_overlay without the line break.
+ * Frames named connected_frame instead of frame render connected to
+ * their neighbors when connected frames are turned on. Only overlays
+ * with nothing but timbers along their edges can be connected.
+ * @author jrowlett
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class FrameModelLoader implements ICustomModelLoader {
+
+    /**
+     * Path of the frame models.
+     */
+    private static final String FRAME_PATH = "models/block/frame/";
+
+    /**
+     * Path of the frame models that can render connected.
+     */
+    private static final String CONNECTED_FRAME_PATH =
+        "models/block/connected_frame/";
+
+    /**
+     * Whether connected frames are turned on.
+     */
+    private boolean connected;
+
+    /**
+     * Initializes a new instance of the FrameModelLoader class.
+     * @param connectedFrames whether connected frames are turned on.
+     */
+    public FrameModelLoader(final boolean connectedFrames) {
+        this.connected = connectedFrames;
+    }
+
+    /**
+     * Checks if a model is a frame model.
+     * @param modelLocation the model location.
+     * @return whether the loader makes the model.
+     */
+    @Override
+    public final boolean accepts(final ResourceLocation modelLocation) {
+        if (!modelLocation.getResourceDomain().equals(
+            MoreMaterialsMod.MODID)) {
+            return false;
+        }
+
+        String path = modelLocation.getResourcePath();
+        return path.startsWith(FRAME_PATH)
+            || path.startsWith(CONNECTED_FRAME_PATH);
+    }
+
+    /**
+     * Makes the frame model for a model location.
+     * @param modelLocation the model location.
+     * @return the frame model.
+     */
+    @Override
+    public final IModel loadModel(final ResourceLocation modelLocation) {
+        String path = modelLocation.getResourcePath();
+        boolean connectable = path.startsWith(CONNECTED_FRAME_PATH);
+        ResourceLocation[] textures = ModelNameUtility.parseTextures(
+            path.substring(
+                connectable
+                    ? CONNECTED_FRAME_PATH.length()
+                    : FRAME_PATH.length()));
+        if (textures.length != 2) {
+            throw new IllegalArgumentException(
+                "Frame model without planks and overlay " + modelLocation);
+        }
+
+        return new FrameModel(
+            textures[1],
+            textures[0],
+            connectable && this.connected);
+    }
+
+    /**
+     * Called when the resource packs change.
+     * @param resourceManager the resource manager.
+     */
+    @Override
+    public final void onResourceManagerReload(
+        final IResourceManager resourceManager) {
+        // no-op, the geometry does not depend on the resource packs.
+    }
+}
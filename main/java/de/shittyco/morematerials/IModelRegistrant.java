@@ -0,0 +1,19 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+/**
+ * Blocks and items that register models for rendering.
+ * The proxy decides whether to call them, so the variant names are only
+ * built on the client.
+ * @author jrowlett
+ *
+ */
+public interface IModelRegistrant {
+    /**
+     * Call on init to register the icons for inventory.
+     * @param proxy the proxy to register the models.
+     */
+    void registerModels(CommonProxy proxy);
+}
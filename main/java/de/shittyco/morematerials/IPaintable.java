@@ -0,0 +1,29 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import net.minecraft.block.state.IBlockState;
+
+/**
+ * Blocks that the paintbrush can recolor in place.
+ * A recolored block keeps its shape, so neighbors never need to be told.
+ * @author jrowlett
+ *
+ */
+public interface IPaintable {
+    /**
+     * Gets the color of a block state.
+     * @param state the block state.
+     * @return the color from 0-15.
+     */
+    int getColor(IBlockState state);
+
+    /**
+     * Gets the block state of another color with the same shape.
+     * @param state the block state.
+     * @param color the color from 0-15.
+     * @return the recolored block state, which may be of another block.
+     */
+    IBlockState withColor(IBlockState state, int color);
+}
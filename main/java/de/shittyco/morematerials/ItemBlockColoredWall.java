@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import net.minecraft.block.Block;
+import net.minecraft.item.ItemBlock;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Item for walls that come in every color.
+ * @author jrowlett
+ *
+ */
+public class ItemBlockColoredWall extends ItemBlock {
+
+    /**
+     * Initializes a new instance of the ItemBlockColoredWall class.
+     * @param block the block that this item is for.
+     */
+    public ItemBlockColoredWall(final Block block) {
+        super(block);
+        setHasSubtypes(true);
+    }
+
+    /**
+     * Gets the metadata for the block from an item damage value.
+     * @param damageValue the damage from the item.
+     * @return block metadata.
+     */
+    @Override
+    public final int getMetadata(final int damageValue) {
+        return damageValue;
+    }
+
+    /**
+     * Gets the unlocalized name for the block.
+     * @param itemStack the stack to get the name for.
+     * @return the unlocalized name.
+     */
+    @Override
+    public final String getUnlocalizedName(final ItemStack itemStack) {
+        int damage = itemStack.getItemDamage();
+        return super.getUnlocalizedName()
+            + "."
+            + ColorUtility.COLOR_NAMES[damage];
+    }
+
+    /**
+     * Gets the tint of the brick overlay of the item's model.
+     * @param stack the item stack.
+     * @param renderPass the tint index of the quad.
+     * @return the tint of the block state for the item's metadata.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final int getColorFromItemStack(
+        final ItemStack stack,
+        final int renderPass) {
+        return this.block.getRenderColor(
+            this.block.getStateFromMeta(stack.getMetadata()));
+    }
+}
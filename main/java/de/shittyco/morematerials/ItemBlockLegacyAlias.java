@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import net.minecraft.block.Block;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.item.EntityItem;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemBlock;
+import net.minecraft.item.ItemStack;
+import net.minecraft.world.World;
+
+/**
+ * Item for a block from when every color was its own block.
+ * Stacks turn into the item of the replacement block, with the color as
+ * damage, when they update in an inventory or on the ground.
+ * @author jrowlett
+ *
+ */
+public class ItemBlockLegacyAlias extends ItemBlock {
+
+    /**
+     * Initializes a new instance of the ItemBlockLegacyAlias class.
+     * @param block the legacy alias block.
+     */
+    public ItemBlockLegacyAlias(final Block block) {
+        super(block);
+        setHasSubtypes(true);
+    }
+
+    /**
+     * Gets the metadata for the block from an item damage value.
+     * @param damageValue the damage from the item.
+     * @return block metadata.
+     */
+    @Override
+    public final int getMetadata(final int damageValue) {
+        return damageValue;
+    }
+
+    /**
+     * Converts the stack while it is in an entity's inventory.
+     * @param stack the item stack.
+     * @param world the world.
+     * @param entity the entity holding the stack.
+     * @param slot the inventory slot.
+     * @param isSelected whether the stack is held.
+     */
+    @Override
+    public final void onUpdate(
+        final ItemStack stack,
+        final World world,
+        final Entity entity,
+        final int slot,
+        final boolean isSelected) {
+        convert(stack);
+    }
+
+    /**
+     * Converts the stack while it lies on the ground.
+     * @param entityItem the item entity.
+     * @return false, the entity updates as usual.
+     */
+    @Override
+    public final boolean onEntityItemUpdate(final EntityItem entityItem) {
+        convert(entityItem.getEntityItem());
+        return false;
+    }
+
+    /**
+     * Turns a legacy stack into the item of the replacement block.
+     * @param stack the item stack, which is changed in place.
+     * @return whether the stack was a legacy stack.
+     */
+    public static boolean convert(final ItemStack stack) {
+        if (stack == null
+            || !(stack.getItem() instanceof ItemBlockLegacyAlias)) {
+            return false;
+        }
+
+        BlockLegacyAlias alias =
+            (BlockLegacyAlias) ((ItemBlock) stack.getItem()).getBlock();
+        int damage = alias.getReplacementDamage(stack.getMetadata());
+        stack.setItem(Item.getItemFromBlock(alias.getReplacement()));
+        stack.setItemDamage(damage);
+        return true;
+    }
+}
@@ -5,9 +5,14 @@ package de.shittyco.morematerials;
 
 import net.minecraft.block.Block;
 import net.minecraft.item.ItemSlab;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
 
 /**
  * Wrapper around ItemSlab to allow init from GameRegistry.
+ * The half slab item gives itself to both slabs so they can drop it
+ * without looking it up.
  * @author jrowlett
  *
  */
@@ -25,5 +30,24 @@ public class ItemBlockStainedBrickSlab extends ItemSlab {
         final BlockDoubleStainedBrickSlab doubleSlab,
         final Boolean stacked) {
         super(block, slab, doubleSlab);
+        if (!stacked) {
+            slab.setSlabItem(this);
+            doubleSlab.setSlabItem(this);
+        }
+    }
+
+    /**
+     * Gets the tint of the brick overlay of the item's model.
+     * @param stack the item stack.
+     * @param renderPass the tint index of the quad.
+     * @return the tint of the block state for the item's metadata.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final int getColorFromItemStack(
+        final ItemStack stack,
+        final int renderPass) {
+        return this.block.getRenderColor(
+            this.block.getStateFromMeta(stack.getMetadata()));
     }
 }
@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import net.minecraft.block.Block;
+import net.minecraft.item.ItemBlock;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Item for stained brick stairs, which tints the brick overlay with the
+ * color of its stairs.
+ * @author jrowlett
+ *
+ */
+public class ItemBlockStainedBrickStairs extends ItemBlock {
+
+    /**
+     * Initializes a new instance of the ItemBlockStainedBrickStairs class.
+     * @param block the block that this item is for.
+     */
+    public ItemBlockStainedBrickStairs(final Block block) {
+        super(block);
+    }
+
+    /**
+     * Gets the tint of the brick overlay of the item's model.
+     * @param stack the item stack.
+     * @param renderPass the tint index of the quad.
+     * @return the tint of the stairs.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final int getColorFromItemStack(
+        final ItemStack stack,
+        final int renderPass) {
+        return this.block.getRenderColor(this.block.getDefaultState());
+    }
+}
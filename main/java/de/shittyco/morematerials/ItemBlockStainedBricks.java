@@ -6,6 +6,8 @@ package de.shittyco.morematerials;
 import net.minecraft.block.Block;
 import net.minecraft.item.ItemBlock;
 import net.minecraft.item.ItemStack;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
 
 /**
  * Stained Bricks block class.
@@ -45,4 +47,19 @@ public class ItemBlockStainedBricks extends ItemBlock {
             + "."
             + ColorUtility.COLOR_NAMES[damage];
     }
+
+    /**
+     * Gets the tint of the brick overlay of the item's model.
+     * @param stack the item stack.
+     * @param renderPass the tint index of the quad.
+     * @return the tint of the block state for the item's metadata.
+     */
+    @SideOnly(Side.CLIENT)
+    @Override
+    public final int getColorFromItemStack(
+        final ItemStack stack,
+        final int renderPass) {
+        return this.block.getRenderColor(
+            this.block.getStateFromMeta(stack.getMetadata()));
+    }
 }
@@ -12,7 +12,8 @@ import net.minecraft.item.Item;
  * @author jrowlett
  *
  */
-public class ItemBrickClay extends Item {
+public class ItemBrickClay extends Item
+    implements IModelRegistrant {
 
     /**
      * ID of the item for the game registry.
@@ -31,4 +32,13 @@ public class ItemBrickClay extends Item {
         setUnlocalizedName(NAME);
         setCreativeTab(CreativeTabs.tabMaterials);
     }
+
+    /**
+     * Call on init to register the icons for inventory.
+     * @param proxy the proxy to register the models.
+     */
+    @Override
+    public final void registerModels(final CommonProxy proxy) {
+        proxy.registerInventoryModel(this, ID, 0);
+    }
 }
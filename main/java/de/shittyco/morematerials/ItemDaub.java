@@ -19,7 +19,8 @@ import net.minecraft.world.World;
  * @author jrowlett
  *
  */
-public class ItemDaub extends Item {
+public class ItemDaub extends Item
+    implements IModelRegistrant {
 
     /**
      * ID used in the game registry.
@@ -75,4 +76,13 @@ public class ItemDaub extends Item {
 
         return itemStack;
     }
+
+    /**
+     * Call on init to register the icons for inventory.
+     * @param proxy the proxy to register the models.
+     */
+    @Override
+    public final void registerModels(final CommonProxy proxy) {
+        proxy.registerInventoryModel(this, ID, 0);
+    }
 }
@@ -3,15 +3,33 @@
  */
 package de.shittyco.morematerials;
 
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.creativetab.CreativeTabs;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.InventoryPlayer;
+import net.minecraft.init.Items;
 import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.world.World;
 
 /**
  * Paint brush tool.
+ * Recolors stained bricks and their walls, slabs and stairs with the dye
+ * in the next hotbar slot. Sneaking paints the connected face of blocks
+ * of the clicked color, which is committed as one batch per chunk.
  * @author jrowlett
  *
  */
-public class ItemPaintbrush extends Item {
+public class ItemPaintbrush extends Item
+    implements IModelRegistrant {
 
     /**
      * ID of the item for the game registry.
@@ -33,6 +51,16 @@ public class ItemPaintbrush extends Item {
      */
     private static final int MAXDAMAGE = 32;
 
+    /**
+     * Count of blocks painted with one dye.
+     */
+    private static final int BLOCKS_PER_DYE = 8;
+
+    /**
+     * Most blocks painted at once.
+     */
+    private static final int MAX_AREA_BLOCKS = 4096;
+
     /**
      * Initializes a new instance of the Paintbrush class.
      */
@@ -42,4 +70,201 @@ public class ItemPaintbrush extends Item {
         setMaxDamage(MAXDAMAGE);
         setCreativeTab(CreativeTabs.tabTools);
     }
+
+    /**
+     * Call on init to register the icons for inventory.
+     * @param proxy the proxy to register the models.
+     */
+    @Override
+    public final void registerModels(final CommonProxy proxy) {
+        proxy.registerInventoryModel(this, ID, 0);
+    }
+
+    /**
+     * Paints the block that was clicked, or the connected face of blocks
+     * of its color when sneaking.
+     * @param stack the paint brush.
+     * @param player the player using the brush.
+     * @param world the world.
+     * @param pos the block position.
+     * @param side the side of the block that was clicked.
+     * @param hitX the x position of the click on the block.
+     * @param hitY the y position of the click on the block.
+     * @param hitZ the z position of the click on the block.
+     * @return whether the brush was used.
+     */
+    @Override
+    public final boolean onItemUse(
+        final ItemStack stack,
+        final EntityPlayer player,
+        final World world,
+        final BlockPos pos,
+        final EnumFacing side,
+        final float hitX,
+        final float hitY,
+        final float hitZ) {
+        IBlockState state = world.getBlockState(pos);
+        Block block = state.getBlock();
+        if (!(block instanceof IPaintable)
+            || !world.isBlockModifiable(player, pos)
+            || !player.canPlayerEdit(pos, side, stack)) {
+            return false;
+        }
+
+        int dyeSlot = findDyeSlot(player.inventory);
+        if (dyeSlot < 0) {
+            return false;
+        }
+
+        ItemStack dye = player.inventory.getStackInSlot(dyeSlot);
+        int color = dye.getMetadata();
+        int oldColor = ((IPaintable) block).getColor(state);
+        if (oldColor == color) {
+            return false;
+        }
+
+        if (world.isRemote) {
+            return true;
+        }
+
+        boolean creative = player.capabilities.isCreativeMode;
+        int painted;
+        if (player.isSneaking()) {
+            int limit = MAX_AREA_BLOCKS;
+            if (!creative) {
+                limit = Math.min(limit, dye.stackSize * BLOCKS_PER_DYE);
+            }
+
+            painted = paintArea(
+                stack,
+                player,
+                world,
+                pos,
+                side,
+                oldColor,
+                color,
+                limit);
+        } else {
+            world.setBlockState(
+                pos,
+                ((IPaintable) block).withColor(state, color));
+            painted = 1;
+        }
+
+        if (!creative) {
+            dye.stackSize -= (painted + BLOCKS_PER_DYE - 1) / BLOCKS_PER_DYE;
+            if (dye.stackSize <= 0) {
+                player.inventory.setInventorySlotContents(dyeSlot, null);
+            }
+        }
+
+        stack.damageItem(1, player);
+        return true;
+    }
+
+    /**
+     * Helper to find the dye to paint with: the first in the hotbar after
+     * the brush, wrapping around.
+     * @param inventory the player's inventory.
+     * @return the slot of the dye, or -1 if there is none.
+     */
+    private static int findDyeSlot(final InventoryPlayer inventory) {
+        int hotbarSize = InventoryPlayer.getHotbarSize();
+        for (int i = 1; i < hotbarSize; i++) {
+            int slot = (inventory.currentItem + i) % hotbarSize;
+            ItemStack stack = inventory.getStackInSlot(slot);
+            if (stack != null && stack.getItem() == Items.dye) {
+                return slot;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Helper to paint the face of paintable blocks of one color that is
+     * connected to the clicked block. The blocks are found first and then
+     * set in one batch, so neighbors are not notified block by block and
+     * each chunk is sent to the clients once.
+     * @param stack the paint brush.
+     * @param player the player using the brush.
+     * @param world the world.
+     * @param start the clicked block.
+     * @param side the side that was clicked.
+     * @param oldColor the color being painted over.
+     * @param color the new color.
+     * @param limit the most blocks to paint.
+     * @return the count of blocks painted.
+     */
+    private static int paintArea(
+        final ItemStack stack,
+        final EntityPlayer player,
+        final World world,
+        final BlockPos start,
+        final EnumFacing side,
+        final int oldColor,
+        final int color,
+        final int limit) {
+        BlockChangeBatch batch = new BlockChangeBatch(world);
+        Set<BlockPos> visited = new HashSet<BlockPos>();
+        Queue<BlockPos> queue = new ArrayDeque<BlockPos>();
+        visited.add(start);
+        queue.add(start);
+        while (!queue.isEmpty() && batch.size() < limit) {
+            BlockPos pos = queue.remove();
+            IBlockState state = world.getBlockState(pos);
+            batch.setBlockState(
+                pos,
+                ((IPaintable) state.getBlock()).withColor(state, color));
+            for (EnumFacing facing : EnumFacing.VALUES) {
+                if (facing.getAxis() == side.getAxis()) {
+                    continue;
+                }
+
+                BlockPos next = pos.offset(facing);
+                if (visited.add(next)
+                    && isOnFace(stack, player, world, next, side, oldColor)) {
+                    queue.add(next);
+                }
+            }
+        }
+
+        int painted = batch.size();
+        batch.commit();
+        return painted;
+    }
+
+    /**
+     * Helper to check if a block belongs to the face being painted.
+     * The player must be allowed to edit each block, the same as the
+     * clicked one, so spawn protection and claims stop the paint.
+     * @param stack the paint brush.
+     * @param player the player using the brush.
+     * @param world the world.
+     * @param pos the block position.
+     * @param side the side of the face.
+     * @param oldColor the color being painted over.
+     * @return whether the block is loaded, editable by the player,
+     * paintable, of the color and not covered on the side.
+     */
+    private static boolean isOnFace(
+        final ItemStack stack,
+        final EntityPlayer player,
+        final World world,
+        final BlockPos pos,
+        final EnumFacing side,
+        final int oldColor) {
+        if (!world.isBlockLoaded(pos)
+            || !world.isBlockModifiable(player, pos)
+            || !player.canPlayerEdit(pos, side, stack)) {
+            return false;
+        }
+
+        IBlockState state = world.getBlockState(pos);
+        Block block = state.getBlock();
+        return block instanceof IPaintable
+            && ((IPaintable) block).getColor(state) == oldColor
+            && !world.getBlockState(pos.offset(side)).getBlock()
+                .isOpaqueCube();
+    }
 }
@@ -26,7 +26,7 @@ public class ItemStainedBrick extends ColoredItem {
      * Initializes a new instance of the ItemStainedBrick class.
      */
     public ItemStainedBrick() {
-        super(NAME, ID);
+        super(NAME, ID, ColorUtility.STAINED_BRICK_TINTS);
         setCreativeTab(CreativeTabs.tabMaterials);
     }
 }
@@ -26,7 +26,7 @@ public class ItemStainedBrickClay extends ColoredItem {
      * Initializes a new instance of the ItemStainedBrickClay class.
      */
     public ItemStainedBrickClay() {
-        super(NAME, ID);
+        super(NAME, ID, ColorUtility.STAINED_BRICK_CLAY_TINTS);
         setCreativeTab(CreativeTabs.tabMaterials);
     }
 }
@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import net.minecraft.block.Block;
+import net.minecraft.inventory.IInventory;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraftforge.event.world.ChunkDataEvent;
+import net.minecraftforge.fml.common.FMLLog;
+import net.minecraftforge.fml.common.event.FMLMissingMappingsEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.registry.GameRegistry;
+
+/**
+ * Converts blocks from when every color was its own block to the
+ * blocks that hold the color in a property.
+ * Each legacy name stays registered as a hidden alias block, so a save
+ * keeps its block IDs and the color in the name. Alias blocks are
+ * replaced when their chunk is first loaded, and alias stacks convert
+ * themselves when they update.
+ * @author jrowlett
+ *
+ */
+public final class LegacyBlockConverter {
+
+    /**
+     * Tag in chunk data set once the chunk has been converted.
+     */
+    private static final String CONVERTED_TAG = "MoreMaterialsConverted";
+
+    /**
+     * Initializes a new instance of the LegacyBlockConverter class.
+     */
+    public LegacyBlockConverter() {
+    }
+
+    /**
+     * Registers the alias block for a legacy name.
+     * @param legacyId the legacy registry name without the mod ID.
+     * @param block the replacement block.
+     * @param meta the metadata of the replacement block.
+     * @param keepMask bits of the legacy metadata to keep.
+     * @return the alias block, which registers as hidden on the client.
+     */
+    public static BlockLegacyAlias addLegacyName(
+        final String legacyId,
+        final Block block,
+        final int meta,
+        final int keepMask) {
+        BlockLegacyAlias alias = new BlockLegacyAlias(block, meta, keepMask);
+        GameRegistry.registerBlock(
+            alias,
+            ItemBlockLegacyAlias.class,
+            legacyId);
+        return alias;
+    }
+
+    /**
+     * Drops the blocks and items of disabled modules.
+     * Any other missing name is left to the mod loader, which asks
+     * before removing it from the world.
+     * @param event the missing mappings provided by the mod loader.
+     */
+    public static void remap(final FMLMissingMappingsEvent event) {
+        String prefix = MoreMaterialsMod.MODID + ':';
+        for (FMLMissingMappingsEvent.MissingMapping mapping : event.get()) {
+            if (!mapping.name.startsWith(prefix)) {
+                continue;
+            }
+
+            ContentModule owner = ContentModule.getOwner(
+                mapping.name.substring(prefix.length()));
+            if (owner != null && !owner.isEnabled()) {
+                // dropping it clears the blocks instead of refusing the
+                // world.
+                FMLLog.warning(
+                    "Removing %s from the world, module %s is disabled.",
+                    mapping.name,
+                    owner.getKey());
+                mapping.ignore();
+            }
+        }
+    }
+
+    /**
+     * Converts the legacy blocks and the legacy stacks in the
+     * inventories of a chunk read from disk.
+     * @param event information about the chunk.
+     */
+    @SubscribeEvent
+    public void onChunkLoad(final ChunkDataEvent.Load event) {
+        if (event.getData().getBoolean(CONVERTED_TAG)) {
+            return;
+        }
+
+        Chunk chunk = event.getChunk();
+        boolean modified = false;
+        for (ExtendedBlockStorage storage : chunk.getBlockStorageArray()) {
+            if (storage != null) {
+                modified |= convert(storage);
+            }
+        }
+
+        for (Object tileEntity : chunk.getTileEntityMap().values()) {
+            // the chunk is saved as a whole, so the tile entity is not
+            // marked dirty, which would look up its neighbors mid-load.
+            if (tileEntity instanceof IInventory) {
+                modified |= convert((IInventory) tileEntity);
+            }
+        }
+
+        if (modified) {
+            chunk.setModified(true);
+        }
+    }
+
+    /**
+     * Marks a chunk as converted when it is saved.
+     * @param event information about the chunk.
+     */
+    @SubscribeEvent
+    public void onChunkSave(final ChunkDataEvent.Save event) {
+        event.getData().setBoolean(CONVERTED_TAG, true);
+    }
+
+    /**
+     * Helper to convert the legacy blocks in one section of a chunk.
+     * @param storage the section.
+     * @return whether any block was converted.
+     */
+    private static boolean convert(final ExtendedBlockStorage storage) {
+        boolean modified = false;
+        char[] data = storage.getData();
+        for (int i = 0; i < data.length; i++) {
+            Block block = Block.getBlockById(data[i] >> 4);
+            if (block instanceof BlockLegacyAlias) {
+                int x = i & 15;
+                int z = (i >> 4) & 15;
+                int y = i >> 8;
+                storage.set(
+                    x,
+                    y,
+                    z,
+                    ((BlockLegacyAlias) block).getReplacementState(
+                        data[i] & 15));
+                modified = true;
+            }
+        }
+
+        return modified;
+    }
+
+    /**
+     * Helper to convert the legacy stacks in an inventory.
+     * @param inventory the inventory.
+     * @return whether any stack was converted.
+     */
+    private static boolean convert(final IInventory inventory) {
+        boolean modified = false;
+        for (int i = 0; i < inventory.getSizeInventory(); i++) {
+            modified |= ItemBlockLegacyAlias.convert(
+                inventory.getStackInSlot(i));
+        }
+
+        return modified;
+    }
+}
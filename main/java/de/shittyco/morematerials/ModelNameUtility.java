@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.util.ResourceLocation;
+
+/**
+ * Helpers for the names of models generated without model files, which
+ * hold the textures they are made of.
+ * @author jrowlett
+ *
+ */
+final class ModelNameUtility {
+
+    /**
+     * Separates the domain of a texture from its path.
+     */
+    private static final char DOMAIN_SEPARATOR = ':';
+
+    /**
+     * Separates the parts of a path.
+     */
+    private static final char PATH_SEPARATOR = '/';
+
+    /**
+     * Parses the textures held in a model name. Each texture is written
+     * with its domain, and a part of the name with a domain starts the
+     * next texture, for example
+     * minecraft:blocks/planks_oak/morematerials:blocks/woodenframe_overlay.
+     * @param textures the part of the model name with the textures.
+     * @return the textures in order.
+     */
+    public static ResourceLocation[] parseTextures(final String textures) {
+        List<ResourceLocation> result = new ArrayList<ResourceLocation>();
+        int start = 0;
+        while (start < textures.length()) {
+            int colon = textures.indexOf(DOMAIN_SEPARATOR, start);
+            if (colon < 0) {
+                throw new IllegalArgumentException(
+                    "Texture without a domain in " + textures);
+            }
+
+            int next = textures.indexOf(DOMAIN_SEPARATOR, colon + 1);
+            int end = textures.length();
+            if (next >= 0) {
+                end = textures.lastIndexOf(PATH_SEPARATOR, next);
+            }
+
+            if (end <= colon) {
+                throw new IllegalArgumentException(
+                    "Texture without a path in " + textures);
+            }
+
+            result.add(new ResourceLocation(
+                textures.substring(start, colon),
+                textures.substring(colon + 1, end)));
+            start = end + 1;
+        }
+
+        return result.toArray(new ResourceLocation[result.size()]);
+    }
+
+    /**
+     * Prevent instantiation of the ModelNameUtility class.
+     */
+    private ModelNameUtility() {
+    }
+}
@@ -3,21 +3,35 @@
  */
 package de.shittyco.morematerials;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockDoublePlant;
-import net.minecraft.block.BlockSlab;
-import net.minecraft.block.BlockStairs;
 import net.minecraft.block.BlockTallGrass;
 import net.minecraft.init.Blocks;
 import net.minecraft.init.Items;
-import net.minecraft.item.ItemSlab;
 import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.CraftingManager;
+import net.minecraft.item.crafting.FurnaceRecipes;
+import net.minecraft.item.crafting.ShapedRecipes;
+import net.minecraft.item.crafting.ShapelessRecipes;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.common.config.Configuration;
+import net.minecraftforge.fml.common.FMLLog;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.Mod.EventHandler;
 import net.minecraftforge.fml.common.SidedProxy;
-import net.minecraftforge.fml.common.event.FMLInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLMissingMappingsEvent;
+import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLServerStartedEvent;
+import net.minecraftforge.fml.common.event.FMLServerStoppingEvent;
 import net.minecraftforge.fml.common.registry.GameRegistry;
+import net.minecraftforge.oredict.OreDictionary;
+import net.minecraftforge.oredict.RecipeSorter;
 
 /**
  * Mod that adds more building materials to the game.
@@ -76,14 +90,14 @@ public class MoreMaterialsMod {
     private static BlockStainedBrickSlab[] stainedBrickSlabBlocks;
 
     /**
-     * Item blocks for the stained brick slabs.
+     * Stained brick stairs for registration, indexed by color.
      */
-    private static ItemSlab[] stainedBrickSlabItemBlocks;
+    private static BlockStainedBrickStairs[] stainedBrickStairsBlocks;
 
     /**
-     * Stained brick walls for registration.
+     * Stained brick wall for registration.
      */
-    private static BlockStainedBrickWall[] stainedBrickWallBlocks;
+    private static BlockStainedBrickWall stainedBrickWall;
 
     /**
      * Brick wall block for registration.
@@ -91,9 +105,9 @@ public class MoreMaterialsMod {
     private static BlockBrickWall brickWall;
 
     /**
-     * Stained hardened clay wall blocks.
+     * Stained hardened clay wall block.
      */
-    private static BlockStainedHardenedClayWall[] stainedHardenedClayWallBlocks;
+    private static BlockStainedHardenedClayWall stainedHardenedClayWall;
 
     /**
      * The daub item.
@@ -185,6 +199,42 @@ public class MoreMaterialsMod {
      */
     private static final int WATTLE_PANEL_QUANTITY = 8;
 
+    /**
+     * Configuration category for the wall rules.
+     */
+    private static final String WALLS_CATEGORY = "walls";
+
+    /**
+     * Configuration category for diagnostics.
+     */
+    private static final String DEBUG_CATEGORY = "debug";
+
+    /**
+     * Count of furnaces simulated by the smelting benchmark.
+     */
+    private static final int BENCHMARK_FURNACES = 512;
+
+    /**
+     * Count of ticks simulated by the smelting benchmark.
+     */
+    private static final int BENCHMARK_TICKS = 200;
+
+    /**
+     * Whether to log the smelting benchmark when the server starts.
+     */
+    private static boolean benchmarkSmelting;
+
+    /**
+     * The file the startup metrics are written to.
+     */
+    private static File metricsFile;
+
+    /**
+     * The blocks and items that register models.
+     */
+    private final List<IModelRegistrant> registrants =
+        new ArrayList<IModelRegistrant>();
+
     /**
      * Gets the wattle and daub block.
      * @return the block.
@@ -195,167 +245,369 @@ public class MoreMaterialsMod {
 
     /**
      * Pre-initialization event handler.
+     * Registers the blocks and items, then builds the recipes and models
+     * in parallel and registers them.
      * @param event information provided by the mod loader.
      */
     @EventHandler
     public void preInit(final FMLPreInitializationEvent event) {
-    }
+        long start = System.nanoTime();
+        metricsFile = new File(
+            event.getModConfigurationDirectory().getParentFile(),
+            "logs/" + MODID + "-startup.json");
+        Configuration config = new Configuration(
+            event.getSuggestedConfigurationFile());
+        config.load();
+        WallConnectivity.configure(
+            config.getBoolean(
+                "connectToVanillaWalls",
+                WALLS_CATEGORY,
+                false,
+                "Whether walls connect to vanilla cobblestone walls."),
+            config.getBoolean(
+                "connectToFences",
+                WALLS_CATEGORY,
+                false,
+                "Whether walls connect to fences, including other mods'."),
+            config.getStringList(
+                "raisePostBlocks",
+                WALLS_CATEGORY,
+                new String[0],
+                "Registry names of blocks that raise the wall post when "
+                + "placed on top, in addition to torches."));
+        benchmarkSmelting = config.getBoolean(
+            "benchmarkSmelting",
+            DEBUG_CATEGORY,
+            false,
+            "Whether to log the cost of furnace recipe lookups for the "
+            + "mod's items when the server starts.");
+        ContentModule.configure(config);
+        proxy.registerModelLoaders(config);
+        if (config.hasChanged()) {
+            config.save();
+        }
 
-    /**
-     * Initialization event handler.
-     * @param event information provided by the mod loader.
-     */
-    @EventHandler
-    public final void init(final FMLInitializationEvent event) {
+        MinecraftForge.EVENT_BUS.register(new LegacyBlockConverter());
+        RecipeSorter.register(
+            MODID + ":variant_shaped",
+            VariantShapedRecipe.class,
+            RecipeSorter.Category.SHAPED,
+            "after:minecraft:shaped before:minecraft:shapeless");
+        StartupMetrics.addPhase("preInit", start);
+
+        start = System.nanoTime();
         this.initTools();
+        StartupMetrics.addPhase("initTools", start);
+        start = System.nanoTime();
         this.initBricks();
+        StartupMetrics.addPhase("initBricks", start);
+        start = System.nanoTime();
         this.initWattleAndDaub();
+        StartupMetrics.addPhase("initWattleAndDaub", start);
+        start = System.nanoTime();
         this.initRoofing();
+        StartupMetrics.addPhase("initRoofing", start);
+        start = System.nanoTime();
         this.initHardenedClay();
+        StartupMetrics.addPhase("initHardenedClay", start);
+
+        start = System.nanoTime();
+        ContentManifest manifest = ContentManifest.build(
+            proxy,
+            this.createManifestTasks());
+        StartupMetrics.addPhase("buildManifest", start);
+
+        int craftingRecipes =
+            CraftingManager.getInstance().getRecipeList().size();
+        int smeltingRecipes =
+            FurnaceRecipes.instance().getSmeltingList().size();
+        start = System.nanoTime();
+        manifest.commitModels(proxy);
+        StartupMetrics.addPhase("commitModels", start);
+        start = System.nanoTime();
+        manifest.commitRecipes();
+        StartupMetrics.addPhase("commitRecipes", start);
+        StartupMetrics.add(
+            StartupMetrics.CRAFTING_RECIPES,
+            CraftingManager.getInstance().getRecipeList().size()
+            - craftingRecipes);
+        StartupMetrics.add(
+            StartupMetrics.SMELTING_RECIPES,
+            FurnaceRecipes.instance().getSmeltingList().size()
+            - smeltingRecipes);
+    }
+
+    /**
+     * Post-initialization event handler.
+     * @param event information provided by the mod loader.
+     */
+    @EventHandler
+    public final void postInit(final FMLPostInitializationEvent event) {
+        long start = System.nanoTime();
+
+        // all mods have registered their blocks by now.
+        WallConnectivity.compile();
+        StartupMetrics.addPhase("postInit", start);
+        if (proxy.rendersModels()) {
+            // the client bakes the models again after postInit.
+            StartupMetrics.deferReport(MODID, VERSION, metricsFile);
+        } else {
+            StartupMetrics.report(MODID, VERSION, metricsFile);
+        }
+    }
+
+    /**
+     * Missing mappings event handler.
+     * Drops the blocks of disabled modules.
+     * @param event information provided by the mod loader.
+     */
+    @EventHandler
+    public final void missingMappings(final FMLMissingMappingsEvent event) {
+        LegacyBlockConverter.remap(event);
+    }
+
+    /**
+     * Server started event handler.
+     * @param event information provided by the mod loader.
+     */
+    @EventHandler
+    public final void serverStarted(final FMLServerStartedEvent event) {
+        if (benchmarkSmelting) {
+            SmeltingBenchmark.run(
+                MODID,
+                BENCHMARK_FURNACES,
+                BENCHMARK_TICKS);
+        }
+    }
+
+    /**
+     * Server stopping event handler.
+     * @param event information provided by the mod loader.
+     */
+    @EventHandler
+    public final void serverStopping(final FMLServerStoppingEvent event) {
+        FMLLog.info(
+            "Walls and panels skipped %d neighbor queries in unloaded chunks.",
+            ConnectionUtility.getAvoidedChunkLoads());
     }
 
     /**
-     * Adds the slab recipes to the registry.
-     * @param result the result stack.
-     * @param resultMetadata result metadata or 0.
+     * Creates the tasks that build the content manifest.
+     * The model and recipe tasks add their time to separate phases.
+     * @return the tasks.
+     */
+    private List<ContentManifest.Task> createManifestTasks() {
+        List<ContentManifest.Task> tasks =
+            new ArrayList<ContentManifest.Task>();
+        for (final IModelRegistrant registrant : this.registrants) {
+            tasks.add(new ContentManifest.Task() {
+                @Override
+                public void build(final ContentManifest.Builder builder) {
+                    long start = System.nanoTime();
+                    builder.registerModels(registrant);
+                    StartupMetrics.addPhase(
+                        StartupMetrics.MODELS_PHASE,
+                        start);
+                }
+            });
+        }
+
+        tasks.add(new ContentManifest.Task() {
+            @Override
+            public void build(final ContentManifest.Builder builder) {
+                long start = System.nanoTime();
+                addToolRecipes(builder);
+                StartupMetrics.addPhase(StartupMetrics.RECIPES_PHASE, start);
+            }
+        });
+        tasks.add(new ContentManifest.Task() {
+            @Override
+            public void build(final ContentManifest.Builder builder) {
+                long start = System.nanoTime();
+                addBrickRecipes(builder);
+                StartupMetrics.addPhase(StartupMetrics.RECIPES_PHASE, start);
+            }
+        });
+        tasks.add(new ContentManifest.Task() {
+            @Override
+            public void build(final ContentManifest.Builder builder) {
+                long start = System.nanoTime();
+                addWattleAndDaubRecipes(builder);
+                StartupMetrics.addPhase(StartupMetrics.RECIPES_PHASE, start);
+            }
+        });
+        tasks.add(new ContentManifest.Task() {
+            @Override
+            public void build(final ContentManifest.Builder builder) {
+                long start = System.nanoTime();
+                addRoofingRecipes(builder);
+                StartupMetrics.addPhase(StartupMetrics.RECIPES_PHASE, start);
+            }
+        });
+        tasks.add(new ContentManifest.Task() {
+            @Override
+            public void build(final ContentManifest.Builder builder) {
+                long start = System.nanoTime();
+                addHardenedClayRecipes(builder);
+                StartupMetrics.addPhase(StartupMetrics.RECIPES_PHASE, start);
+            }
+        });
+        return tasks;
+    }
+
+    /**
+     * Adds the slab recipe to the manifest.
+     * The row does not matter.
+     * @param builder the manifest builder.
+     * @param outputs the outputs indexed by source metadata.
      * @param source source block.
-     * @param sourceMetadata source metadata or 0.
-     */
-    private static void addSlabRecipes(
-        final BlockSlab result,
-        final int resultMetadata,
-        final Block source,
-        final int sourceMetadata) {
-        ItemStack resultStack = new ItemStack(
-            result,
-            SLAB_QUANTITY,
-            resultMetadata);
-        ItemStack sourceStack = new ItemStack(source, 1, sourceMetadata);
-        GameRegistry.addRecipe(
-            resultStack,
-            "xxx", "   ", "   ",
-            'x', sourceStack);
-        GameRegistry.addRecipe(
-            resultStack,
-            "   ", "xxx", "   ",
-            'x', sourceStack);
-        GameRegistry.addRecipe(
-            resultStack,
-            "   ", "   ", "xxx",
-            'x', sourceStack);
+     */
+    private static void addSlabRecipe(
+        final ContentManifest.Builder builder,
+        final ItemStack[] outputs,
+        final Block source) {
+        builder.addRecipe(new VariantShapedRecipe(
+            outputs,
+            false,
+            "xxx",
+            'x', VariantShapedRecipe.variant(source)));
     }
 
     /**
-     * Adds stairs recipes for a block.
-     * @param result result block
-     * @param resultMetadata result metadata or 0.
-     * @param source source block
-     * @param sourceMetadata source metadata or 0.
-     */
-    private static void addStairsRecipes(
-        final BlockStairs result,
-        final int resultMetadata,
-        final Block source,
-        final int sourceMetadata) {
-        ItemStack resultStack = new ItemStack(
-            result,
-            STAIRS_QUANTITY,
-            resultMetadata);
-        ItemStack sourceStack = new ItemStack(
-            source,
-            1,
-            sourceMetadata);
-        GameRegistry.addRecipe(
-            resultStack,
+     * Adds the stairs recipe for a block, facing either way.
+     * @param builder the manifest builder.
+     * @param outputs the outputs indexed by source metadata.
+     * @param source source block.
+     */
+    private static void addStairsRecipe(
+        final ContentManifest.Builder builder,
+        final ItemStack[] outputs,
+        final Block source) {
+        builder.addRecipe(new VariantShapedRecipe(
+            outputs,
+            true,
             "x  ", "xx ", "xxx",
-            'x', sourceStack);
-        GameRegistry.addRecipe(
-            resultStack,
-            "  x", " xx", "xxx",
-            'x', sourceStack);
+            'x', VariantShapedRecipe.variant(source)));
     }
 
     /**
-     * Adds wall recipes for a block.
-     * @param result result block
-     * @param resultMetadata result metadata or 0.
-     * @param source source block
-     * @param sourceMetadata source metadata or 0.
+     * Adds the wall recipe for a block.
+     * The rows do not matter.
+     * @param builder the manifest builder.
+     * @param outputs the outputs indexed by source metadata.
+     * @param source source block.
      */
     private static void addWallRecipe(
-        final BlockGenericWall result,
-        final int resultMetadata,
-        final Block source,
-        final int sourceMetadata) {
-        ItemStack resultStack = new ItemStack(
-            result,
-            WALL_QUANTITY,
-            resultMetadata);
-        ItemStack sourceStack = new ItemStack(
-            source,
-            1,
-            sourceMetadata);
-        GameRegistry.addRecipe(
-            resultStack,
-            "xxx", "xxx", "   ",
-            'x', sourceStack);
-        GameRegistry.addRecipe(
-            resultStack,
-            "   ", "xxx", "xxx",
-            'x', sourceStack);
+        final ContentManifest.Builder builder,
+        final ItemStack[] outputs,
+        final Block source) {
+        builder.addRecipe(new VariantShapedRecipe(
+            outputs,
+            false,
+            "xxx", "xxx",
+            'x', VariantShapedRecipe.variant(source)));
+    }
+
+    /**
+     * Registers a block or item for model registration.
+     * @param registrant the block or item.
+     */
+    private void addRegistrant(final IModelRegistrant registrant) {
+        this.registrants.add(registrant);
     }
 
     /**
      * Initializes tool items.
      */
     private void initTools() {
+        if (!ContentModule.TOOLS.isEnabled()) {
+            return;
+        }
+
         paintbrush = new ItemPaintbrush();
         GameRegistry.registerItem(paintbrush, ItemPaintbrush.ID);
-        proxy.registerInventoryModel(paintbrush, ItemPaintbrush.ID, 0);
+        this.addRegistrant(paintbrush);
+    }
+
+    /**
+     * Adds the tool recipes to the manifest.
+     * @param builder the manifest builder.
+     */
+    private static void addToolRecipes(
+        final ContentManifest.Builder builder) {
+        if (!ContentModule.TOOLS.isEnabled()) {
+            return;
+        }
+
+        ItemStack woolStack = new ItemStack(Blocks.wool);
+        ItemStack stickStack = new ItemStack(Items.stick);
+        builder.addRecipe(new VariantShapedRecipe(
+            new ItemStack[] {new ItemStack(paintbrush)},
+            false,
+            "x", "y", 'x', woolStack, 'y', stickStack));
     }
 
     /**
      * Initializes brick related items and blocks.
      */
     private void initBricks() {
-        brickClay = new ItemBrickClay();
+        if (ContentModule.BRICKS.isEnabled()) {
+            brickClay = new ItemBrickClay();
+            GameRegistry.registerItem(brickClay, ItemBrickClay.ID);
+            this.addRegistrant(brickClay);
+        }
+
+        if (ContentModule.BRICK_WALLS.isEnabled()) {
+            brickWall = new BlockBrickWall();
+            GameRegistry.registerBlock(
+                brickWall,
+                BlockBrickWall.ID);
+            this.addRegistrant(brickWall);
+        }
+
+        if (!ContentModule.STAINED_BRICKS.isEnabled()) {
+            return;
+        }
+
         stainedBrickClay = new ItemStainedBrickClay();
         stainedBrick = new ItemStainedBrick();
         stainedBrickBlocks = new BlockStainedBricks();
-        stainedBrickSlabBlocks =
-            new BlockStainedBrickSlab[2 * ColorUtility.COLOR_COUNT];
-        stainedBrickSlabItemBlocks =
-            new ItemSlab[2 * ColorUtility.COLOR_COUNT];
-        stainedBrickWallBlocks =
-                new BlockStainedBrickWall[ColorUtility.COLOR_COUNT];
-
-        GameRegistry.registerItem(brickClay, ItemBrickClay.ID);
-        proxy.registerInventoryModel(brickClay, ItemBrickClay.ID, 0);
-
         GameRegistry.registerItem(stainedBrickClay, ItemStainedBrickClay.ID);
         GameRegistry.registerItem(stainedBrick, ItemStainedBrick.ID);
-        stainedBrickClay.registerModels(proxy);
-        stainedBrick.registerModels(proxy);
+        this.addRegistrant(stainedBrickClay);
+        this.addRegistrant(stainedBrick);
 
         GameRegistry.registerBlock(
                 stainedBrickBlocks,
                 ItemBlockStainedBricks.class,
                 BlockStainedBricks.ID);
-        stainedBrickBlocks.registerModels(proxy);
+        this.addRegistrant(stainedBrickBlocks);
 
-        brickWall = new BlockBrickWall();
-        GameRegistry.registerBlock(
-            brickWall,
-            BlockBrickWall.ID);
-        brickWall.registerModels(proxy);
-        addWallRecipe(brickWall, 0, Blocks.brick_block, 0);
+        if (ContentModule.STAINED_BRICK_SLABS.isEnabled()) {
+            this.initStainedBrickSlabs();
+        }
 
-        for (int i = 0; i < ColorUtility.COLOR_COUNT; i++) {
-            BlockStainedBrickSlab slab = new BlockHalfStainedBrickSlab(i);
+        if (ContentModule.STAINED_BRICK_STAIRS.isEnabled()) {
+            this.initStainedBrickStairs();
+        }
+
+        if (ContentModule.STAINED_BRICK_WALLS.isEnabled()) {
+            this.initStainedBrickWall();
+        }
+    }
+
+    /**
+     * Initializes stained brick slabs.
+     */
+    private void initStainedBrickSlabs() {
+        stainedBrickSlabBlocks =
+            new BlockStainedBrickSlab[2 * BlockStainedBrickSlab.GROUP_COUNT];
+        for (int g = 0; g < BlockStainedBrickSlab.GROUP_COUNT; g++) {
+            BlockStainedBrickSlab slab = new BlockHalfStainedBrickSlab(g);
             BlockStainedBrickSlab doubleSlab =
-                new BlockDoubleStainedBrickSlab(i);
-            stainedBrickSlabBlocks[2 * i] = slab;
-            stainedBrickSlabBlocks[2 * i + 1] = doubleSlab;
+                new BlockDoubleStainedBrickSlab(g);
+            stainedBrickSlabBlocks[2 * g] = slab;
+            stainedBrickSlabBlocks[2 * g + 1] = doubleSlab;
             GameRegistry.registerBlock(
                 slab,
                 ItemBlockStainedBrickSlab.class,
@@ -370,68 +622,185 @@ public class MoreMaterialsMod {
                 slab,
                 doubleSlab,
                 true);
-            slab.registerModels(proxy);
-            doubleSlab.registerModels(proxy);
+            this.addRegistrant(slab);
+            this.addRegistrant(doubleSlab);
+            for (int j = 0; j < BlockStainedBrickSlab.COLORS_PER_BLOCK; j++) {
+                int color = slab.getColor(j);
+                this.addRegistrant(LegacyBlockConverter.addLegacyName(
+                    BlockStainedBrickSlab.getModelId(false, color),
+                    slab,
+                    j,
+                    BlockStainedBrickSlab.HALF_META_BIT));
+                this.addRegistrant(LegacyBlockConverter.addLegacyName(
+                    BlockStainedBrickSlab.getModelId(true, color),
+                    doubleSlab,
+                    j,
+                    0));
+            }
+        }
 
+        for (BlockStainedBrickSlab slab : stainedBrickSlabBlocks) {
+            slab.setColorBlocks(stainedBrickSlabBlocks);
+        }
+    }
+
+    /**
+     * Initializes stained brick stairs.
+     */
+    private void initStainedBrickStairs() {
+        stainedBrickStairsBlocks =
+            new BlockStainedBrickStairs[ColorUtility.COLOR_COUNT];
+        for (int i = 0; i < ColorUtility.COLOR_COUNT; i++) {
             BlockStainedBrickStairs stairs = new BlockStainedBrickStairs(
                 stainedBrickBlocks,
                 i);
-            GameRegistry.registerBlock(stairs, stairs.getId());
-            stairs.registerModels(proxy);
-            addSlabRecipes(slab, 0, stainedBrickBlocks, i);
-            addStairsRecipes(stairs, 0, stainedBrickBlocks, i);
+            stainedBrickStairsBlocks[i] = stairs;
+            GameRegistry.registerBlock(
+                stairs,
+                ItemBlockStainedBrickStairs.class,
+                stairs.getId());
+            this.addRegistrant(stairs);
+        }
 
-            BlockStainedBrickWall wall = new BlockStainedBrickWall(
-                stainedBrickBlocks,
-                i);
-            stainedBrickWallBlocks[i] = wall;
-            GameRegistry.registerBlock(wall, wall.getId());
-            wall.registerModels(proxy);
-            addWallRecipe(wall, 0, stainedBrickBlocks, i);
+        for (BlockStainedBrickStairs stairs : stainedBrickStairsBlocks) {
+            stairs.setColorBlocks(stainedBrickStairsBlocks);
+        }
+    }
+
+    /**
+     * Initializes the stained brick wall.
+     */
+    private void initStainedBrickWall() {
+        stainedBrickWall = new BlockStainedBrickWall(stainedBrickBlocks);
+        GameRegistry.registerBlock(
+            stainedBrickWall,
+            ItemBlockColoredWall.class,
+            stainedBrickWall.getId());
+        this.addRegistrant(stainedBrickWall);
+        for (int i = 0; i < ColorUtility.COLOR_COUNT; i++) {
+            this.addRegistrant(LegacyBlockConverter.addLegacyName(
+                stainedBrickWall.getModelId(i),
+                stainedBrickWall,
+                i,
+                0));
+        }
+    }
+
+    /**
+     * Adds the brick recipes to the manifest.
+     * @param builder the manifest builder.
+     */
+    private static void addBrickRecipes(
+        final ContentManifest.Builder builder) {
+        if (ContentModule.BRICK_WALLS.isEnabled()) {
+            addWallRecipe(
+                builder,
+                new ItemStack[] {new ItemStack(brickWall, WALL_QUANTITY)},
+                Blocks.brick_block);
+        }
+
+        if (!ContentModule.BRICKS.isEnabled()) {
+            return;
         }
 
         ItemStack clayStack = new ItemStack(Items.clay_ball);
         ItemStack dirtStack = new ItemStack(Blocks.dirt);
         ItemStack sandStack = new ItemStack(Blocks.sand);
-        ItemStack woolStack = new ItemStack(Blocks.wool);
-        ItemStack stickStack = new ItemStack(Items.stick);
-        GameRegistry.addRecipe(
-            new ItemStack(brickClay, BRICK_QUANTITY),
+        builder.addRecipe(new VariantShapedRecipe(
+            new ItemStack[] {new ItemStack(brickClay, BRICK_QUANTITY)},
+            false,
             "xy", "zx",
             'x', clayStack,
             'y', dirtStack,
-            'z', sandStack);
-        GameRegistry.addRecipe(
-            new ItemStack(paintbrush),
-            "x ", "y ", 'x', woolStack, 'y', stickStack);
-        GameRegistry.addSmelting(
-            brickClay,
+            'z', sandStack));
+        builder.addSmelting(
+            new ItemStack(brickClay, 1, OreDictionary.WILDCARD_VALUE),
             new ItemStack(Items.brick),
             SMELTINGXP);
+        if (ContentModule.STAINED_BRICKS.isEnabled()) {
+            addStainedBrickRecipes(builder);
+        }
+    }
+
+    /**
+     * Adds the stained brick recipes to the manifest.
+     * @param builder the manifest builder.
+     */
+    private static void addStainedBrickRecipes(
+        final ContentManifest.Builder builder) {
+        ItemStack[] stainedBrickClayOutputs =
+            new ItemStack[ColorUtility.COLOR_COUNT];
+        ItemStack[] stainedBrickBlockOutputs =
+            new ItemStack[ColorUtility.COLOR_COUNT];
         for (int i = 0; i < ColorUtility.COLOR_COUNT; i++) {
-            ItemStack dye = new ItemStack(Items.dye, 1, i);
-            ItemStack brickClayStack = new ItemStack(brickClay, 1);
-            GameRegistry.addRecipe(
-                new ItemStack(stainedBrickClay, BRICK_QUANTITY, i),
-                "xxx", "xyx", "xxx", 'x', brickClayStack, 'y', dye);
+            stainedBrickClayOutputs[i] = new ItemStack(
+                stainedBrickClay,
+                BRICK_QUANTITY,
+                i);
+            stainedBrickBlockOutputs[i] = new ItemStack(
+                stainedBrickBlocks,
+                1,
+                i);
 
             ItemStack stainedBrickStack = new ItemStack(stainedBrick, 1, i);
             ItemStack stainedBrickClayStack = new ItemStack(
                 stainedBrickClay,
                 1,
                 i);
-            GameRegistry.addSmelting(
+            builder.addSmelting(
                 stainedBrickClayStack,
                 stainedBrickStack,
                 SMELTINGXP);
+        }
 
-            ItemStack stainedBrickBlock = new ItemStack(
-                stainedBrickBlocks,
-                1,
-                i);
-            GameRegistry.addRecipe(
-                stainedBrickBlock,
-                "xx", "xx", 'x', stainedBrickStack);
+        builder.addRecipe(new VariantShapedRecipe(
+            stainedBrickClayOutputs,
+            false,
+            "xxx", "xyx", "xxx",
+            'x', new ItemStack(brickClay),
+            'y', VariantShapedRecipe.variant(Items.dye)));
+        builder.addRecipe(new VariantShapedRecipe(
+            stainedBrickBlockOutputs,
+            false,
+            "xx", "xx",
+            'x', VariantShapedRecipe.variant(stainedBrick)));
+
+        if (ContentModule.STAINED_BRICK_SLABS.isEnabled()) {
+            ItemStack[] slabOutputs = new ItemStack[ColorUtility.COLOR_COUNT];
+            int colorsPerBlock = BlockStainedBrickSlab.COLORS_PER_BLOCK;
+            for (int g = 0; g < BlockStainedBrickSlab.GROUP_COUNT; g++) {
+                BlockStainedBrickSlab slab = stainedBrickSlabBlocks[2 * g];
+                for (int j = 0; j < colorsPerBlock; j++) {
+                    slabOutputs[slab.getColor(j)] =
+                        new ItemStack(slab, SLAB_QUANTITY, j);
+                }
+            }
+
+            addSlabRecipe(builder, slabOutputs, stainedBrickBlocks);
+        }
+
+        if (ContentModule.STAINED_BRICK_STAIRS.isEnabled()) {
+            ItemStack[] stairsOutputs =
+                new ItemStack[ColorUtility.COLOR_COUNT];
+            for (int i = 0; i < ColorUtility.COLOR_COUNT; i++) {
+                stairsOutputs[i] = new ItemStack(
+                    stainedBrickStairsBlocks[i],
+                    STAIRS_QUANTITY);
+            }
+
+            addStairsRecipe(builder, stairsOutputs, stainedBrickBlocks);
+        }
+
+        if (ContentModule.STAINED_BRICK_WALLS.isEnabled()) {
+            ItemStack[] wallOutputs = new ItemStack[ColorUtility.COLOR_COUNT];
+            for (int i = 0; i < ColorUtility.COLOR_COUNT; i++) {
+                wallOutputs[i] = new ItemStack(
+                    stainedBrickWall,
+                    WALL_QUANTITY,
+                    i);
+            }
+
+            addWallRecipe(builder, wallOutputs, stainedBrickBlocks);
         }
     }
 
@@ -439,57 +808,69 @@ public class MoreMaterialsMod {
      * Inits wattle and daub items and blocks.
      */
     private void initWattleAndDaub() {
+        if (!ContentModule.WATTLE_AND_DAUB.isEnabled()) {
+            return;
+        }
+
         daub = new ItemDaub();
         GameRegistry.registerItem(daub, ItemDaub.ID);
-        proxy.registerInventoryModel(daub, ItemDaub.ID, 0);
+        this.addRegistrant(daub);
 
         wattlePanel = new BlockWattlePanel();
         GameRegistry.registerBlock(
             wattlePanel,
             BlockWattlePanel.ID);
-        wattlePanel.registerModels(proxy);
+        this.addRegistrant(wattlePanel);
 
         wattleAndDaub = new BlockWattleAndDaub();
         GameRegistry.registerBlock(
             wattleAndDaub,
             BlockWattleAndDaub.ID);
-        wattleAndDaub.registerModels(proxy);
+        this.addRegistrant(wattleAndDaub);
+
+        if (!ContentModule.WOODEN_FRAMES.isEnabled()) {
+            return;
+        }
 
         woodenFrame = new BlockWoodenFrame();
         GameRegistry.registerBlock(
             woodenFrame,
             ItemBlockWoodenFrame.class,
             BlockWoodenFrame.ID);
-        woodenFrame.registerModels(proxy);
+        this.addRegistrant(woodenFrame);
 
         crossWoodenFrame = new BlockCrossWoodenFrame();
         GameRegistry.registerBlock(
             crossWoodenFrame,
             ItemBlockWoodenFrame.class,
             BlockCrossWoodenFrame.ID);
-        crossWoodenFrame.registerModels(proxy);
+        this.addRegistrant(crossWoodenFrame);
 
         slashWoodenFrame = new BlockSlashWoodenFrame();
         GameRegistry.registerBlock(
             slashWoodenFrame,
             ItemBlockWoodenFrame.class,
             BlockSlashWoodenFrame.ID);
-        slashWoodenFrame.registerModels(proxy);
+        this.addRegistrant(slashWoodenFrame);
 
         backslashWoodenFrame = new BlockBackslashWoodenFrame();
         GameRegistry.registerBlock(
                 backslashWoodenFrame,
                 ItemBlockWoodenFrame.class,
                 BlockBackslashWoodenFrame.ID);
-        backslashWoodenFrame.registerModels(proxy);
-
-        this.initWattleAndDaubRecipes();
+        this.addRegistrant(backslashWoodenFrame);
     }
 
     /**
-     * Initializes recipes that use wattle and daub.
+     * Adds the recipes that use wattle and daub to the manifest.
+     * @param builder the manifest builder.
      */
-    private void initWattleAndDaubRecipes() {
+    private static void addWattleAndDaubRecipes(
+        final ContentManifest.Builder builder) {
+        if (!ContentModule.WATTLE_AND_DAUB.isEnabled()) {
+            return;
+        }
+
         ItemStack clayStack = new ItemStack(Items.clay_ball);
         ItemStack dirtStack = new ItemStack(Blocks.dirt);
         ItemStack sandStack = new ItemStack(Blocks.sand);
@@ -499,7 +880,7 @@ public class MoreMaterialsMod {
         // that could be used that is available early in the game
         // making wooden frames a viable first or second survival
         // house.
-        Object[] fiberObjects = new Object[] {
+        List<Object> fiberObjects = Arrays.<Object>asList(
                 new ItemStack(Items.wheat),
                 new ItemStack(Items.reeds),
                 Blocks.sapling,
@@ -510,105 +891,130 @@ public class MoreMaterialsMod {
                 new ItemStack(
                     Blocks.double_plant,
                     1,
-                    BlockDoublePlant.EnumPlantType.GRASS.getMeta())
-            };
+                    BlockDoublePlant.EnumPlantType.GRASS.getMeta()));
 
         ItemStack daubStack = new ItemStack(daub, DAUB_QUANTITY);
         ItemStack singleDaubStack = new ItemStack(daub);
-        for (Object fiberObject : fiberObjects) {
-            GameRegistry.addRecipe(
-                daubStack,
-                "wx",
-                "yz",
-                'w', clayStack,
-                'x', dirtStack,
-                'y', sandStack,
-                'z', fiberObject);
+        builder.addRecipe(new VariantShapedRecipe(
+            new ItemStack[] {daubStack},
+            false,
+            "wx",
+            "yz",
+            'w', clayStack,
+            'x', dirtStack,
+            'y', sandStack,
+            'z', fiberObjects));
+
+        // The wattle panel is a window of sticks.
+        // If 6 glass blocks make 16 window panes then
+        // 6 wood blocks make 16 wattle panels, and
+        // 2 wood blocks make 4 sticks, then
+        // 6 sticks make 8 wattle panels.
+        builder.addRecipe(new ShapedRecipes(
+            3,
+            3,
+            new ItemStack[] {
+                null, null, null,
+                stickStack, stickStack, stickStack,
+                stickStack, stickStack, stickStack},
+            new ItemStack(wattlePanel, WATTLE_PANEL_QUANTITY)));
+
+        // allow wattle and daub to be crafted.
+        builder.addRecipe(new ShapelessRecipes(
+            new ItemStack(wattleAndDaub),
+            Arrays.asList(new ItemStack(wattlePanel), new ItemStack(daub))));
+
+        if (!ContentModule.WOODEN_FRAMES.isEnabled()) {
+            return;
         }
 
+        ItemStack[] woodenFrameOutputs =
+            new ItemStack[WoodUtility.WOOD_TYPE_COUNT];
+        ItemStack[] crossWoodenFrameOutputs =
+            new ItemStack[WoodUtility.WOOD_TYPE_COUNT];
+        ItemStack[] slashWoodenFrameOutputs =
+            new ItemStack[WoodUtility.WOOD_TYPE_COUNT];
+        ItemStack[] backslashWoodenFrameOutputs =
+            new ItemStack[WoodUtility.WOOD_TYPE_COUNT];
         for (int i = 0; i < WoodUtility.WOOD_TYPE_COUNT; i++) {
-            ItemStack woodenFrameStack = new ItemStack(
+            woodenFrameOutputs[i] = new ItemStack(
                 woodenFrame,
                 WOODEN_FRAME_QUANTITY,
                 i);
-            ItemStack woodStack = new ItemStack(Blocks.planks, 1, i);
-            GameRegistry.addRecipe(
-                woodenFrameStack,
-                "xyx",
-                "yzy",
-                "xyx",
-                'x', stickStack,
-                'y', woodStack,
-                'z', singleDaubStack);
-
-            ItemStack sourceWoodenFrameStack = new ItemStack(
-                woodenFrame,
-                1,
-                i);
-            ItemStack crossWoodenFrameStack = new ItemStack(
+            crossWoodenFrameOutputs[i] = new ItemStack(
                 crossWoodenFrame,
                 1,
                 i);
-            GameRegistry.addRecipe(
-                crossWoodenFrameStack,
-                "x x",
-                " y ",
-                "x x",
-                'x', stickStack,
-                'y', sourceWoodenFrameStack);
-
-            ItemStack slashWoodenFrameStack = new ItemStack(
+            slashWoodenFrameOutputs[i] = new ItemStack(
                 slashWoodenFrame,
                 1,
                 i);
-            GameRegistry.addRecipe(
-                slashWoodenFrameStack,
-                "  x",
-                " x ",
-                "y  ",
-                'x', stickStack,
-                'y', sourceWoodenFrameStack);
-            ItemStack backslashWoodenFrameStack = new ItemStack(
+            backslashWoodenFrameOutputs[i] = new ItemStack(
                 backslashWoodenFrame,
                 1,
                 i);
-            GameRegistry.addRecipe(
-                backslashWoodenFrameStack,
-                "y  ",
-                " x ",
-                "  x",
-                'x', stickStack,
-                'y', sourceWoodenFrameStack);
         }
 
-        // The wattle panel is a window of sticks.
-        // If 6 glass blocks make 16 window panes then
-        // 6 wood blocks make 16 wattle panels, and
-        // 2 wood blocks make 4 sticks, then
-        // 6 sticks make 8 wattle panels.
-        GameRegistry.addRecipe(
-            new ItemStack(wattlePanel, WATTLE_PANEL_QUANTITY),
-            "   ",
-            "xxx",
-            "xxx",
-            'x', stickStack);
-
-        // allow wattle and daub to be crafted.
-        GameRegistry.addShapelessRecipe(
-            new ItemStack(wattleAndDaub),
-            new ItemStack(wattlePanel),
-            new ItemStack(daub));
+        Object sourceWoodenFrame = VariantShapedRecipe.variant(woodenFrame);
+        builder.addRecipe(new VariantShapedRecipe(
+            woodenFrameOutputs,
+            false,
+            "xyx",
+            "yzy",
+            "xyx",
+            'x', stickStack,
+            'y', VariantShapedRecipe.variant(Blocks.planks),
+            'z', singleDaubStack));
+        builder.addRecipe(new VariantShapedRecipe(
+            crossWoodenFrameOutputs,
+            false,
+            "x x",
+            " y ",
+            "x x",
+            'x', stickStack,
+            'y', sourceWoodenFrame));
+        builder.addRecipe(new VariantShapedRecipe(
+            slashWoodenFrameOutputs,
+            false,
+            "  x",
+            " x ",
+            "y  ",
+            'x', stickStack,
+            'y', sourceWoodenFrame));
+        builder.addRecipe(new VariantShapedRecipe(
+            backslashWoodenFrameOutputs,
+            false,
+            "y  ",
+            " x ",
+            "  x",
+            'x', stickStack,
+            'y', sourceWoodenFrame));
     }
 
     /**
      * Initializes roofing blocks.
      */
     private void initRoofing() {
+        if (!ContentModule.THATCHED_ROOFING.isEnabled()) {
+            return;
+        }
+
         thatchedRoofing = new BlockThatchedRoofing();
         GameRegistry.registerBlock(
             thatchedRoofing,
             BlockThatchedRoofing.ID);
-        thatchedRoofing.registerModels(proxy);
+        this.addRegistrant(thatchedRoofing);
+    }
+
+    /**
+     * Adds the roofing recipes to the manifest.
+     * @param builder the manifest builder.
+     */
+    private static void addRoofingRecipes(
+        final ContentManifest.Builder builder) {
+        if (!ContentModule.THATCHED_ROOFING.isEnabled()) {
+            return;
+        }
 
         ItemStack thatchedRoofingStack = new ItemStack(
             thatchedRoofing,
@@ -621,42 +1027,74 @@ public class MoreMaterialsMod {
         // A player will be tempted to use stairs or wood for the
         // roof.
         ItemStack wheatStack = new ItemStack(Items.wheat, 1, 0);
-        GameRegistry.addShapedRecipe(
-            thatchedRoofingStack,
+        builder.addRecipe(new VariantShapedRecipe(
+            new ItemStack[] {thatchedRoofingStack},
+            false,
             "  x",
             " xx",
             "xxy",
             'x', wheatStack,
-            'y', Blocks.planks);
+            'y', Blocks.planks));
     }
 
     /**
      * Initializes hardened clay blocks.
      */
     private void initHardenedClay() {
-        hardenedClayWall = new BlockHardenedClayWall();
-        GameRegistry.registerBlock(
-            hardenedClayWall,
-            BlockHardenedClayWall.ID);
-        hardenedClayWall.registerModels(proxy);
-        this.addWallRecipe(hardenedClayWall, 0, Blocks.hardened_clay, 0);
+        if (ContentModule.HARDENED_CLAY_WALLS.isEnabled()) {
+            hardenedClayWall = new BlockHardenedClayWall();
+            GameRegistry.registerBlock(
+                hardenedClayWall,
+                BlockHardenedClayWall.ID);
+            this.addRegistrant(hardenedClayWall);
+        }
 
-        stainedHardenedClayWallBlocks =
-            new BlockStainedHardenedClayWall[ColorUtility.COLOR_COUNT];
+        if (!ContentModule.STAINED_HARDENED_CLAY_WALLS.isEnabled()) {
+            return;
+        }
+
+        stainedHardenedClayWall = new BlockStainedHardenedClayWall();
+        GameRegistry.registerBlock(
+            stainedHardenedClayWall,
+            ItemBlockColoredWall.class,
+            stainedHardenedClayWall.getId());
+        this.addRegistrant(stainedHardenedClayWall);
         for (int i = 0; i < ColorUtility.COLOR_COUNT; i++) {
-            BlockStainedHardenedClayWall block =
-                new BlockStainedHardenedClayWall(i);
-            stainedHardenedClayWallBlocks[i] = block;
+            this.addRegistrant(LegacyBlockConverter.addLegacyName(
+                stainedHardenedClayWall.getModelId(i),
+                stainedHardenedClayWall,
+                i,
+                0));
+        }
+    }
+
+    /**
+     * Adds the hardened clay recipes to the manifest.
+     * @param builder the manifest builder.
+     */
+    private static void addHardenedClayRecipes(
+        final ContentManifest.Builder builder) {
+        if (ContentModule.HARDENED_CLAY_WALLS.isEnabled()) {
+            addWallRecipe(
+                builder,
+                new ItemStack[] {
+                    new ItemStack(hardenedClayWall, WALL_QUANTITY)},
+                Blocks.hardened_clay);
+        }
 
-            GameRegistry.registerBlock(block, block.getId());
-            block.registerModels(proxy);
+        if (!ContentModule.STAINED_HARDENED_CLAY_WALLS.isEnabled()) {
+            return;
+        }
 
+        ItemStack[] wallOutputs = new ItemStack[ColorUtility.COLOR_COUNT];
+        for (int i = 0; i < ColorUtility.COLOR_COUNT; i++) {
             // NOTE: metadata for stained hardened clay is backwards.
-            this.addWallRecipe(
-                block,
-                0,
-                Blocks.stained_hardened_clay,
-                ColorUtility.COLOR_COUNT - i - 1);
+            wallOutputs[ColorUtility.COLOR_COUNT - i - 1] = new ItemStack(
+                stainedHardenedClayWall,
+                WALL_QUANTITY,
+                i);
         }
+
+        addWallRecipe(builder, wallOutputs, Blocks.stained_hardened_clay);
     }
 }
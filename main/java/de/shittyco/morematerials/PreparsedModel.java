@@ -0,0 +1,185 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.client.renderer.block.model.BakedQuad;
+import net.minecraft.client.renderer.block.model.BlockPart;
+import net.minecraft.client.renderer.block.model.BlockPartFace;
+import net.minecraft.client.renderer.block.model.FaceBakery;
+import net.minecraft.client.renderer.block.model.ModelBlock;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.client.renderer.vertex.VertexFormat;
+import net.minecraft.client.resources.model.IBakedModel;
+import net.minecraft.client.resources.model.ModelRotation;
+import net.minecraft.client.resources.model.SimpleBakedModel;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.client.model.IFlexibleBakedModel;
+import net.minecraftforge.client.model.IModel;
+import net.minecraftforge.client.model.IModelState;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+import com.google.common.base.Function;
+
+/**
+ * A model file that was parsed ahead of the model bakery, with its
+ * parents resolved. Bakes the same way the bakery bakes model files and
+ * adds the baked quads to the model cache.
+ * @author jrowlett
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class PreparsedModel implements IModel {
+
+    /**
+     * Name of the particle texture.
+     */
+    private static final String PARTICLE = "particle";
+
+    /**
+     * Bakes the quads.
+     */
+    private static final FaceBakery FACE_BAKERY = new FaceBakery();
+
+    /**
+     * The parsed model with its parents resolved.
+     */
+    private ModelBlock model;
+
+    /**
+     * Name of the model.
+     */
+    private ResourceLocation name;
+
+    /**
+     * The model cache, or null.
+     */
+    private BakedModelCache cache;
+
+    /**
+     * Initializes a new instance of the PreparsedModel class.
+     * @param modelBlock the parsed model with its parents resolved.
+     * @param modelName name of the model.
+     * @param modelCache the model cache, or null.
+     */
+    public PreparsedModel(
+        final ModelBlock modelBlock,
+        final ResourceLocation modelName,
+        final BakedModelCache modelCache) {
+        this.model = modelBlock;
+        this.name = modelName;
+        this.cache = modelCache;
+    }
+
+    /**
+     * Gets the models this model needs.
+     * @return none, the parents are already resolved.
+     */
+    @Override
+    public final Collection<ResourceLocation> getDependencies() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Gets the textures this model needs.
+     * @return the textures of the faces and the particle texture.
+     */
+    @Override
+    public final Collection<ResourceLocation> getTextures() {
+        Set<ResourceLocation> textures = new LinkedHashSet<ResourceLocation>();
+        textures.add(this.getTexture(PARTICLE));
+        for (Object element : this.model.getElements()) {
+            for (Object face : ((BlockPart) element).mapFaces.values()) {
+                textures.add(this.getTexture(((BlockPartFace) face).texture));
+            }
+        }
+
+        return textures;
+    }
+
+    /**
+     * Bakes the model.
+     * @param state the model state, a rotation from the block state.
+     * @param format the vertex format.
+     * @param bakedTextureGetter gets the sprite of a texture.
+     * @return the baked model.
+     */
+    @Override
+    public final IFlexibleBakedModel bake(
+        final IModelState state,
+        final VertexFormat format,
+        final Function<ResourceLocation, TextureAtlasSprite>
+            bakedTextureGetter) {
+        ModelRotation rotation = ModelRotation.X0_Y0;
+        if (state instanceof ModelRotation) {
+            rotation = (ModelRotation) state;
+        }
+
+        SimpleBakedModel.Builder builder =
+            new SimpleBakedModel.Builder(this.model).setTexture(
+                bakedTextureGetter.apply(this.getTexture(PARTICLE)));
+        BakedModelCache.Bake bake = new BakedModelCache.Bake();
+        for (Object element : this.model.getElements()) {
+            BlockPart part = (BlockPart) element;
+            for (Object entry : part.mapFaces.entrySet()) {
+                Map.Entry faceEntry = (Map.Entry) entry;
+                EnumFacing facing = (EnumFacing) faceEntry.getKey();
+                BlockPartFace face = (BlockPartFace) faceEntry.getValue();
+                TextureAtlasSprite sprite =
+                    bakedTextureGetter.apply(this.getTexture(face.texture));
+                BakedQuad quad = FACE_BAKERY.makeBakedQuad(
+                    part.positionFrom,
+                    part.positionTo,
+                    face,
+                    sprite,
+                    facing,
+                    rotation,
+                    part.partRotation,
+                    false,
+                    part.shade);
+                EnumFacing cullFace = null;
+                if (face.cullFace == null) {
+                    builder.addGeneralQuad(quad);
+                } else {
+                    cullFace = rotation.rotateFace(face.cullFace);
+                    builder.addFaceQuad(cullFace, quad);
+                }
+
+                bake.add(cullFace, quad, sprite);
+            }
+        }
+
+        IBakedModel baked = builder.makeBakedModel();
+        if (this.cache != null) {
+            this.cache.put(this.name, rotation, format, baked, bake);
+        }
+
+        return new IFlexibleBakedModel.Wrapper(baked, format);
+    }
+
+    /**
+     * Gets the default model state.
+     * @return no rotation.
+     */
+    @Override
+    public final IModelState getDefaultState() {
+        return ModelRotation.X0_Y0;
+    }
+
+    /**
+     * Helper to resolve a texture variable of the model.
+     * @param name the texture variable.
+     * @return the texture.
+     */
+    private ResourceLocation getTexture(final String name) {
+        return new ResourceLocation(this.model.resolveTextureName(name));
+    }
+}
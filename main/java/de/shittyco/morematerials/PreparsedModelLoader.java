@@ -0,0 +1,756 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.block.model.ModelBlock;
+import net.minecraft.client.resources.IResourceManager;
+import net.minecraft.client.resources.ResourcePackRepository;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.client.event.ModelBakeEvent;
+import net.minecraftforge.client.event.TextureStitchEvent;
+import net.minecraftforge.client.model.ICustomModelLoader;
+import net.minecraftforge.client.model.IModel;
+import net.minecraftforge.fml.common.FMLLog;
+import net.minecraftforge.fml.common.Loader;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.JsonParseException;
+
+/**
+ * Reads and parses the mod's model files on worker threads as soon as
+ * the resources reload, while the model bakery is still busy with other
+ * mods, and hands the parsed models to the bakery. The block states are
+ * left for the bakery to parse. Stairs, which their block states use
+ * with uvlock, and models built on the built-in item models are left to
+ * the bakery since a loaded model cannot see those settings. When the
+ * model cache has the models for the mod and resource packs, the files
+ * are not parsed at all and the models come from the cache. Also logs
+ * how long the bakery takes to load its models, with or without the
+ * loader, so the two can be compared.
+ * @author jrowlett
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class PreparsedModelLoader implements ICustomModelLoader {
+
+    /**
+     * Directory of the model files.
+     */
+    private static final String MODELS_DIR = "models/";
+
+    /**
+     * Path prefix of the models the bakery makes in code.
+     */
+    private static final String BUILTIN_DIR = "builtin/";
+
+    /**
+     * Extension of the files.
+     */
+    private static final String JSON = ".json";
+
+    /**
+     * Longest chain of parents followed, which stops parent loops.
+     */
+    private static final int MAX_PARENT_DEPTH = 32;
+
+    /**
+     * Parents of the stairs models, which block states use with uvlock.
+     */
+    private static final Set<ResourceLocation> UVLOCK_PARENTS =
+        new HashSet<ResourceLocation>(Arrays.asList(
+            new ResourceLocation("block/stairs"),
+            new ResourceLocation("block/inner_stairs"),
+            new ResourceLocation("block/outer_stairs"),
+            new ResourceLocation(
+                MoreMaterialsMod.MODID,
+                "block/tinted_stairs"),
+            new ResourceLocation(
+                MoreMaterialsMod.MODID,
+                "block/tinted_inner_stairs"),
+            new ResourceLocation(
+                MoreMaterialsMod.MODID,
+                "block/tinted_outer_stairs")));
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    /**
+     * The mod's jar or directory.
+     */
+    private File source;
+
+    /**
+     * Whether the models are parsed ahead of the bakery, or only the
+     * bakery's load time is logged.
+     */
+    private boolean enabled;
+
+    /**
+     * The model cache, or null.
+     */
+    private BakedModelCache cache;
+
+    /**
+     * Whether the models come from the cache since the last reload.
+     */
+    private boolean cached;
+
+    /**
+     * The resource manager of the last reload.
+     */
+    private IResourceManager resources;
+
+    /**
+     * When the resources last reloaded, or 0 once the bakery's load
+     * time was logged.
+     */
+    private long reloadNanos;
+
+    /**
+     * The pass started by the last reload, or null.
+     */
+    private Future<Result> pending;
+
+    /**
+     * The result of the pass once the bakery asked for it.
+     */
+    private Result result;
+
+    /**
+     * Initializes a new instance of the PreparsedModelLoader class.
+     * @param modSource the mod's jar or directory.
+     * @param parse whether the models are parsed ahead of the bakery.
+     * @param modelCache the model cache, or null.
+     */
+    public PreparsedModelLoader(
+        final File modSource,
+        final boolean parse,
+        final BakedModelCache modelCache) {
+        this.source = modSource;
+        this.enabled = parse;
+        this.cache = modelCache;
+    }
+
+    /**
+     * Reads the model cache for the reloaded resources, or starts parsing
+     * the files if it has no models for them.
+     * @param resourceManager the resource manager.
+     */
+    @Override
+    public final void onResourceManagerReload(
+        final IResourceManager resourceManager) {
+        this.reloadNanos = System.nanoTime();
+        this.pending = null;
+        this.result = null;
+        this.resources = resourceManager;
+        this.cached = false;
+        if (!this.enabled) {
+            return;
+        }
+
+        if (this.cache != null) {
+            long start = System.nanoTime();
+            this.cached = this.cache.load(
+                MoreMaterialsMod.VERSION,
+                this.hashResources());
+            FMLLog.info(
+                "Read the model cache in %.2f ms, %s.",
+                (System.nanoTime() - start) / NANOS_PER_MILLI,
+                this.cached ? "skipping the model files" : "it did not fit");
+            if (this.cached) {
+                return;
+            }
+        }
+
+        FutureTask<Result> task = new FutureTask<Result>(
+            new Callable<Result>() {
+                @Override
+                public Result call() {
+                    return parse(resourceManager);
+                }
+            });
+        Thread thread = new Thread(task, "MoreMaterials model pre-parse");
+        thread.setDaemon(true);
+        thread.start();
+        this.pending = task;
+    }
+
+    /**
+     * Logs how long the bakery took to load its models once it starts
+     * stitching their textures.
+     * @param event the event.
+     */
+    @SubscribeEvent
+    public final void onTextureStitch(final TextureStitchEvent.Pre event) {
+        if (this.reloadNanos == 0) {
+            return;
+        }
+
+        FMLLog.info(
+            "The model bakery loaded its models in %.2f ms %s the "
+            + "pre-parsed models.",
+            (System.nanoTime() - this.reloadNanos) / NANOS_PER_MILLI,
+            this.enabled ? "with" : "without");
+        this.reloadNanos = 0;
+    }
+
+    /**
+     * Writes the model cache once every model is baked, and the startup
+     * metrics once the first bake after postInit is done.
+     * @param event the event.
+     */
+    @SubscribeEvent
+    public final void onModelBake(final ModelBakeEvent event) {
+        if (this.cache != null && this.enabled) {
+            this.cache.save();
+        }
+
+        StartupMetrics.reportDeferred();
+    }
+
+    /**
+     * Checks if a model was parsed ahead of the bakery or is in the
+     * model cache.
+     * @param modelLocation the model location.
+     * @return whether the loader has the model.
+     */
+    @Override
+    public final boolean accepts(final ResourceLocation modelLocation) {
+        ResourceLocation name = getModelName(modelLocation);
+        if (!this.enabled || name == null) {
+            return false;
+        }
+
+        if (this.cached) {
+            return this.cache.contains(name);
+        }
+
+        return this.getResult().accepted.contains(name);
+    }
+
+    /**
+     * Gets a model that was parsed ahead of the bakery or is in the
+     * model cache.
+     * @param modelLocation the model location.
+     * @return the model.
+     */
+    @Override
+    public final IModel loadModel(final ResourceLocation modelLocation) {
+        ResourceLocation name = getModelName(modelLocation);
+        if (this.cached) {
+            return new CachedModel(name, this.cache, this);
+        }
+
+        return new PreparsedModel(
+            this.getResult().models.get(name),
+            name,
+            this.cache);
+    }
+
+    /**
+     * Gets a parsed model, parsing the files first if the models came
+     * from the cache.
+     * @param name the name of the model.
+     * @return the model with its parents resolved, or null if it cannot
+     * be baked from its files.
+     */
+    final ModelBlock getParsedModel(final ResourceLocation name) {
+        Result parsed = this.getResult();
+        if (!parsed.accepted.contains(name)) {
+            return null;
+        }
+
+        return parsed.models.get(name);
+    }
+
+    /**
+     * Helper to get the result of the pass, waiting for it the first
+     * time.
+     * @return the result, empty if there was no pass or it failed.
+     */
+    private Result getResult() {
+        if (this.result != null) {
+            return this.result;
+        }
+
+        long start = System.nanoTime();
+        this.result = new Result();
+        if (this.pending == null && this.cached) {
+            // a cached model did not fit the atlas, so parse the files now.
+            this.result = this.parse(this.resources);
+        } else if (this.pending != null) {
+            try {
+                this.result = this.pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                FMLLog.warning(
+                    "Could not pre-parse the model files: %s",
+                    e.getCause());
+            }
+        }
+
+        long waited = System.nanoTime() - start;
+        StartupMetrics.addPhase("waitForModelFiles", start);
+        FMLLog.info(
+            "Pre-parsed %d model files on %d threads in %.2f ms. The "
+            + "model bakery waited %.2f ms and takes %d of the models.",
+            this.result.fileCount,
+            this.result.threadCount,
+            this.result.elapsedNanos / NANOS_PER_MILLI,
+            waited / NANOS_PER_MILLI,
+            this.result.accepted.size());
+        return this.result;
+    }
+
+    /**
+     * Helper to hash the assets of the mod and of the active resource
+     * packs, which decide whether the model cache fits. Zipped assets
+     * are hashed by the CRC and size of each entry, which changes with
+     * the content, and assets in a directory by the size and time of
+     * each file, since the directory's own size and time do not change
+     * when a file in it is edited.
+     * @return the hash.
+     */
+    private String hashResources() {
+        Hasher hasher = Hashing.sha1().newHasher();
+        // vanilla's models, such as the parents, change with the game.
+        hasher.putString(Loader.MC_VERSION, Charsets.UTF_8);
+        hashAssets(hasher, this.source);
+        ResourcePackRepository repository =
+            Minecraft.getMinecraft().getResourcePackRepository();
+        for (Object entry : repository.getRepositoryEntries()) {
+            // the name of a pack is the name of its zip or directory.
+            hashAssets(hasher, new File(
+                repository.getDirResourcepacks(),
+                ((ResourcePackRepository.Entry) entry)
+                    .getResourcePackName()));
+        }
+
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Helper to hash the assets in a zip or a directory.
+     * @param hasher gets the hashed assets.
+     * @param file the zip or the directory holding the assets.
+     */
+    private static void hashAssets(final Hasher hasher, final File file) {
+        hasher.putString(file.getName(), Charsets.UTF_8);
+        if (file.isDirectory()) {
+            hashFiles(hasher, new File(file, "assets"), "");
+            return;
+        }
+
+        ZipFile zip = null;
+        try {
+            zip = new ZipFile(file);
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.getName().startsWith("assets/")) {
+                    hasher.putString(entry.getName(), Charsets.UTF_8);
+                    hasher.putLong(entry.getCrc());
+                    hasher.putLong(entry.getSize());
+                }
+            }
+        } catch (IOException e) {
+            // an unreadable pack still gets a hash that changes with it.
+            hasher.putLong(file.length());
+            hasher.putLong(file.lastModified());
+        } finally {
+            if (zip != null) {
+                try {
+                    zip.close();
+                } catch (IOException e) {
+                    FMLLog.warning("Could not close %s: %s", file, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper to hash the paths, sizes and times of the files in a
+     * directory and its subdirectories, in name order.
+     * @param hasher gets the hashed files.
+     * @param directory the directory.
+     * @param prefix the path of the directory relative to the assets.
+     */
+    private static void hashFiles(
+        final Hasher hasher,
+        final File directory,
+        final String prefix) {
+        File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+
+        Arrays.sort(children);
+        for (File child : children) {
+            String path = prefix + child.getName();
+            if (child.isDirectory()) {
+                hashFiles(hasher, child, path + "/");
+            } else {
+                hasher.putString(path, Charsets.UTF_8);
+                hasher.putLong(child.length());
+                hasher.putLong(child.lastModified());
+            }
+        }
+    }
+
+    /**
+     * Helper to parse the files. Runs on the pass's thread, or on the
+     * main thread when a cached model did not fit.
+     * @param resourceManager the resource manager.
+     * @return the result.
+     */
+    private Result parse(final IResourceManager resourceManager) {
+        long start = System.nanoTime();
+        Result parsed = new Result();
+        parsed.threadCount = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor =
+            Executors.newFixedThreadPool(parsed.threadCount);
+        try {
+            List<ResourceLocation> files = new ArrayList<ResourceLocation>();
+            for (String path : this.listFiles()) {
+                files.add(new ResourceLocation(MoreMaterialsMod.MODID, path));
+            }
+
+            Set<ResourceLocation> read = new HashSet<ResourceLocation>();
+            while (!files.isEmpty()) {
+                read.addAll(files);
+                List<Future<ParsedFile>> futures =
+                    new ArrayList<Future<ParsedFile>>();
+                for (ResourceLocation file : files) {
+                    futures.add(executor.submit(
+                        new ParseTask(resourceManager, file)));
+                }
+
+                for (Future<ParsedFile> future : futures) {
+                    ParsedFile file = future.get();
+                    parsed.fileCount++;
+                    if (file.model != null) {
+                        parsed.models.put(file.name, file.model);
+                    }
+                }
+
+                // parents outside the mod, such as vanilla's, are
+                // parsed in the next round.
+                files = findMissingParents(parsed.models, read);
+            }
+
+            for (ModelBlock model : parsed.models.values()) {
+                model.getParentFromMap(parsed.models);
+            }
+
+            for (ResourceLocation name : parsed.models.keySet()) {
+                if (name.getResourceDomain().equals(MoreMaterialsMod.MODID)
+                    && isResolved(parsed.models, name)) {
+                    parsed.accepted.add(name);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result();
+        } catch (ExecutionException e) {
+            FMLLog.warning("Could not pre-parse the model files: %s", e);
+            return new Result();
+        } finally {
+            executor.shutdown();
+        }
+
+        parsed.elapsedNanos = System.nanoTime() - start;
+        return parsed;
+    }
+
+    /**
+     * Helper to list the mod's model files.
+     * @return the paths of the files relative to the mod's assets.
+     */
+    private List<String> listFiles() {
+        String prefix = "assets/" + MoreMaterialsMod.MODID + "/";
+        List<String> paths = new ArrayList<String>();
+        if (this.source.isDirectory()) {
+            listFiles(new File(this.source, prefix), "", paths);
+        } else {
+            ZipFile zip = null;
+            try {
+                zip = new ZipFile(this.source);
+                Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    if (name.startsWith(prefix)) {
+                        paths.add(name.substring(prefix.length()));
+                    }
+                }
+            } catch (IOException e) {
+                FMLLog.warning("Could not list %s: %s", this.source, e);
+            } finally {
+                if (zip != null) {
+                    try {
+                        zip.close();
+                    } catch (IOException e) {
+                        FMLLog.warning(
+                            "Could not close %s: %s",
+                            this.source,
+                            e);
+                    }
+                }
+            }
+        }
+
+        List<String> files = new ArrayList<String>();
+        for (String path : paths) {
+            if (path.endsWith(JSON) && path.startsWith(MODELS_DIR)) {
+                files.add(path);
+            }
+        }
+
+        return files;
+    }
+
+    /**
+     * Helper to list the files in a directory and its subdirectories.
+     * @param directory the directory.
+     * @param prefix the path of the directory relative to the assets.
+     * @param paths gets populated with the paths of the files.
+     */
+    private static void listFiles(
+        final File directory,
+        final String prefix,
+        final List<String> paths) {
+        File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+
+        for (File child : children) {
+            if (child.isDirectory()) {
+                listFiles(child, prefix + child.getName() + "/", paths);
+            } else {
+                paths.add(prefix + child.getName());
+            }
+        }
+    }
+
+    /**
+     * Helper to find the parents that were not parsed yet.
+     * @param models the parsed models by name.
+     * @param read the files read so far, including those that failed.
+     * @return the files of the missing parents.
+     */
+    private static List<ResourceLocation> findMissingParents(
+        final Map<ResourceLocation, ModelBlock> models,
+        final Set<ResourceLocation> read) {
+        Set<ResourceLocation> files = new HashSet<ResourceLocation>();
+        for (ModelBlock model : models.values()) {
+            ResourceLocation parent = model.getParentLocation();
+            if (parent == null
+                || parent.getResourcePath().startsWith(BUILTIN_DIR)) {
+                continue;
+            }
+
+            ResourceLocation file = new ResourceLocation(
+                parent.getResourceDomain(),
+                MODELS_DIR + parent.getResourcePath() + JSON);
+            if (!models.containsKey(parent) && !read.contains(file)) {
+                files.add(file);
+            }
+        }
+
+        return new ArrayList<ResourceLocation>(files);
+    }
+
+    /**
+     * Helper to check that every parent of a model was parsed, none is a
+     * built-in model and the model is not a stairs model.
+     * @param models the parsed models by name.
+     * @param name the name of the model.
+     * @return whether the model can be baked from its files.
+     */
+    private static boolean isResolved(
+        final Map<ResourceLocation, ModelBlock> models,
+        final ResourceLocation name) {
+        ModelBlock model = models.get(name);
+        for (int depth = 0; depth < MAX_PARENT_DEPTH; depth++) {
+            ResourceLocation parent = model.getParentLocation();
+            if (parent == null) {
+                return true;
+            }
+
+            if (UVLOCK_PARENTS.contains(parent)) {
+                return false;
+            }
+
+            model = models.get(parent);
+            if (model == null) {
+                return false;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Helper to get the name of a model from the location the bakery
+     * asks for.
+     * @param modelLocation the model location.
+     * @return the name, like a parent reference, or null if the location
+     * is not a model of the mod.
+     */
+    private static ResourceLocation getModelName(
+        final ResourceLocation modelLocation) {
+        String path = modelLocation.getResourcePath();
+        if (!modelLocation.getResourceDomain().equals(MoreMaterialsMod.MODID)
+            || !path.startsWith(MODELS_DIR)) {
+            return null;
+        }
+
+        return new ResourceLocation(
+            MoreMaterialsMod.MODID,
+            path.substring(MODELS_DIR.length()));
+    }
+
+    /**
+     * Parses one file.
+     */
+    private static final class ParseTask implements Callable<ParsedFile> {
+        /**
+         * The resource manager.
+         */
+        private IResourceManager resourceManager;
+
+        /**
+         * The file.
+         */
+        private ResourceLocation file;
+
+        /**
+         * Initializes a new instance of the ParseTask class.
+         * @param manager the resource manager.
+         * @param location the file.
+         */
+        private ParseTask(
+            final IResourceManager manager,
+            final ResourceLocation location) {
+            this.resourceManager = manager;
+            this.file = location;
+        }
+
+        /**
+         * Reads and parses the file. Files that fail are left for the
+         * bakery to report.
+         * @return the parsed file.
+         */
+        @Override
+        public ParsedFile call() {
+            ParsedFile parsed = new ParsedFile();
+            String path = this.file.getResourcePath();
+            InputStream input = null;
+            try {
+                input = this.resourceManager.getResource(this.file)
+                    .getInputStream();
+                Reader reader = new InputStreamReader(input, Charsets.UTF_8);
+                parsed.name = new ResourceLocation(
+                    this.file.getResourceDomain(),
+                    path.substring(
+                        MODELS_DIR.length(),
+                        path.length() - JSON.length()));
+                parsed.model = ModelBlock.deserialize(reader);
+                parsed.model.name = parsed.name.toString();
+            } catch (IOException e) {
+                parsed.model = null;
+            } catch (JsonParseException e) {
+                parsed.model = null;
+            } finally {
+                if (input != null) {
+                    try {
+                        input.close();
+                    } catch (IOException e) {
+                        FMLLog.warning("Could not close %s: %s", path, e);
+                    }
+                }
+            }
+
+            return parsed;
+        }
+    }
+
+    /**
+     * A file that was parsed.
+     */
+    private static final class ParsedFile {
+        /**
+         * Name of the model.
+         */
+        private ResourceLocation name;
+
+        /**
+         * The model, or null for a file that failed.
+         */
+        private ModelBlock model;
+    }
+
+    /**
+     * The result of a pass.
+     */
+    private static final class Result {
+        /**
+         * The parsed models by name, including parents outside the mod.
+         */
+        private Map<ResourceLocation, ModelBlock> models =
+            new HashMap<ResourceLocation, ModelBlock>();
+
+        /**
+         * Names of the models handed to the bakery.
+         */
+        private Set<ResourceLocation> accepted =
+            new HashSet<ResourceLocation>();
+
+        /**
+         * Count of files read.
+         */
+        private int fileCount;
+
+        /**
+         * Count of worker threads.
+         */
+        private int threadCount;
+
+        /**
+         * Time from the start to the end of the pass, in nanoseconds.
+         */
+        private long elapsedNanos;
+    }
+}
@@ -3,6 +3,8 @@
  */
 package de.shittyco.morematerials;
 
+import net.minecraft.block.Block;
+import net.minecraft.block.properties.IProperty;
 import net.minecraft.item.Item;
 import net.minecraftforge.fml.common.FMLLog;
 
@@ -31,10 +33,20 @@ public class ServerProxy extends CommonProxy {
         final Item item,
         final String id,
         final int metadata) {
-        FMLLog.fine(
-            "Registering inventory model %s for metadata %d. no-op.",
-            id,
-            metadata);
+        // no-op, models are not rendered on the server.
+    }
+
+    /**
+     * Helper to register the item models of an item that picks its
+     * model by damage.
+     * @param item the item to register.
+     * @param modelIds the item model for each damage value.
+     */
+    @Override
+    public final void registerVariantInventoryModels(
+        final Item item,
+        final String[] modelIds) {
+        // no-op, models are not rendered on the server.
     }
 
     /**
@@ -46,10 +58,56 @@ public class ServerProxy extends CommonProxy {
     public final void addModelBakeryVariant(
         final Item item,
         final String variantName) {
-        FMLLog.fine(
-            "Registering model bakery variant %s for model %s. no-op.",
-            variantName,
-            item.getUnlocalizedName());
+        // no-op, models are not rendered on the server.
+    }
+
+    /**
+     * Helper to map the states of a block with a color property to the
+     * block state files named per color.
+     * @param block the block.
+     * @param colorProperty the property holding the color.
+     * @param modelIds the block state file for each color value.
+     */
+    @Override
+    public final void registerColoredStateMapper(
+        final Block block,
+        final IProperty colorProperty,
+        final String[] modelIds) {
+        // no-op, models are not rendered on the server.
+    }
+
+    /**
+     * Helper to map every state of a wall to the block state file for
+     * its color. The wall model handles the connections.
+     * @param block the wall block.
+     * @param colorProperty the property holding the color, or null if
+     * there is one color.
+     * @param modelIds the block state file for each color value.
+     */
+    @Override
+    public final void registerWallStateMapper(
+        final Block block,
+        final IProperty colorProperty,
+        final String[] modelIds) {
+        // no-op, models are not rendered on the server.
     }
 
+    /**
+     * Helper to keep the model loader away from a block that is never
+     * drawn.
+     * @param block the block.
+     */
+    @Override
+    public final void registerHiddenBlock(final Block block) {
+        // no-op, models are not rendered on the server.
+    }
+
+    /**
+     * Gets whether this side renders models.
+     * @return always false.
+     */
+    @Override
+    public final boolean rendersModels() {
+        return false;
+    }
 }
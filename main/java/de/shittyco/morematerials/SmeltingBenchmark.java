@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.FurnaceRecipes;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.common.FMLLog;
+
+/**
+ * Debug tool that times the furnace recipe lookups for the mod's items.
+ * The 1.8 furnace scans every furnace recipe for each lookup and has no
+ * hook for a faster index, so this only measures what that scan costs.
+ * @author jrowlett
+ *
+ */
+final class SmeltingBenchmark {
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    /**
+     * Times smelting lookups for the mod's furnace inputs as furnaces
+     * would do them and logs the cost per tick.
+     * @param modId the ID of the mod whose inputs to look up.
+     * @param furnaces the count of furnaces checking each tick.
+     * @param ticks the count of ticks to simulate.
+     */
+    public static void run(
+        final String modId,
+        final int furnaces,
+        final int ticks) {
+        FurnaceRecipes recipes = FurnaceRecipes.instance();
+        List<ItemStack> inputs = new ArrayList<ItemStack>();
+        for (Object key : recipes.getSmeltingList().keySet()) {
+            ItemStack input = (ItemStack) key;
+            ResourceLocation name = (ResourceLocation)
+                Item.itemRegistry.getNameForObject(input.getItem());
+            if (name != null && name.getResourceDomain().equals(modId)) {
+                inputs.add(input);
+            }
+        }
+
+        if (inputs.isEmpty()) {
+            return;
+        }
+
+        int lookups = furnaces * ticks;
+        int found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            if (recipes.getSmeltingResult(inputs.get(i % inputs.size()))
+                != null) {
+                found++;
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        FMLLog.info(
+            "Smelting lookups for %d furnaces over %d ticks with %d furnace "
+            + "recipes took %.4f ms/tick, %d of %d found.",
+            furnaces,
+            ticks,
+            recipes.getSmeltingList().size(),
+            elapsed / NANOS_PER_MILLI / ticks,
+            found,
+            lookups);
+    }
+
+    /**
+     * Prevent instantiation of the SmeltingBenchmark class.
+     */
+    private SmeltingBenchmark() {
+    }
+}
@@ -0,0 +1,310 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.block.BlockStairs;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.AxisAlignedBB;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.world.IBlockAccess;
+
+/**
+ * Shapes of the mod's stairs. The shape is worked out in one pass over
+ * the two neighbors that can turn the stairs, and the collision boxes of
+ * every facing, half and shape are built once into immutable tables
+ * instead of going through the mutable bounds on the block singleton.
+ * @author jrowlett
+ *
+ */
+final class StairsShapeUtility {
+
+    /**
+     * Middle of the block.
+     */
+    private static final double HALF = 0.5;
+
+    /**
+     * The shapes, indexed by ordinal.
+     */
+    private static final BlockStairs.EnumShape[] SHAPES =
+        BlockStairs.EnumShape.values();
+
+    /**
+     * The halves, indexed by ordinal.
+     */
+    private static final BlockStairs.EnumHalf[] HALVES =
+        BlockStairs.EnumHalf.values();
+
+    /**
+     * Collision boxes indexed by horizontal facing, half and shape.
+     */
+    private static final AxisAlignedBB[][][][] COLLISION_BOXES =
+        createCollisionBoxes();
+
+    /**
+     * Reusable position for neighbor lookups, one per thread since chunks
+     * are meshed on worker threads.
+     */
+    private static final ThreadLocal<BlockPos.MutableBlockPos> CURSOR =
+        new ThreadLocal<BlockPos.MutableBlockPos>() {
+            @Override
+            protected BlockPos.MutableBlockPos initialValue() {
+                return new BlockPos.MutableBlockPos();
+            }
+        };
+
+    /**
+     * Gets the block state with the shape set from the neighbors.
+     * @param state the block state.
+     * @param blockAccess the world.
+     * @param pos the position of the stairs.
+     * @return the block state with the shape.
+     */
+    public static IBlockState getActualState(
+        final IBlockState state,
+        final IBlockAccess blockAccess,
+        final BlockPos pos) {
+        return state.withProperty(
+            BlockStairs.SHAPE,
+            getShape(state, blockAccess, pos));
+    }
+
+    /**
+     * Adds the collision boxes of the stairs that intersect the mask.
+     * @param state the block state.
+     * @param blockAccess the world.
+     * @param pos the position of the stairs.
+     * @param mask the area being tested in world coordinates.
+     * @param list gets populated with the intersecting boxes.
+     */
+    public static void addCollisionBoxes(
+        final IBlockState state,
+        final IBlockAccess blockAccess,
+        final BlockPos pos,
+        final AxisAlignedBB mask,
+        final List<AxisAlignedBB> list) {
+        EnumFacing facing = (EnumFacing) state.getValue(BlockStairs.FACING);
+        BlockStairs.EnumHalf half =
+            (BlockStairs.EnumHalf) state.getValue(BlockStairs.HALF);
+        BoundsUtility.addCollisionBoxes(
+            COLLISION_BOXES[facing.getHorizontalIndex()][half.ordinal()]
+                [getShape(state, blockAccess, pos).ordinal()],
+            pos,
+            mask,
+            list);
+    }
+
+    /**
+     * Helper to work out the shape from the neighbors. A stair at right
+     * angles in front turns the stairs into an outer corner, otherwise
+     * one at right angles behind turns them into an inner corner.
+     * @param state the block state.
+     * @param blockAccess the world.
+     * @param pos the position of the stairs.
+     * @return the shape.
+     */
+    private static BlockStairs.EnumShape getShape(
+        final IBlockState state,
+        final IBlockAccess blockAccess,
+        final BlockPos pos) {
+        EnumFacing facing = (EnumFacing) state.getValue(BlockStairs.FACING);
+        boolean top = state.getValue(BlockStairs.HALF)
+            == BlockStairs.EnumHalf.TOP;
+        EnumFacing turn = getTurn(state, blockAccess, pos, facing, true);
+        if (turn != null) {
+            return isLeft(facing, turn, top)
+                ? BlockStairs.EnumShape.OUTER_LEFT
+                : BlockStairs.EnumShape.OUTER_RIGHT;
+        }
+
+        turn = getTurn(state, blockAccess, pos, facing.getOpposite(), false);
+        if (turn != null) {
+            return isLeft(facing, turn, top)
+                ? BlockStairs.EnumShape.INNER_LEFT
+                : BlockStairs.EnumShape.INNER_RIGHT;
+        }
+
+        return BlockStairs.EnumShape.STRAIGHT;
+    }
+
+    /**
+     * Helper to find the facing of a neighbor that turns the stairs.
+     * Neighbors in chunks that are not loaded leave the stairs straight.
+     * @param state the block state.
+     * @param blockAccess the world.
+     * @param pos the position of the stairs.
+     * @param direction the direction of the neighbor.
+     * @param outer whether the neighbor makes an outer corner.
+     * @return the facing of the neighbor, or null if it does not turn
+     * the stairs.
+     */
+    private static EnumFacing getTurn(
+        final IBlockState state,
+        final IBlockAccess blockAccess,
+        final BlockPos pos,
+        final EnumFacing direction,
+        final boolean outer) {
+        BlockPos.MutableBlockPos cursor = CURSOR.get();
+        cursor.set(
+            pos.getX() + direction.getFrontOffsetX(),
+            pos.getY(),
+            pos.getZ() + direction.getFrontOffsetZ());
+        if (!ConnectionUtility.isNeighborLoaded(blockAccess, cursor)) {
+            return null;
+        }
+
+        IBlockState neighbor = blockAccess.getBlockState(cursor);
+        if (!(neighbor.getBlock() instanceof BlockStairs)
+            || neighbor.getValue(BlockStairs.HALF)
+            != state.getValue(BlockStairs.HALF)) {
+            return null;
+        }
+
+        EnumFacing turn = (EnumFacing) neighbor.getValue(BlockStairs.FACING);
+        if (turn.getAxis() == direction.getAxis()) {
+            return null;
+        }
+
+        // a matching stair beside us continues our run instead.
+        EnumFacing side = outer ? turn.getOpposite() : turn;
+        cursor.set(
+            pos.getX() + side.getFrontOffsetX(),
+            pos.getY(),
+            pos.getZ() + side.getFrontOffsetZ());
+        if (!ConnectionUtility.isNeighborLoaded(blockAccess, cursor)) {
+            return null;
+        }
+
+        IBlockState beside = blockAccess.getBlockState(cursor);
+        if (beside.getBlock() instanceof BlockStairs
+            && beside.getValue(BlockStairs.HALF)
+            == state.getValue(BlockStairs.HALF)
+            && beside.getValue(BlockStairs.FACING)
+            == state.getValue(BlockStairs.FACING)) {
+            return null;
+        }
+
+        return turn;
+    }
+
+    /**
+     * Helper to check if a turn makes a left corner. Upside down stairs
+     * swap left and right.
+     * @param facing the facing of the stairs.
+     * @param turn the facing of the neighbor that turns them.
+     * @param top whether the stairs are upside down.
+     * @return whether the corner is a left corner.
+     */
+    private static boolean isLeft(
+        final EnumFacing facing,
+        final EnumFacing turn,
+        final boolean top) {
+        return (turn == facing.rotateYCCW()) != top;
+    }
+
+    /**
+     * Helper to build the collision box table.
+     * @return the boxes indexed by horizontal facing, half and shape.
+     */
+    private static AxisAlignedBB[][][][] createCollisionBoxes() {
+        AxisAlignedBB[][][][] boxes =
+            new AxisAlignedBB[EnumFacing.HORIZONTALS.length]
+                [HALVES.length][SHAPES.length][];
+        for (EnumFacing facing : EnumFacing.HORIZONTALS) {
+            for (BlockStairs.EnumHalf half : HALVES) {
+                for (BlockStairs.EnumShape shape : SHAPES) {
+                    boxes[facing.getHorizontalIndex()][half.ordinal()]
+                        [shape.ordinal()] = createBoxes(facing, half, shape);
+                }
+            }
+        }
+
+        return boxes;
+    }
+
+    /**
+     * Helper to build the boxes of one shape: the slab, the step and
+     * the extra quarter of an inner corner.
+     * @param facing the facing of the stairs.
+     * @param half the half of the slab.
+     * @param shape the shape.
+     * @return the boxes relative to the block.
+     */
+    private static AxisAlignedBB[] createBoxes(
+        final EnumFacing facing,
+        final BlockStairs.EnumHalf half,
+        final BlockStairs.EnumShape shape) {
+        boolean top = half == BlockStairs.EnumHalf.TOP;
+        double slabMinY = top ? HALF : 0;
+        double stepMinY = top ? 0 : HALF;
+        boolean left = shape == BlockStairs.EnumShape.OUTER_LEFT
+            || shape == BlockStairs.EnumShape.INNER_LEFT;
+        EnumFacing side = left != top
+            ? facing.rotateYCCW()
+            : facing.rotateY();
+        List<AxisAlignedBB> boxes = new ArrayList<AxisAlignedBB>();
+        boxes.add(createBox(slabMinY, slabMinY + HALF));
+        switch (shape) {
+        case OUTER_LEFT:
+        case OUTER_RIGHT:
+            boxes.add(createBox(stepMinY, stepMinY + HALF, facing, side));
+            break;
+        case INNER_LEFT:
+        case INNER_RIGHT:
+            boxes.add(createBox(stepMinY, stepMinY + HALF, facing));
+            boxes.add(createBox(
+                stepMinY,
+                stepMinY + HALF,
+                facing.getOpposite(),
+                side));
+            break;
+        default:
+            boxes.add(createBox(stepMinY, stepMinY + HALF, facing));
+            break;
+        }
+
+        return boxes.toArray(new AxisAlignedBB[boxes.size()]);
+    }
+
+    /**
+     * Helper to build a box that fills the halves of the block toward
+     * the given sides.
+     * @param minY the bottom of the box.
+     * @param maxY the top of the box.
+     * @param sides the horizontal sides to keep the half toward.
+     * @return the box relative to the block.
+     */
+    private static AxisAlignedBB createBox(
+        final double minY,
+        final double maxY,
+        final EnumFacing... sides) {
+        double minX = 0;
+        double maxX = 1;
+        double minZ = 0;
+        double maxZ = 1;
+        for (EnumFacing side : sides) {
+            boolean positive = side.getAxisDirection()
+                == EnumFacing.AxisDirection.POSITIVE;
+            if (side.getAxis() == EnumFacing.Axis.X) {
+                minX = positive ? HALF : minX;
+                maxX = positive ? maxX : HALF;
+            } else {
+                minZ = positive ? HALF : minZ;
+                maxZ = positive ? maxZ : HALF;
+            }
+        }
+
+        return new AxisAlignedBB(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Prevent instantiation of the StairsShapeUtility class.
+     */
+    private StairsShapeUtility() {
+    }
+}
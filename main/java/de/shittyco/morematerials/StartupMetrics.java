@@ -0,0 +1,262 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.minecraft.block.Block;
+import net.minecraft.item.Item;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.common.FMLLog;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+/**
+ * Times the startup phases of the mod and counts what they register,
+ * so startup regressions can be tracked across modpack updates.
+ * @author jrowlett
+ *
+ */
+final class StartupMetrics {
+
+    /**
+     * Counter for crafting recipes.
+     */
+    public static final String CRAFTING_RECIPES = "craftingRecipes";
+
+    /**
+     * Counter for smelting recipes.
+     */
+    public static final String SMELTING_RECIPES = "smeltingRecipes";
+
+    /**
+     * Counter for model variants added to the model bakery.
+     */
+    public static final String MODEL_VARIANTS = "modelVariants";
+
+    /**
+     * Counter for inventory models.
+     */
+    public static final String INVENTORY_MODELS = "inventoryModels";
+
+    /**
+     * Counter for custom state mappers.
+     */
+    public static final String STATE_MAPPERS = "stateMappers";
+
+    /**
+     * Counter for models read from the model cache.
+     */
+    public static final String MODEL_CACHE_HITS = "modelCacheHits";
+
+    /**
+     * Counter for cached models that had to be baked from their files.
+     */
+    public static final String MODEL_CACHE_MISSES = "modelCacheMisses";
+
+    /**
+     * Phase for building the client model registrations, summed over the
+     * manifest tasks that run in parallel.
+     */
+    public static final String MODELS_PHASE = "models";
+
+    /**
+     * Phase for building the recipes, summed over the manifest tasks that
+     * run in parallel.
+     */
+    public static final String RECIPES_PHASE = "recipes";
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    /**
+     * Time spent in each phase, in nanoseconds.
+     */
+    private static Map<String, Long> phases =
+        new LinkedHashMap<String, Long>();
+
+    /**
+     * Counts of registered things.
+     */
+    private static Map<String, Integer> counts =
+        new LinkedHashMap<String, Integer>();
+
+    /**
+     * The ID of the mod whose report waits for the model bakery, or null.
+     */
+    private static String deferredModId;
+
+    /**
+     * The version of the mod whose report waits for the model bakery.
+     */
+    private static String deferredVersion;
+
+    /**
+     * The file the deferred report is written to.
+     */
+    private static File deferredFile;
+
+    /**
+     * Adds the time since a start time to a phase.
+     * @param phase the name of the phase.
+     * @param startNanos the start time from System.nanoTime.
+     */
+    public static synchronized void addPhase(
+        final String phase,
+        final long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        Long total = phases.get(phase);
+        if (total != null) {
+            elapsed += total;
+        }
+
+        phases.put(phase, elapsed);
+    }
+
+    /**
+     * Adds to a counter.
+     * @param counter the name of the counter.
+     * @param amount the amount to add.
+     */
+    public static synchronized void add(
+        final String counter,
+        final int amount) {
+        Integer total = counts.get(counter);
+        if (total != null) {
+            counts.put(counter, total + amount);
+        } else {
+            counts.put(counter, amount);
+        }
+    }
+
+    /**
+     * Increments a counter.
+     * @param counter the name of the counter.
+     */
+    public static void increment(final String counter) {
+        add(counter, 1);
+    }
+
+    /**
+     * Logs the metrics and writes them to a file as JSON.
+     * @param modId the ID of the mod whose blocks and items to count.
+     * @param version the version of the mod.
+     * @param file the file to write.
+     */
+    public static synchronized void report(
+        final String modId,
+        final String version,
+        final File file) {
+        JsonObject phaseJson = new JsonObject();
+        for (Map.Entry<String, Long> entry : phases.entrySet()) {
+            double millis = entry.getValue() / NANOS_PER_MILLI;
+            phaseJson.addProperty(entry.getKey(), millis);
+            FMLLog.info(
+                "Startup phase %s took %.2f ms.",
+                entry.getKey(),
+                millis);
+        }
+
+        JsonObject countJson = new JsonObject();
+        countJson.addProperty(
+            "blocks",
+            countKeys(Block.blockRegistry.getKeys(), modId));
+        countJson.addProperty(
+            "items",
+            countKeys(Item.itemRegistry.getKeys(), modId));
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            countJson.addProperty(entry.getKey(), entry.getValue());
+        }
+
+        FMLLog.info("Startup registered %s.", countJson);
+        JsonObject json = new JsonObject();
+        json.addProperty("version", version);
+        json.addProperty("timestamp", System.currentTimeMillis());
+        json.add("phasesMillis", phaseJson);
+        json.add("counts", countJson);
+        file.getParentFile().mkdirs();
+        Writer writer = null;
+        try {
+            writer = new FileWriter(file);
+            new GsonBuilder().setPrettyPrinting().create().toJson(
+                json,
+                writer);
+        } catch (IOException e) {
+            FMLLog.warning(
+                "Could not write startup metrics to %s: %s",
+                file,
+                e);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    FMLLog.warning("Could not close %s: %s", file, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits with the report until the model bakery has baked the models
+     * of the first resource reload after postInit, so the report covers
+     * model loading.
+     * @param modId the ID of the mod whose blocks and items to count.
+     * @param version the version of the mod.
+     * @param file the file to write.
+     */
+    public static synchronized void deferReport(
+        final String modId,
+        final String version,
+        final File file) {
+        deferredModId = modId;
+        deferredVersion = version;
+        deferredFile = file;
+    }
+
+    /**
+     * Writes the deferred report, if there is one.
+     */
+    public static synchronized void reportDeferred() {
+        if (deferredModId == null) {
+            return;
+        }
+
+        report(deferredModId, deferredVersion, deferredFile);
+        deferredModId = null;
+        deferredVersion = null;
+        deferredFile = null;
+    }
+
+    /**
+     * Helper to count the registry names in a mod's domain.
+     * @param keys the registry names.
+     * @param modId the ID of the mod.
+     * @return the count.
+     */
+    private static int countKeys(final Iterable keys, final String modId) {
+        int count = 0;
+        for (Object key : keys) {
+            if (((ResourceLocation) key).getResourceDomain().equals(modId)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Prevent instantiation of the StartupMetrics class.
+     */
+    private StartupMetrics() {
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.minecraft.block.properties.IProperty;
+import net.minecraft.block.state.IBlockState;
+
+/**
+ * Converts between metadata and block states with tables built once
+ * per block. Block states are interned, so the reverse lookup is by
+ * identity.
+ * @author jrowlett
+ *
+ */
+final class StateCodec {
+
+    /**
+     * Count of metadata values.
+     */
+    public static final int META_COUNT = 16;
+
+    /**
+     * Bits of valid metadata.
+     */
+    private static final int META_MASK = META_COUNT - 1;
+
+    /**
+     * The block states indexed by metadata.
+     */
+    private final IBlockState[] states;
+
+    /**
+     * The metadata indexed by block state.
+     */
+    private final Map<IBlockState, Integer> metas;
+
+    /**
+     * The properties stored in metadata.
+     */
+    private final IProperty[] properties;
+
+    /**
+     * Initializes a new instance of the StateCodec class.
+     * Where several metadata values decode to the same state, the
+     * lowest one is used to encode it.
+     * @param statesByMeta the block state for each metadata value.
+     * @param storedProperties the properties stored in metadata.
+     */
+    StateCodec(
+        final IBlockState[] statesByMeta,
+        final IProperty... storedProperties) {
+        this.states = statesByMeta.clone();
+        this.properties = storedProperties.clone();
+        this.metas = new IdentityHashMap<IBlockState, Integer>();
+        for (int i = this.states.length - 1; i >= 0; i--) {
+            this.metas.put(this.states[i], i);
+        }
+    }
+
+    /**
+     * Creates a codec for a single property where the metadata is the
+     * index of the value. Metadata without a value decodes to the base
+     * state.
+     * @param baseState the default state of the block.
+     * @param property the property stored in metadata.
+     * @param values the values of the property in metadata order.
+     * @return the codec.
+     */
+    public static StateCodec create(
+        final IBlockState baseState,
+        final IProperty property,
+        final Comparable[] values) {
+        IBlockState[] statesByMeta = new IBlockState[META_COUNT];
+        for (int i = 0; i < META_COUNT; i++) {
+            if (i < values.length) {
+                statesByMeta[i] = baseState.withProperty(property, values[i]);
+            } else {
+                statesByMeta[i] = baseState;
+            }
+        }
+
+        return new StateCodec(statesByMeta, property);
+    }
+
+    /**
+     * Gets the block state for metadata.
+     * @param meta the metadata. Bits above the lowest 4 are ignored.
+     * @return the block state.
+     */
+    public IBlockState getState(final int meta) {
+        return this.states[meta & META_MASK];
+    }
+
+    /**
+     * Gets the metadata for a block state.
+     * @param state the block state, which may have properties that are
+     * not stored in metadata set by getActualState.
+     * @return the metadata.
+     */
+    public int getMeta(final IBlockState state) {
+        Integer meta = this.metas.get(state);
+        if (meta != null) {
+            return meta;
+        }
+
+        for (int i = 0; i < this.states.length; i++) {
+            if (this.matches(state, this.states[i])) {
+                return i;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Helper to compare the stored properties of two states.
+     * @param state the state to look up.
+     * @param candidate the state from the table.
+     * @return whether all stored properties are equal.
+     */
+    private boolean matches(
+        final IBlockState state,
+        final IBlockState candidate) {
+        for (IProperty property : this.properties) {
+            if (!state.getValue(property).equals(
+                candidate.getValue(property))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import net.minecraft.client.renderer.ItemMeshDefinition;
+import net.minecraft.client.resources.model.ModelResourceLocation;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Picks the inventory model of an item from its damage, for items that
+ * come in every color or wood species. The model locations are built
+ * once, so finding a stack's model is an array read.
+ * @author jrowlett
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class VariantMeshDefinition implements ItemMeshDefinition {
+
+    /**
+     * The inventory model locations indexed by damage.
+     */
+    private ModelResourceLocation[] locations;
+
+    /**
+     * Initializes a new instance of the VariantMeshDefinition class.
+     * @param modelIds the item model for each damage value.
+     */
+    public VariantMeshDefinition(final String[] modelIds) {
+        this.locations = new ModelResourceLocation[modelIds.length];
+        for (int i = 0; i < modelIds.length; i++) {
+            this.locations[i] = new ModelResourceLocation(
+                "morematerials:" + modelIds[i],
+                "inventory");
+        }
+    }
+
+    /**
+     * Gets the model location of a stack.
+     * @param stack the stack.
+     * @return the location for the stack's damage, or for damage 0 if
+     * the damage is out of range.
+     */
+    @Override
+    public final ModelResourceLocation getModelLocation(
+        final ItemStack stack) {
+        int damage = stack.getMetadata();
+        if (damage < 0 || damage >= this.locations.length) {
+            damage = 0;
+        }
+
+        return this.locations[damage];
+    }
+}
@@ -0,0 +1,370 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.block.Block;
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.world.World;
+import net.minecraftforge.common.ForgeHooks;
+import net.minecraftforge.oredict.OreDictionary;
+
+/**
+ * A shaped recipe that covers every color or wood species at once.
+ * One ingredient is the variant ingredient: its damage picks the
+ * output, and every slot holding it must have the same damage.
+ * The pattern is trimmed, so it matches anywhere in the grid, and it
+ * can optionally match mirrored.
+ * @author jrowlett
+ *
+ */
+public class VariantShapedRecipe implements IRecipe {
+
+    /**
+     * Width and height of the crafting grid.
+     */
+    private static final int GRID_SIZE = 3;
+
+    /**
+     * Variant used when the recipe has no variant ingredient.
+     */
+    private static final int NO_VARIANT = 0;
+
+    /**
+     * Result of a failed match.
+     */
+    private static final int NO_MATCH = -1;
+
+    /**
+     * The outputs indexed by variant. Null where there is no output.
+     */
+    private ItemStack[] outputs;
+
+    /**
+     * Whether the pattern also matches mirrored left to right.
+     */
+    private boolean mirrored;
+
+    /**
+     * Width of the pattern.
+     */
+    private int width;
+
+    /**
+     * Height of the pattern.
+     */
+    private int height;
+
+    /**
+     * The accepted stacks for each cell of the pattern, row by row.
+     * Null for empty cells and for cells holding the variant ingredient.
+     */
+    private List<ItemStack>[] ingredients;
+
+    /**
+     * Whether each cell of the pattern holds the variant ingredient.
+     */
+    private boolean[] variantCells;
+
+    /**
+     * The item of the variant ingredient, or null if there is none.
+     */
+    private Item variantItem;
+
+    /**
+     * Initializes a new instance of the VariantShapedRecipe class.
+     * @param variantOutputs the outputs indexed by variant.
+     * @param mirror whether the pattern also matches mirrored.
+     * @param recipe the pattern rows followed by pairs of key character
+     * and ingredient. An ingredient is an ItemStack, Item, Block, a List
+     * of ItemStacks that are all accepted, or the variant ingredient.
+     */
+    public VariantShapedRecipe(
+        final ItemStack[] variantOutputs,
+        final boolean mirror,
+        final Object... recipe) {
+        this.outputs = variantOutputs.clone();
+        this.mirrored = mirror;
+
+        int index = 0;
+        List<String> rows = new ArrayList<String>();
+        while (index < recipe.length && recipe[index] instanceof String) {
+            rows.add((String) recipe[index]);
+            index++;
+        }
+
+        Map<Character, Object> keys = new HashMap<Character, Object>();
+        for (; index + 1 < recipe.length; index += 2) {
+            keys.put((Character) recipe[index], recipe[index + 1]);
+        }
+
+        this.height = rows.size();
+        this.width = rows.get(0).length();
+        this.ingredients = new List[this.width * this.height];
+        this.variantCells = new boolean[this.width * this.height];
+        for (int y = 0; y < this.height; y++) {
+            String row = rows.get(y);
+            for (int x = 0; x < this.width; x++) {
+                char key = row.charAt(x);
+                if (key == ' ') {
+                    continue;
+                }
+
+                Object ingredient = keys.get(key);
+                int cell = y * this.width + x;
+                if (ingredient instanceof Variant) {
+                    this.variantItem = ((Variant) ingredient).item;
+                    this.variantCells[cell] = true;
+                } else {
+                    this.ingredients[cell] = toStacks(ingredient);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the variant ingredient.
+     * @param item the item whose damage picks the output.
+     * @return the ingredient to use in the recipe.
+     */
+    public static Object variant(final Item item) {
+        return new Variant(item);
+    }
+
+    /**
+     * Creates the variant ingredient.
+     * @param block the block whose damage picks the output.
+     * @return the ingredient to use in the recipe.
+     */
+    public static Object variant(final Block block) {
+        return new Variant(Item.getItemFromBlock(block));
+    }
+
+    /**
+     * Checks if the recipe matches the crafting grid.
+     * @param inv the crafting grid.
+     * @param world the world.
+     * @return whether the recipe matches.
+     */
+    @Override
+    public final boolean matches(
+        final InventoryCrafting inv,
+        final World world) {
+        return this.findVariant(inv) != NO_MATCH;
+    }
+
+    /**
+     * Gets the output for the crafting grid.
+     * @param inv the crafting grid.
+     * @return a new stack of the output.
+     */
+    @Override
+    public final ItemStack getCraftingResult(final InventoryCrafting inv) {
+        int variant = this.findVariant(inv);
+        if (variant == NO_MATCH) {
+            return null;
+        }
+
+        return this.outputs[variant].copy();
+    }
+
+    /**
+     * Gets the size of the recipe.
+     * @return the count of cells in the pattern.
+     */
+    @Override
+    public final int getRecipeSize() {
+        return this.width * this.height;
+    }
+
+    /**
+     * Gets an example output of the recipe.
+     * @return the first output.
+     */
+    @Override
+    public final ItemStack getRecipeOutput() {
+        for (ItemStack output : this.outputs) {
+            if (output != null) {
+                return output;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the items left in the grid after crafting.
+     * @param inv the crafting grid.
+     * @return the container items of the ingredients.
+     */
+    @Override
+    public final ItemStack[] getRemainingItems(final InventoryCrafting inv) {
+        return ForgeHooks.defaultRecipeGetRemainingItems(inv);
+    }
+
+    /**
+     * Helper to find the variant that matches the crafting grid.
+     * @param inv the crafting grid.
+     * @return the variant, or NO_MATCH.
+     */
+    private int findVariant(final InventoryCrafting inv) {
+        for (int x = 0; x <= GRID_SIZE - this.width; x++) {
+            for (int y = 0; y <= GRID_SIZE - this.height; y++) {
+                int variant = this.matchAt(inv, x, y, false);
+                if (variant == NO_MATCH && this.mirrored) {
+                    variant = this.matchAt(inv, x, y, true);
+                }
+
+                if (variant != NO_MATCH) {
+                    return variant;
+                }
+            }
+        }
+
+        return NO_MATCH;
+    }
+
+    /**
+     * Helper to match the pattern at an offset in the grid.
+     * @param inv the crafting grid.
+     * @param offsetX column of the pattern's left edge.
+     * @param offsetY row of the pattern's top edge.
+     * @param mirror whether to mirror the pattern.
+     * @return the variant, or NO_MATCH.
+     */
+    private int matchAt(
+        final InventoryCrafting inv,
+        final int offsetX,
+        final int offsetY,
+        final boolean mirror) {
+        int variant = NO_MATCH;
+        for (int x = 0; x < GRID_SIZE; x++) {
+            for (int y = 0; y < GRID_SIZE; y++) {
+                ItemStack stack = inv.getStackInRowAndColumn(x, y);
+                int patternX = x - offsetX;
+                int patternY = y - offsetY;
+                if (patternX < 0 || patternX >= this.width
+                    || patternY < 0 || patternY >= this.height) {
+                    if (stack != null) {
+                        return NO_MATCH;
+                    }
+
+                    continue;
+                }
+
+                if (mirror) {
+                    patternX = this.width - patternX - 1;
+                }
+
+                int cell = patternY * this.width + patternX;
+                if (this.variantCells[cell]) {
+                    if (stack == null || stack.getItem() != this.variantItem) {
+                        return NO_MATCH;
+                    }
+
+                    int damage = stack.getMetadata();
+                    if (variant != NO_MATCH && variant != damage) {
+                        return NO_MATCH;
+                    }
+
+                    variant = damage;
+                } else if (!matchesCell(this.ingredients[cell], stack)) {
+                    return NO_MATCH;
+                }
+            }
+        }
+
+        if (variant == NO_MATCH) {
+            variant = NO_VARIANT;
+        }
+
+        if (variant < 0
+            || variant >= this.outputs.length
+            || this.outputs[variant] == null) {
+            return NO_MATCH;
+        }
+
+        return variant;
+    }
+
+    /**
+     * Helper to check a stack against the accepted stacks of a cell.
+     * @param accepted the accepted stacks, or null for an empty cell.
+     * @param stack the stack in the grid.
+     * @return whether the stack is accepted.
+     */
+    private static boolean matchesCell(
+        final List<ItemStack> accepted,
+        final ItemStack stack) {
+        if (accepted == null || stack == null) {
+            return accepted == null && stack == null;
+        }
+
+        for (ItemStack target : accepted) {
+            if (target.getItem() == stack.getItem()
+                && (target.getMetadata() == OreDictionary.WILDCARD_VALUE
+                || target.getMetadata() == stack.getMetadata())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Helper to convert an ingredient to the stacks it accepts.
+     * @param ingredient the ingredient.
+     * @return the accepted stacks.
+     */
+    private static List<ItemStack> toStacks(final Object ingredient) {
+        List<ItemStack> result = new ArrayList<ItemStack>();
+        if (ingredient instanceof List) {
+            for (Object entry : (List) ingredient) {
+                result.addAll(toStacks(entry));
+            }
+        } else if (ingredient instanceof ItemStack) {
+            result.add(((ItemStack) ingredient).copy());
+        } else if (ingredient instanceof Item) {
+            result.add(new ItemStack(
+                (Item) ingredient,
+                1,
+                OreDictionary.WILDCARD_VALUE));
+        } else if (ingredient instanceof Block) {
+            result.add(new ItemStack(
+                (Block) ingredient,
+                1,
+                OreDictionary.WILDCARD_VALUE));
+        } else {
+            throw new IllegalArgumentException(
+                "Invalid recipe ingredient: " + ingredient);
+        }
+
+        return result;
+    }
+
+    /**
+     * The ingredient whose damage picks the output.
+     */
+    private static final class Variant {
+        /**
+         * The item of the ingredient.
+         */
+        private Item item;
+
+        /**
+         * Initializes a new instance of the Variant class.
+         * @param variantItem the item of the ingredient.
+         */
+        private Variant(final Item variantItem) {
+            this.item = variantItem;
+        }
+    }
+}
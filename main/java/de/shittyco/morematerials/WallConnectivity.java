@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockFence;
+import net.minecraft.block.BlockFenceGate;
+import net.minecraft.block.BlockTorch;
+import net.minecraft.block.BlockWall;
+import net.minecraft.block.material.Material;
+import net.minecraftforge.fml.common.FMLLog;
+
+/**
+ * Decides which blocks walls connect to and which blocks on top of a
+ * wall raise its post. The rules are compiled into a table keyed by the
+ * block instance once all mods have registered their blocks. A lookup
+ * per neighbor is one identity hash probe plus unboxing a cached Byte,
+ * and the table does not depend on block IDs, so remapping the IDs for
+ * a world or a server leaves it valid.
+ * @author jrowlett
+ *
+ */
+final class WallConnectivity {
+
+    /**
+     * Class bit for blocks that walls connect to.
+     */
+    private static final byte CONNECTS = 1;
+
+    /**
+     * Class bit for blocks that raise the post of the wall below.
+     */
+    private static final byte RAISES_POST = 2;
+
+    /**
+     * Whether walls connect to vanilla cobblestone walls.
+     */
+    private static boolean connectToVanillaWalls;
+
+    /**
+     * Whether walls connect to fences, including other mods' fences.
+     */
+    private static boolean connectToFences;
+
+    /**
+     * Registry names of blocks that raise the post besides torches.
+     */
+    private static String[] raisePostNames = new String[0];
+
+    /**
+     * Blocks resolved from the registry names that raise the post.
+     */
+    private static Set<Block> raisePostBlocks = new HashSet<Block>();
+
+    /**
+     * The compiled classes keyed by block, or null until compiled.
+     */
+    private static volatile Map<Block, Byte> classes;
+
+    /**
+     * Sets the configurable rules. Takes effect on the next compile.
+     * @param vanillaWalls whether walls connect to cobblestone walls.
+     * @param fences whether walls connect to fences.
+     * @param raisePost registry names of blocks that raise the post.
+     */
+    public static void configure(
+        final boolean vanillaWalls,
+        final boolean fences,
+        final String[] raisePost) {
+        connectToVanillaWalls = vanillaWalls;
+        connectToFences = fences;
+        raisePostNames = raisePost.clone();
+    }
+
+    /**
+     * Compiles the rules into the table for every registered block.
+     * Call after all mods have registered their blocks.
+     */
+    public static void compile() {
+        Set<Block> resolved = new HashSet<Block>();
+        for (String name : raisePostNames) {
+            Block block = Block.getBlockFromName(name);
+            if (block == null) {
+                FMLLog.warning("Unknown block %s raising wall posts.", name);
+            } else {
+                resolved.add(block);
+            }
+        }
+
+        raisePostBlocks = resolved;
+        Map<Block, Byte> table = new IdentityHashMap<Block, Byte>();
+        for (Object entry : Block.blockRegistry) {
+            Block block = (Block) entry;
+            table.put(block, classify(block));
+        }
+
+        classes = table;
+    }
+
+    /**
+     * Gets whether a wall connects to a block.
+     * @param block the neighboring block.
+     * @return whether the wall connects.
+     */
+    public static boolean connects(final Block block) {
+        return (getClass(block) & CONNECTS) != 0;
+    }
+
+    /**
+     * Gets whether a block on top of a wall raises its post.
+     * @param block the block above the wall.
+     * @return whether the post is raised.
+     */
+    public static boolean raisesPost(final Block block) {
+        return (getClass(block) & RAISES_POST) != 0;
+    }
+
+    /**
+     * Helper to look up the class bits of a block.
+     * Falls back to the rules when the table is not compiled yet or the
+     * block was registered afterwards.
+     * @param block the block.
+     * @return the class bits.
+     */
+    private static byte getClass(final Block block) {
+        Map<Block, Byte> table = classes;
+        if (table != null) {
+            Byte result = table.get(block);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        return classify(block);
+    }
+
+    /**
+     * Helper to apply the rules to a block.
+     * @param block the block.
+     * @return the class bits.
+     */
+    private static byte classify(final Block block) {
+        boolean connects = false;
+        if (block instanceof BlockGenericWall
+            || block instanceof BlockFenceGate) {
+            connects = true;
+        } else if (connectToVanillaWalls && block instanceof BlockWall) {
+            connects = true;
+        } else if (connectToFences && block instanceof BlockFence) {
+            connects = true;
+        } else if (block.getMaterial().isOpaque()
+            && block.isFullCube()) {
+            connects = block.getMaterial() != Material.gourd;
+        }
+
+        byte result = 0;
+        if (connects) {
+            result |= CONNECTS | RAISES_POST;
+        } else if (block instanceof BlockTorch
+            || raisePostBlocks.contains(block)) {
+            result |= RAISES_POST;
+        }
+
+        return result;
+    }
+
+    /**
+     * Prevent instantiation of the WallConnectivity class.
+     */
+    private WallConnectivity() {
+    }
+}
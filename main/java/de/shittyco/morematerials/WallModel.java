@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.client.renderer.vertex.VertexFormat;
+import net.minecraft.client.resources.model.ModelRotation;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.client.model.IFlexibleBakedModel;
+import net.minecraftforge.client.model.IModel;
+import net.minecraftforge.client.model.IModelState;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+import com.google.common.base.Function;
+
+/**
+ * A wall model with one texture, or with an overlay tinted by the block
+ * drawn over an untinted texture. Bakes to a model that covers every
+ * connection of the wall, or to a model that bakes each connection the
+ * first time it renders.
+ * @author jrowlett
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class WallModel implements IModel {
+
+    /**
+     * The texture of the wall.
+     */
+    private ResourceLocation texture;
+
+    /**
+     * The tinted overlay, or null.
+     */
+    private ResourceLocation overlay;
+
+    /**
+     * Holds the masks baked on demand, or null to bake every mask.
+     */
+    private BakedVariantCache variants;
+
+    /**
+     * Initializes a new instance of the WallModel class.
+     * @param wallTexture the texture of the wall.
+     * @param overlayTexture the overlay tinted by the block, or null.
+     * @param variantCache holds the masks baked on demand, or null to
+     * bake every mask.
+     */
+    public WallModel(
+        final ResourceLocation wallTexture,
+        final ResourceLocation overlayTexture,
+        final BakedVariantCache variantCache) {
+        this.texture = wallTexture;
+        this.overlay = overlayTexture;
+        this.variants = variantCache;
+    }
+
+    /**
+     * Gets the models this model needs.
+     * @return none.
+     */
+    @Override
+    public final Collection<ResourceLocation> getDependencies() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Gets the textures this model needs.
+     * @return the wall texture and the overlay.
+     */
+    @Override
+    public final Collection<ResourceLocation> getTextures() {
+        if (this.overlay == null) {
+            return Collections.singletonList(this.texture);
+        }
+
+        return Arrays.asList(this.texture, this.overlay);
+    }
+
+    /**
+     * Bakes the model.
+     * @param state the model state, walls are not rotated.
+     * @param format the vertex format.
+     * @param bakedTextureGetter gets the sprite of a texture.
+     * @return the baked model.
+     */
+    @Override
+    public final IFlexibleBakedModel bake(
+        final IModelState state,
+        final VertexFormat format,
+        final Function<ResourceLocation, TextureAtlasSprite>
+            bakedTextureGetter) {
+        TextureAtlasSprite sprite = bakedTextureGetter.apply(this.texture);
+        TextureAtlasSprite overlaySprite = null;
+        if (this.overlay != null) {
+            overlaySprite = bakedTextureGetter.apply(this.overlay);
+        }
+
+        if (this.variants != null) {
+            return new BakedWallModel(
+                sprite,
+                overlaySprite,
+                format,
+                this.variants);
+        }
+
+        return new BakedWallModel(
+            sprite,
+            BakedWallModel.bakeQuads(sprite, overlaySprite),
+            format);
+    }
+
+    /**
+     * Gets the default model state.
+     * @return no rotation.
+     */
+    @Override
+    public final IModelState getDefaultState() {
+        return ModelRotation.X0_Y0;
+    }
+}
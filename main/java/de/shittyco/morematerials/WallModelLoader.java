@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import net.minecraft.client.resources.IResourceManager;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.client.model.ICustomModelLoader;
+import net.minecraftforge.client.model.IModel;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Loads the wall models without model files. The model name holds the
+ * texture, for example morematerials:wall/minecraft:blocks/brick. A
+ * second texture is drawn over the first and tinted by the block, for
+ * example morematerials:wall/morematerials:blocks/stainedbricks_mortar/
+ * morematerials:blocks/stainedbricks without the line break.
+ * @author jrowlett
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class WallModelLoader implements ICustomModelLoader {
+
+    /**
+     * Path of the wall models.
+     */
+    private static final String WALL_PATH = "models/block/wall/";
+
+    /**
+     * Holds the walls baked on demand, or null to bake them up front.
+     */
+    private BakedVariantCache variants;
+
+    /**
+     * Initializes a new instance of the WallModelLoader class.
+     * @param variantCache holds the walls baked on demand, or null to
+     * bake them up front.
+     */
+    public WallModelLoader(final BakedVariantCache variantCache) {
+        this.variants = variantCache;
+    }
+
+    /**
+     * Checks if a model is a wall model.
+     * @param modelLocation the model location.
+     * @return whether the loader makes the model.
+     */
+    @Override
+    public final boolean accepts(final ResourceLocation modelLocation) {
+        return modelLocation.getResourceDomain().equals(
+            MoreMaterialsMod.MODID)
+            && modelLocation.getResourcePath().startsWith(WALL_PATH);
+    }
+
+    /**
+     * Makes the wall model for a model location.
+     * @param modelLocation the model location.
+     * @return the wall model.
+     */
+    @Override
+    public final IModel loadModel(final ResourceLocation modelLocation) {
+        ResourceLocation[] textures = ModelNameUtility.parseTextures(
+            modelLocation.getResourcePath().substring(WALL_PATH.length()));
+        return new WallModel(
+            textures[0],
+            textures.length > 1 ? textures[1] : null,
+            this.variants);
+    }
+
+    /**
+     * Called when the resource packs change.
+     * @param resourceManager the resource manager.
+     */
+    @Override
+    public final void onResourceManagerReload(
+        final IResourceManager resourceManager) {
+        // no-op, the geometry does not depend on the resource packs.
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) Jon Rowlett. All rights reserved.
+ */
+package de.shittyco.morematerials;
+
+import java.util.Map;
+
+import net.minecraft.block.properties.IProperty;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Maps every state of a wall to the normal variant of its block state
+ * file. The wall model picks the geometry for the connections itself.
+ * @author jrowlett
+ *
+ */
+@SideOnly(Side.CLIENT)
+public class WallStateMapper extends ColoredStateMapper {
+
+    /**
+     * The only variant in a wall's block state file.
+     */
+    private static final String VARIANT = "normal";
+
+    /**
+     * Initializes a new instance of the WallStateMapper class.
+     * @param property the property holding the color, or null if there
+     * is one color.
+     * @param ids the block state file for each color value.
+     */
+    public WallStateMapper(
+        final IProperty property,
+        final String[] ids) {
+        super(property, ids);
+    }
+
+    /**
+     * Gets the variant in the block state file.
+     * @param properties the properties of the state without the color.
+     * @return always the normal variant.
+     */
+    @Override
+    protected final String getVariant(final Map properties) {
+        return VARIANT;
+    }
+}
@@ -14,6 +14,8 @@ import net.minecraft.block.state.IBlockState;
 import net.minecraft.creativetab.CreativeTabs;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
+import net.minecraftforge.common.property.ExtendedBlockState;
+import net.minecraftforge.common.property.IUnlistedProperty;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
@@ -30,6 +32,11 @@ public abstract class WoodBlock extends Block {
     private static final PropertyEnum VARIANT_PROPERTY =
         PropertyEnum.create("variant", WoodMetadata.class);
 
+    /**
+     * Converts between metadata and block states.
+     */
+    private final StateCodec codec;
+
     /**
      * Gets a block state from metadata.
      * @param meta the metadata or color value.
@@ -37,9 +44,7 @@ public abstract class WoodBlock extends Block {
      */
     @Override
     public final IBlockState getStateFromMeta(final int meta) {
-        return addVariant(
-            this.getDefaultState(),
-            WoodMetadata.fromMetadata(meta));
+        return this.codec.getState(meta);
     }
 
     /**
@@ -49,9 +54,7 @@ public abstract class WoodBlock extends Block {
      */
     @Override
     public final int getMetaFromState(final IBlockState state) {
-        WoodMetadata value =
-            (WoodMetadata) state.getValue(VARIANT_PROPERTY);
-        return value.ordinal();
+        return this.codec.getMeta(state);
     }
 
     /**
@@ -61,20 +64,29 @@ public abstract class WoodBlock extends Block {
      */
     @Override
     public final int damageDropped(final IBlockState state) {
-        WoodMetadata value =
-            (WoodMetadata) state.getValue(VARIANT_PROPERTY);
-        return value.ordinal();
+        return this.codec.getMeta(state);
     }
 
     /**
      * Creates a block state.
-     * @return a block state with the variant property.
+     * @return a block state with the variant property and the unlisted
+     * properties of the block.
      */
     @Override
     protected final BlockState createBlockState() {
-        return new BlockState(this, new IProperty[] {VARIANT_PROPERTY});
+        return new ExtendedBlockState(
+            this,
+            new IProperty[] {VARIANT_PROPERTY},
+            this.getUnlistedProperties());
     }
 
+    /**
+     * Gets the properties that are only set on the extended block state
+     * when the block renders. Called while the block is constructed.
+     * @return the unlisted properties.
+     */
+    protected abstract IUnlistedProperty[] getUnlistedProperties();
+
     /**
      * Gets the sub blocks.
      * @param item the item that gets dropped.
@@ -102,6 +114,10 @@ public abstract class WoodBlock extends Block {
             WoodMetadata.OAK);
         this.setDefaultState(
             state);
+        this.codec = StateCodec.create(
+            state,
+            VARIANT_PROPERTY,
+            WoodMetadata.values());
     }
 
     /**
@@ -112,16 +128,14 @@ public abstract class WoodBlock extends Block {
     protected final void registerModels(
         final CommonProxy proxy,
         final String id) {
-        Item itemBlock = GameUtility.getItemFromBlock(id);
+        String[] modelIds = new String[WoodUtility.WOOD_TYPE_COUNT];
         for (int i = 0; i < WoodUtility.WOOD_TYPE_COUNT; i++) {
-            proxy.addModelBakeryVariant(
-                itemBlock,
-                "morematerials:" + id + "_" + WoodUtility.WOOD_TYPE_IDS[i]);
-            proxy.registerInventoryModel(
-                itemBlock,
-                id + "_" + WoodUtility.WOOD_TYPE_IDS[i],
-                i);
+            modelIds[i] = id + "_" + WoodUtility.WOOD_TYPE_IDS[i];
         }
+
+        proxy.registerVariantInventoryModels(
+            Item.getItemFromBlock(this),
+            modelIds);
     }
 
     /**
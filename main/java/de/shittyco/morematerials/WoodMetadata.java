@@ -41,6 +41,11 @@ public enum WoodMetadata implements IStringSerializable {
      */
     BIG_OAK(5);
 
+    /**
+     * The values indexed by metadata.
+     */
+    private static final WoodMetadata[] VALUES = values();
+
     /**
      * metadata / damage value for the type of wood.
      */
@@ -49,10 +54,14 @@ public enum WoodMetadata implements IStringSerializable {
     /**
      * Gets the WoodMetadata value from an integer.
      * @param meta the integer value
-     * @return the matching enum value.
+     * @return the matching enum value, or OAK if out of range.
      */
     public static WoodMetadata fromMetadata(final int meta) {
-        return values()[meta];
+        if (meta < 0 || meta >= VALUES.length) {
+            return OAK;
+        }
+
+        return VALUES[meta];
     }
 
     /**